@@ -0,0 +1,7 @@
+package project.enums;
+
+public enum LoadStrategy {
+    READER,
+    MAPPED,
+    PARALLEL
+}
@@ -0,0 +1,6 @@
+package project.enums;
+
+public enum PersistenceMode {
+    SNAPSHOT,
+    JOURNAL
+}
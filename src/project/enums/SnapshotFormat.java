@@ -0,0 +1,17 @@
+package project.enums;
+
+public enum SnapshotFormat {
+    CSV("csv"),
+    BINARY("binary"),
+    JSON_LINES("jsonl");
+
+    private final String codecName;
+
+    SnapshotFormat(String codecName) {
+        this.codecName = codecName;
+    }
+
+    public String getCodecName() {
+        return codecName;
+    }
+}
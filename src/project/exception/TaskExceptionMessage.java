@@ -11,11 +11,22 @@ public class TaskExceptionMessage {
 
     public static final String SUBTASK_DOES_NOT_EXIST = "Subtask does not exist";
     public static final String SUBTASK_SHOULD_HAVE_EQUAL_EPICS = "Subtasks should have equal epics";
+    public static final String TEXT_SHOULD_NOT_CONTAIN_LINE_BREAKS =
+            "Name and description should not contain line breaks, task id: ";
 
     public static final String ERROR_SAVING_DATA = "Error saving data";
     public static final String ERROR_READING_FILE = "Error reading file";
     public static final String TASKS_CANT_HAVE_SAME_ID = "Tasks cannot have the same id";
+    public static final String EPIC_HAS_INVALID_SUBTASK = "Epic refers to a missing or foreign subtask: ";
+    public static final String SUBTASK_IS_NOT_LISTED_IN_EPIC = "Subtask is not listed in its epic";
+    public static final String HISTORY_DOES_NOT_CONTAIN = "History does not contain the entity: ";
     public static final String FILE_SHOULD_START_WITH = "File to parse should start with: ";
+    public static final String UNSUPPORTED_SNAPSHOT_VERSION = "Unsupported binary snapshot version: ";
+    public static final String MALFORMED_SNAPSHOT = "Malformed binary snapshot";
+    public static final String ERROR_WRITING_JOURNAL = "Error writing journal";
+    public static final String ERROR_COMPACTING_JOURNAL = "Error compacting journal";
+    public static final String ERROR_SPILLING_HISTORY = "Error spilling user history to disk";
+    public static final String TRANSACTION_IS_ROLLBACK_ONLY = "Transaction cannot commit, a nested one has failed";
 
     private TaskExceptionMessage() {
     }
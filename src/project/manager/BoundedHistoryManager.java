@@ -0,0 +1,73 @@
+package project.manager;
+
+import project.exception.NonexistentEntityException;
+import project.model.AbstractTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static project.exception.TaskExceptionMessage.HISTORY_DOES_NOT_CONTAIN;
+
+/**
+ * {@link HistoryManager} that keeps at most {@code capacity} entries and evicts the oldest one to make room.
+ * <p>
+ * Everything is preallocated: the order lives in {@link HistorySlots} and entries in an array indexed by their slots.
+ * Adding, moving and removing an entry take O(1) and allocate nothing. Not thread-safe.
+ */
+public class BoundedHistoryManager implements HistoryManager {
+    private final HistorySlots slots;
+    private final AbstractTask[] items;
+
+    public BoundedHistoryManager(int capacity) {
+        slots = HistorySlots.bounded(capacity);
+        items = new AbstractTask[capacity];
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+
+    @Override
+    public void add(AbstractTask task) {
+        items[slots.moveToEnd(task.getId())] = task;
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = slots.remove(id);
+        if (slot != HistorySlots.NONE) {
+            items[slot] = null;
+        }
+    }
+
+    @Override
+    public List<AbstractTask> getDefaultHistory() {
+        List<AbstractTask> tasks = new ArrayList<>(slots.size());
+        for (int slot = slots.head(); slot != HistorySlots.NONE; slot = slots.next(slot)) {
+            tasks.add(items[slot]);
+        }
+        return tasks;
+    }
+
+    @Override
+    public List<AbstractTask> getHistoryPage(int afterId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+
+        int slot = slots.head();
+        if (afterId != 0) {
+            int after = slots.slotOf(afterId);
+            if (after == HistorySlots.NONE) {
+                throw new NonexistentEntityException(HISTORY_DOES_NOT_CONTAIN + afterId);
+            }
+            slot = slots.next(after);
+        }
+
+        List<AbstractTask> tasks = new ArrayList<>(Math.min(limit, slots.size()));
+        for (; slot != HistorySlots.NONE && tasks.size() < limit; slot = slots.next(slot)) {
+            tasks.add(items[slot]);
+        }
+        return tasks;
+    }
+}
@@ -0,0 +1,832 @@
+package project.manager;
+
+import project.enums.Status;
+import project.exception.NonexistentEntityException;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.IntHashSet;
+import project.util.IntObjectHashMap;
+import project.util.PersistentIntMap;
+import project.util.TaskValidator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static project.exception.TaskExceptionMessage.EPIC_DOES_NOT_EXIST;
+import static project.exception.TaskExceptionMessage.SUBTASK_DOES_NOT_EXIST;
+import static project.exception.TaskExceptionMessage.TASK_DOES_NOT_EXIST;
+import static project.exception.TaskExceptionMessage.TRANSACTION_IS_ROLLBACK_ONLY;
+
+/**
+ * Thread-safe {@link TaskManager}.
+ * <p>
+ * Entities live in concurrent skip-list maps sorted by id, so a page of entities after an id is found in logarithmic
+ * time, and ids come from an atomic counter. Every change runs under the lock of a stripe:
+ * a task's own stripe, or for an epic and its subtasks, including the status recalculation, the epic's stripe, which
+ * keeps epics and their subtasks consistent while unrelated epics change in parallel. Bulk operations and
+ * transactions take all stripes. Reads do not lock: lists are weakly consistent snapshots and may show a subtask a
+ * moment before its epic lists it, or changes of a transaction that has not completed yet. Views are recorded into
+ * the history through a {@link HistoryReadBuffer}, so reads with notification do not lock either.
+ */
+public class ConcurrentTaskManager implements TaskManager {
+    private static final int LOCK_STRIPES = 64;
+
+    private final TaskValidator validator;
+    private final HistoryReadBuffer history;
+    private final NavigableMap<Integer, Task> tasks = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Integer, Epic> epics = new ConcurrentSkipListMap<>();
+    private final NavigableMap<Integer, Subtask> subtasks = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final ReentrantLock[] epicLocks = new ReentrantLock[LOCK_STRIPES];
+    private final TextIndex textIndex = new TextIndex();
+    private final ReadWriteLock textIndexLock = new ReentrantReadWriteLock();
+    private IntObjectHashMap<AbstractTask> undoLog;
+    private IntHashSet createdIds;
+    private List<Consumer<HistoryReadBuffer>> historyChanges;
+    private boolean rollbackOnly;
+
+    /**
+     * {@code historyManager} does not have to be thread-safe, it is only called under a lock.
+     */
+    public ConcurrentTaskManager(TaskValidator validator, HistoryManager historyManager) {
+        this.validator = validator;
+        this.history = new HistoryReadBuffer(historyManager, this::isStored, new HotTaskTracker());
+        historyManager.attach(this::resolve);
+        for (int i = 0; i < epicLocks.length; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public List<Task> getTasks() {
+        return List.copyOf(tasks.values());
+    }
+
+    @Override
+    public List<Epic> getEpics() {
+        return List.copyOf(epics.values());
+    }
+
+    @Override
+    public List<Subtask> getSubtasks() {
+        return List.copyOf(subtasks.values());
+    }
+
+    /**
+     * Does not lock: the page is read from a weakly consistent view of the tasks after {@code afterId}.
+     */
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return page(tasks, afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return page(epics, afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return page(subtasks, afterId, limit);
+    }
+
+    /**
+     * Scans all tasks, unlike {@link InMemoryTaskManager} there is no status index to keep consistent across stripes.
+     */
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return filterByStatus(tasks, status);
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return filterByStatus(epics, status);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return filterByStatus(subtasks, status);
+    }
+
+    @Override
+    public int countByStatus(Class<? extends AbstractTask> type, Status status) {
+        Map<Integer, ? extends AbstractTask> storage;
+        if (type == Task.class) {
+            storage = tasks;
+        } else if (type == Epic.class) {
+            storage = epics;
+        } else if (type == Subtask.class) {
+            storage = subtasks;
+        } else {
+            throw new IllegalArgumentException("Unknown task type: " + type);
+        }
+        return (int) storage.values().stream()
+                .filter(task -> task.getStatus() == status)
+                .count();
+    }
+
+    /**
+     * The text index is kept up to date by every change under its own read-write lock, so a search only waits for
+     * changes being indexed at that moment. Entities removed after the index was searched are skipped.
+     */
+    @Override
+    public List<AbstractTask> search(String query) {
+        int[] ids;
+        textIndexLock.readLock().lock();
+        try {
+            ids = textIndex.search(query);
+        } finally {
+            textIndexLock.readLock().unlock();
+        }
+
+        List<AbstractTask> found = new ArrayList<>(ids.length);
+        for (AbstractTask task : resolve(ids, ids.length)) {
+            if (task != null) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void deleteTasks() {
+        lockAll();
+        try {
+            clearEntities(tasks);
+            forgetRemovedHotTasks();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteEpics() {
+        lockAll();
+        try {
+            clearEntities(epics);
+            clearEntities(subtasks);
+            forgetRemovedHotTasks();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void deleteSubtasks() {
+        lockAll();
+        try {
+            clearEntities(subtasks);
+            forgetRemovedHotTasks();
+            for (Epic epic : epics.values()) {
+                putEntity(epics, new Epic.Builder()
+                        .fromEpic(epic)
+                        .setSubtaskIds(List.of())
+                        .setStatus(Status.NEW)
+                        .build());
+            }
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Task getTaskWithNotification(int id) {
+        Task task = getEntityById(tasks, id, TASK_DOES_NOT_EXIST);
+        addToHistoryManager(task);
+        return task;
+    }
+
+    @Override
+    public Epic getEpicWithNotification(int id) {
+        Epic epic = getEntityById(epics, id, EPIC_DOES_NOT_EXIST);
+        addToHistoryManager(epic);
+        return epic;
+    }
+
+    @Override
+    public Subtask getSubtaskWithNotification(int id) {
+        Subtask subtask = getEntityById(subtasks, id, SUBTASK_DOES_NOT_EXIST);
+        addToHistoryManager(subtask);
+        return subtask;
+    }
+
+    @Override
+    public Task addTask(Task task) {
+        validator.validateNewTask(task);
+
+        Task newTask = new Task.Builder()
+                .fromTask(task)
+                .setId(nextId.getAndIncrement())
+                .build();
+        ReentrantLock lock = lockFor(newTask.getId());
+        lock.lock();
+        try {
+            putEntity(tasks, newTask);
+            return newTask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Epic addEpic(Epic epic) {
+        validator.validateNewEpic(epic);
+
+        Epic newEpic = new Epic.Builder()
+                .fromEpic(epic)
+                .setId(nextId.getAndIncrement())
+                .build();
+        ReentrantLock lock = lockFor(newEpic.getId());
+        lock.lock();
+        try {
+            putEntity(epics, newEpic);
+            return newEpic;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask addSubtask(Subtask subtask, int epicId) {
+        validator.validateNewSubTask(subtask);
+
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic epic = getEntityById(epics, epicId, EPIC_DOES_NOT_EXIST);
+            Subtask newSubtask = new Subtask.Builder()
+                    .fromSubtask(subtask)
+                    .setId(nextId.getAndIncrement())
+                    .setEpicId(epicId)
+                    .build();
+            putEntity(subtasks, newSubtask);
+
+            storeEpic(new Epic.Builder()
+                    .fromEpic(epic)
+                    .addSubtaskId(newSubtask.getId())
+                    .build());
+            return newSubtask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> addTasks(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            validator.validateNewTask(task);
+        }
+
+        lockAll();
+        try {
+            List<Task> newTasks = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                Task newTask = new Task.Builder()
+                        .fromTask(task)
+                        .setId(nextId.getAndIncrement())
+                        .build();
+                putEntity(this.tasks, newTask);
+                newTasks.add(newTask);
+            }
+            return newTasks;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public List<Subtask> addSubtasks(int epicId, Collection<Subtask> subtasks) {
+        for (Subtask subtask : subtasks) {
+            validator.validateNewSubTask(subtask);
+        }
+
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Epic epic = getEntityById(epics, epicId, EPIC_DOES_NOT_EXIST);
+            Epic.Builder updatedEpic = new Epic.Builder().fromEpic(epic);
+            List<Subtask> newSubtasks = new ArrayList<>(subtasks.size());
+
+            for (Subtask subtask : subtasks) {
+                Subtask newSubtask = new Subtask.Builder()
+                        .fromSubtask(subtask)
+                        .setId(nextId.getAndIncrement())
+                        .setEpicId(epicId)
+                        .build();
+                putEntity(this.subtasks, newSubtask);
+                updatedEpic.addSubtaskId(newSubtask.getId());
+                newSubtasks.add(newSubtask);
+            }
+            storeEpic(updatedEpic.build());
+            return newSubtasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Task updateTask(Task task) {
+        validator.validateText(task);
+        Task updatedTask = new Task.Builder()
+                .fromTask(task)
+                .build();
+
+        ReentrantLock lock = lockFor(updatedTask.getId());
+        lock.lock();
+        try {
+            getEntityById(tasks, updatedTask.getId(), TASK_DOES_NOT_EXIST);
+            putEntity(tasks, updatedTask);
+            return updatedTask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Epic updateEpic(Epic epic) {
+        validator.validateText(epic);
+        ReentrantLock lock = lockFor(epic.getId());
+        lock.lock();
+        try {
+            getEntityById(epics, epic.getId(), EPIC_DOES_NOT_EXIST);
+            return storeEpic(epic);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask updateSubtask(Subtask subtask) {
+        validator.validateText(subtask);
+        int epicId = subtask.getEpicId();
+
+        ReentrantLock lock = lockFor(epicId);
+        lock.lock();
+        try {
+            Subtask oldSubtask = getEntityById(subtasks, subtask.getId(), SUBTASK_DOES_NOT_EXIST);
+            validator.ensureSubtasksEpicsAreEqual(oldSubtask, subtask);
+            Epic epic = getEntityById(epics, epicId, EPIC_DOES_NOT_EXIST);
+
+            Subtask updatedSubtask = new Subtask.Builder()
+                    .fromSubtask(subtask)
+                    .build();
+            putEntity(subtasks, updatedSubtask);
+            storeEpic(epic);
+            return updatedSubtask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Task> updateTasks(Collection<Task> tasks) {
+        lockAll();
+        try {
+            for (Task task : tasks) {
+                getEntityById(this.tasks, task.getId(), TASK_DOES_NOT_EXIST);
+                validator.validateText(task);
+            }
+
+            List<Task> updatedTasks = new ArrayList<>(tasks.size());
+            for (Task task : tasks) {
+                Task updatedTask = new Task.Builder()
+                        .fromTask(task)
+                        .build();
+                putEntity(this.tasks, updatedTask);
+                updatedTasks.add(updatedTask);
+            }
+            return updatedTasks;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Takes all stripes, so the whole batch is applied atomically.
+     */
+    @Override
+    public List<Subtask> updateSubtasks(Collection<Subtask> subtasks) {
+        lockAll();
+        try {
+            Map<Integer, Epic> affectedEpics = new LinkedHashMap<>();
+            for (Subtask subtask : subtasks) {
+                Subtask oldSubtask = getEntityById(this.subtasks, subtask.getId(), SUBTASK_DOES_NOT_EXIST);
+                validator.ensureSubtasksEpicsAreEqual(oldSubtask, subtask);
+                validator.validateText(subtask);
+                int epicId = subtask.getEpicId();
+                affectedEpics.put(epicId, getEntityById(epics, epicId, EPIC_DOES_NOT_EXIST));
+            }
+
+            List<Subtask> updatedSubtasks = new ArrayList<>(subtasks.size());
+            for (Subtask subtask : subtasks) {
+                Subtask updatedSubtask = new Subtask.Builder()
+                        .fromSubtask(subtask)
+                        .build();
+                putEntity(this.subtasks, updatedSubtask);
+                updatedSubtasks.add(updatedSubtask);
+            }
+
+            for (Epic epic : affectedEpics.values()) {
+                storeEpic(epic);
+            }
+            return updatedSubtasks;
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public Task deleteTask(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Task removedTask = removeEntity(tasks, id);
+            if (removedTask == null) {
+                throw new NonexistentEntityException(TASK_DOES_NOT_EXIST + id);
+            }
+            removeFromHistoryManager(id);
+            return removedTask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Epic deleteEpic(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Epic removedEpic = removeEntity(epics, id);
+            if (removedEpic == null) {
+                throw new NonexistentEntityException(EPIC_DOES_NOT_EXIST + id);
+            }
+            removeFromHistoryManager(id);
+
+            for (int subtaskId : removedEpic.getSubtaskIds()) {
+                removeEntity(subtasks, subtaskId);
+                removeFromHistoryManager(subtaskId);
+            }
+            return removedEpic;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Subtask deleteSubtask(int id) {
+        Subtask subtask = getEntityById(subtasks, id, SUBTASK_DOES_NOT_EXIST);
+
+        ReentrantLock lock = lockFor(subtask.getEpicId());
+        lock.lock();
+        try {
+            Subtask removedSubtask = removeEntity(subtasks, id);
+            if (removedSubtask == null) {
+                throw new NonexistentEntityException(SUBTASK_DOES_NOT_EXIST + id);
+            }
+            removeFromHistoryManager(id);
+
+            Epic epic = getEntityById(epics, removedSubtask.getEpicId(), EPIC_DOES_NOT_EXIST);
+            storeEpic(new Epic.Builder()
+                    .fromEpic(epic)
+                    .removeSubtaskId(id)
+                    .build());
+            return removedSubtask;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Subtask> getEpicSubtasks(int id) {
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            Epic epic = getEntityById(epics, id, EPIC_DOES_NOT_EXIST);
+            List<Subtask> epicSubtasks = new ArrayList<>(epic.getSubtaskIds().size());
+            for (int subtaskId : epic.getSubtaskIds()) {
+                epicSubtasks.add(getEntityById(subtasks, subtaskId, SUBTASK_DOES_NOT_EXIST));
+            }
+            return epicSubtasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<AbstractTask> getHistory() {
+        return history.read(HistoryManager::getDefaultHistory);
+    }
+
+    @Override
+    public List<AbstractTask> getHistoryPage(int afterId, int limit) {
+        return history.read(historyManager -> historyManager.getHistoryPage(afterId, limit));
+    }
+
+    @Override
+    public List<AbstractTask> getHottestTasks(int k) {
+        int[] ids = history.hottest(k);
+        List<AbstractTask> hottest = new ArrayList<>(ids.length);
+        for (AbstractTask task : resolve(ids, ids.length)) {
+            if (task != null) {
+                hottest.add(task);
+            }
+        }
+        return hottest;
+    }
+
+    /**
+     * Takes all stripes while it copies the entities, so the snapshot is consistent but costs O(n): the skip-list
+     * maps have no immutable versions to share.
+     */
+    @Override
+    public TaskSnapshot snapshot() {
+        lockAll();
+        try {
+            return new TaskSnapshot(
+                    PersistentIntMap.of(tasks.values(), Task::getId),
+                    PersistentIntMap.of(epics.values(), Epic::getId),
+                    PersistentIntMap.of(subtasks.values(), Subtask::getId));
+        } finally {
+            unlockAll();
+        }
+    }
+
+    /**
+     * Holds all stripes while {@code work} runs, so the transaction is atomic only with respect to other writers:
+     * reads do not lock and may see its changes before it completes, including changes that are then undone.
+     * Entities are logged once, before their first change, and restored from the log if {@code work} throws;
+     * entities created inside the transaction are logged by id and removed. A failed nested transaction marks the
+     * outer one as rollback-only. Views and history removals of the transaction are applied once it commits, so the
+     * history read inside it does not show them yet.
+     */
+    @Override
+    public void inTransaction(Consumer<? super TaskManager> work) {
+        lockAll();
+        try {
+            if (undoLog != null) {
+                try {
+                    work.accept(this);
+                } catch (RuntimeException | Error e) {
+                    rollbackOnly = true;
+                    throw e;
+                }
+                return;
+            }
+
+            undoLog = new IntObjectHashMap<>();
+            createdIds = new IntHashSet();
+            historyChanges = new ArrayList<>();
+            List<Consumer<HistoryReadBuffer>> committedHistoryChanges;
+            try {
+                work.accept(this);
+                if (rollbackOnly) {
+                    throw new IllegalStateException(TRANSACTION_IS_ROLLBACK_ONLY);
+                }
+                committedHistoryChanges = historyChanges;
+            } catch (RuntimeException | Error e) {
+                rollback();
+                throw e;
+            } finally {
+                undoLog = null;
+                createdIds = null;
+                historyChanges = null;
+                rollbackOnly = false;
+            }
+            committedHistoryChanges.forEach(change -> change.accept(history));
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private static <T extends AbstractTask> List<T> filterByStatus(Map<Integer, T> storage, Status status) {
+        return storage.values().stream()
+                .filter(task -> task.getStatus() == status)
+                .toList();
+    }
+
+    private static <T extends AbstractTask> List<T> page(NavigableMap<Integer, T> storage, int afterId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+        List<T> page = new ArrayList<>(Math.min(limit, KeysetPages.STREAM_PAGE_SIZE));
+        for (T entity : storage.tailMap(afterId, false).values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entity);
+        }
+        return page;
+    }
+
+    /**
+     * Every change of the storage goes through this method, {@link #removeEntity} or {@link #clearEntities}, which
+     * log it for undo and keep the text index up to date. Must be called under the lock of the entity's stripe.
+     */
+    private <T extends AbstractTask> void putEntity(Map<Integer, T> storage, T entity) {
+        T previous = storage.put(entity.getId(), entity);
+        recordUndo(entity.getId(), previous);
+        reindex(previous, entity);
+    }
+
+    private <T extends AbstractTask> T removeEntity(Map<Integer, T> storage, int id) {
+        T removed = storage.remove(id);
+        if (removed != null) {
+            recordUndo(id, removed);
+            reindex(removed, null);
+        }
+        return removed;
+    }
+
+    /**
+     * Must be called under all stripes.
+     */
+    private void clearEntities(Map<Integer, ? extends AbstractTask> storage) {
+        textIndexLock.writeLock().lock();
+        try {
+            for (AbstractTask task : storage.values()) {
+                recordUndo(task.getId(), task);
+                textIndex.remove(task);
+            }
+            storage.clear();
+        } finally {
+            textIndexLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Either entity may be null, when it is absent before or after the change.
+     */
+    private void reindex(AbstractTask previous, AbstractTask current) {
+        textIndexLock.writeLock().lock();
+        try {
+            if (previous == null) {
+                textIndex.add(current);
+            } else if (current == null) {
+                textIndex.remove(previous);
+            } else {
+                textIndex.replace(previous, current);
+            }
+        } finally {
+            textIndexLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Must be called under the lock of the entity's stripe, {@code previous} is null if the entity has been created.
+     */
+    private void recordUndo(int id, AbstractTask previous) {
+        if (undoLog == null || undoLog.containsKey(id) || createdIds.contains(id)) {
+            return;
+        }
+        if (previous == null) {
+            createdIds.add(id);
+        } else {
+            undoLog.put(id, previous);
+        }
+    }
+
+    /**
+     * Views and removals made by a transaction reach the history only once it commits, so a rollback just drops them
+     * and leaves the views recorded meanwhile by other threads alone. Only the thread running a transaction holds the
+     * first stripe and sees its list of changes.
+     */
+    private void changeHistory(Consumer<HistoryReadBuffer> change) {
+        if (epicLocks[0].isHeldByCurrentThread() && historyChanges != null) {
+            historyChanges.add(change);
+        } else {
+            change.accept(history);
+        }
+    }
+
+    private void rollback() {
+        createdIds.forEach(id -> {
+            for (Map<Integer, ? extends AbstractTask> storage : List.of(tasks, epics, subtasks)) {
+                AbstractTask created = storage.remove(id);
+                if (created != null) {
+                    reindex(created, null);
+                }
+            }
+        });
+        for (AbstractTask task : undoLog.values()) {
+            AbstractTask current = switch (task) {
+                case Epic epic -> epics.put(epic.getId(), epic);
+                case Subtask subtask -> subtasks.put(subtask.getId(), subtask);
+                case Task restoredTask -> tasks.put(restoredTask.getId(), restoredTask);
+                default -> throw new IllegalArgumentException("Unknown task type: " + task.getClass());
+            };
+            reindex(current, task);
+        }
+
+    }
+
+    /**
+     * Must be called under the lock of the epic's stripe.
+     */
+    private Epic storeEpic(Epic epic) {
+        Epic updatedEpic = new Epic.Builder()
+                .fromEpic(epic)
+                .setStatus(calculateStatus(epic.getSubtaskIds()))
+                .build();
+        putEntity(epics, updatedEpic);
+        return updatedEpic;
+    }
+
+    private Status calculateStatus(List<Integer> subtaskIds) {
+        boolean hasNew = false;
+        boolean hasDone = false;
+
+        for (int subtaskId : subtaskIds) {
+            Status status = getEntityById(subtasks, subtaskId, SUBTASK_DOES_NOT_EXIST).getStatus();
+            if (status == Status.IN_PROGRESS) {
+                return Status.IN_PROGRESS;
+            }
+            hasNew |= status == Status.NEW;
+            hasDone |= status == Status.DONE;
+        }
+
+        if (hasNew && hasDone) {
+            return Status.IN_PROGRESS;
+        }
+        return hasDone ? Status.DONE : Status.NEW;
+    }
+
+    private ReentrantLock lockFor(int epicId) {
+        int hash = epicId * 0x9E3779B9;
+        return epicLocks[(hash ^ (hash >>> 16)) & (LOCK_STRIPES - 1)];
+    }
+
+    private void lockAll() {
+        for (ReentrantLock lock : epicLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAll() {
+        for (int i = epicLocks.length - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+
+    private void addToHistoryManager(AbstractTask task) {
+        changeHistory(buffer -> buffer.record(task));
+    }
+
+    /**
+     * Must be called after the entity has left the storage, so that its views still waiting in the buffer are
+     * skipped.
+     */
+    private void removeFromHistoryManager(int id) {
+        changeHistory(buffer -> buffer.remove(id));
+    }
+
+    /**
+     * Must be called after the entities have left the storage, like {@link #removeFromHistoryManager(int)}.
+     */
+    private void forgetRemovedHotTasks() {
+        changeHistory(buffer -> buffer.removeHotTasksIf(
+                id -> !tasks.containsKey(id) && !epics.containsKey(id) && !subtasks.containsKey(id)));
+    }
+
+    private AbstractTask[] resolve(int[] ids, int count) {
+        AbstractTask[] resolved = new AbstractTask[count];
+        for (int i = 0; i < count; i++) {
+            AbstractTask task = tasks.get(ids[i]);
+            if (task == null) {
+                task = epics.get(ids[i]);
+            }
+            if (task == null) {
+                task = subtasks.get(ids[i]);
+            }
+            resolved[i] = task;
+        }
+        return resolved;
+    }
+
+    private boolean isStored(AbstractTask task) {
+        return switch (task) {
+            case Epic epic -> epics.containsKey(epic.getId());
+            case Subtask subtask -> subtasks.containsKey(subtask.getId());
+            default -> tasks.containsKey(task.getId());
+        };
+    }
+
+    private <T extends AbstractTask> T getEntityById(Map<Integer, T> storage, int id, String errorMessage) {
+        T entity = storage.get(id);
+        if (entity == null) {
+            throw new NonexistentEntityException(errorMessage + id);
+        }
+        return entity;
+    }
+}
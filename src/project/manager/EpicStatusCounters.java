@@ -0,0 +1,119 @@
+package project.manager;
+
+import project.enums.Status;
+import project.model.Subtask;
+import project.util.IntObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Number of subtasks in every status, per epic. The status of an epic follows from its counters in constant time:
+ * no subtasks or only new ones mean {@code NEW}, only done ones mean {@code DONE}, anything else is
+ * {@code IN_PROGRESS}. Not thread-safe.
+ */
+public class EpicStatusCounters {
+    private static final int STATUS_COUNT = Status.values().length;
+
+    private final IntObjectHashMap<int[]> counters = new IntObjectHashMap<>();
+
+    public void register(int epicId) {
+        if (!counters.containsKey(epicId)) {
+            counters.put(epicId, new int[STATUS_COUNT]);
+        }
+    }
+
+    public void unregister(int epicId) {
+        counters.remove(epicId);
+    }
+
+    public void clear() {
+        counters.clear();
+    }
+
+    /**
+     * Sets every registered epic back to zero subtasks.
+     */
+    public void reset() {
+        for (int[] counts : counters.values()) {
+            Arrays.fill(counts, 0);
+        }
+    }
+
+    public void subtaskAdded(int epicId, Status status) {
+        countersOf(epicId)[status.ordinal()]++;
+    }
+
+    public void subtaskRemoved(int epicId, Status status) {
+        countersOf(epicId)[status.ordinal()]--;
+    }
+
+    public void subtaskChanged(int epicId, Status oldStatus, Status newStatus) {
+        int[] counts = countersOf(epicId);
+        counts[oldStatus.ordinal()]--;
+        counts[newStatus.ordinal()]++;
+    }
+
+    /**
+     * Recounts a single epic, e.g. after its whole subtask list has been replaced.
+     */
+    public void recount(int epicId, Iterable<Subtask> subtasks) {
+        int[] counts = new int[STATUS_COUNT];
+        for (Subtask subtask : subtasks) {
+            counts[subtask.getStatus().ordinal()]++;
+        }
+        counters.put(epicId, counts);
+    }
+
+    public Status statusOf(int epicId) {
+        int[] counts = countersOf(epicId);
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+
+        if (total == counts[Status.NEW.ordinal()]) {
+            return Status.NEW;
+        }
+        if (total == counts[Status.DONE.ordinal()]) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    /**
+     * Recounts every registered epic from scratch.
+     *
+     * @return whether the counters were already right
+     */
+    public boolean rebuild(Iterable<Subtask> subtasks) {
+        List<int[]> previous = new ArrayList<>(counters.size());
+        for (int[] counts : counters.values()) {
+            previous.add(counts.clone());
+            Arrays.fill(counts, 0);
+        }
+        for (Subtask subtask : subtasks) {
+            int[] counts = counters.get(subtask.getEpicId());
+            if (counts != null) {
+                counts[subtask.getStatus().ordinal()]++;
+            }
+        }
+
+        boolean consistent = true;
+        Iterator<int[]> before = previous.iterator();
+        for (int[] counts : counters.values()) {
+            consistent &= Arrays.equals(before.next(), counts);
+        }
+        return consistent;
+    }
+
+    private int[] countersOf(int epicId) {
+        int[] counts = counters.get(epicId);
+        if (counts == null) {
+            throw new IllegalStateException("No status counters for epic " + epicId);
+        }
+        return counts;
+    }
+}
@@ -1,27 +1,78 @@
 package project.manager;
 
+import project.enums.LoadStrategy;
+import project.enums.PersistenceMode;
 import project.model.AbstractTask;
 import project.model.Epic;
 import project.model.Subtask;
 import project.model.Task;
+import project.util.AsyncJournalWriter;
+import project.util.JournalEntry;
+import project.util.ParallelTaskFileLoader;
+import project.util.PersistenceSettings;
 import project.util.TaskFileRepository;
+import project.util.TaskJournal;
 import project.util.TaskValidator;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
-public class FileBackedTaskManager extends InMemoryTaskManager {
+public class FileBackedTaskManager extends InMemoryTaskManager implements AutoCloseable {
     private final File file;
+    private final PersistenceSettings settings;
+    private final TaskJournal journal;
+    private final AsyncJournalWriter asyncWriter;
+    private final List<JournalEntry> pendingEntries = new ArrayList<>();
+    private int entriesSinceCompaction;
 
     public FileBackedTaskManager(TaskValidator validator, HistoryManager historyManager, File file) {
+        this(validator, historyManager, file, PersistenceSettings.defaults());
+    }
+
+    public FileBackedTaskManager(TaskValidator validator, HistoryManager historyManager, File file,
+                                 PersistenceSettings settings) {
+        this(validator, historyManager, file, settings, true);
+    }
+
+    /**
+     * With {@code startFresh} unset the journal is left closed, the caller loads the storage and opens it.
+     */
+    private FileBackedTaskManager(TaskValidator validator, HistoryManager historyManager, File file,
+                                  PersistenceSettings settings, boolean startFresh) {
         super(validator, historyManager);
         this.file = file;
+        this.settings = settings;
+        this.journal = createJournal(file, settings);
+
+        if (journal != null && startFresh) {
+            // a new manager has nothing stored yet, so the fresh journal starts from an empty snapshot
+            journal.reset(List.of());
+        }
+        this.asyncWriter = createAsyncWriter(journal, settings);
     }
 
     public FileBackedTaskManager(TaskValidator validator, HistoryManager historyManager,
                                  File file, List<AbstractTask> taskStorage) {
+        this(validator, historyManager, file, taskStorage, PersistenceSettings.defaults());
+    }
+
+    /**
+     * {@code taskStorage} is expected to be the current content of {@code file}, in journal mode new changes are
+     * appended on top of it.
+     */
+    public FileBackedTaskManager(TaskValidator validator, HistoryManager historyManager,
+                                 File file, List<AbstractTask> taskStorage, PersistenceSettings settings) {
         super(validator, historyManager, taskStorage);
         this.file = file;
+        this.settings = settings;
+        this.journal = createJournal(file, settings);
+
+        if (journal != null) {
+            journal.open();
+        }
+        this.asyncWriter = createAsyncWriter(journal, settings);
     }
 
     @Override
@@ -63,6 +114,20 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return addedSubtask;
     }
 
+    @Override
+    public List<Task> addTasks(Collection<Task> tasks) {
+        List<Task> addedTasks = super.addTasks(tasks);
+        save();
+        return addedTasks;
+    }
+
+    @Override
+    public List<Subtask> addSubtasks(int epicId, Collection<Subtask> subtasks) {
+        List<Subtask> addedSubtasks = super.addSubtasks(epicId, subtasks);
+        save();
+        return addedSubtasks;
+    }
+
     @Override
     public Task updateTask(Task task) {
         Task updatedTask = super.updateTask(task);
@@ -84,6 +149,20 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
         return updatedSubtask;
     }
 
+    @Override
+    public List<Task> updateTasks(Collection<Task> tasks) {
+        List<Task> updatedTasks = super.updateTasks(tasks);
+        save();
+        return updatedTasks;
+    }
+
+    @Override
+    public List<Subtask> updateSubtasks(Collection<Subtask> subtasks) {
+        List<Subtask> updatedSubtasks = super.updateSubtasks(subtasks);
+        save();
+        return updatedSubtasks;
+    }
+
     @Override
     public Task deleteTask(int id) {
         Task deletedTask = super.deleteTask(id);
@@ -106,11 +185,156 @@ public class FileBackedTaskManager extends InMemoryTaskManager {
     }
 
     public static FileBackedTaskManager loadFromFile(File file) {
-        List<AbstractTask> taskStorage = TaskFileRepository.getTasks(file);
-        return new FileBackedTaskManager(new TaskValidator(), new InMemoryHistoryManager(), file, taskStorage);
+        return loadFromFile(file, PersistenceSettings.defaults());
+    }
+
+    /**
+     * Records are put into the manager as they are read, the board is never held in memory twice.
+     */
+    public static FileBackedTaskManager loadFromFile(File file, PersistenceSettings settings) {
+        FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(), new InMemoryHistoryManager(),
+                file, settings, false);
+
+        try {
+            boolean hasJournal = TaskJournal.exists(file);
+            if (!hasJournal || file.exists()) {
+                manager.loadSnapshot(file, settings.getLoadStrategy());
+            }
+            if (hasJournal) {
+                TaskJournal.replay(file, manager::applyLoaded);
+            }
+            manager.completeLoading();
+
+            if (manager.journal != null) {
+                manager.journal.open();
+            } else if (hasJournal) {
+                TaskJournal.fold(file, manager.allTasksView(), settings.getSnapshotCodec());
+            }
+        } catch (RuntimeException e) {
+            manager.close();
+            throw e;
+        }
+        return manager;
+    }
+
+    /**
+     * Writes out the changes queued by the asynchronous writer right away and waits for them.
+     */
+    public void flush() {
+        if (asyncWriter != null) {
+            asyncWriter.flush();
+        }
+    }
+
+    /**
+     * Waits until the changes made so far are written, letting the asynchronous writer batch them as usual.
+     */
+    public void awaitDurable() {
+        if (asyncWriter != null) {
+            asyncWriter.awaitDurable();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (asyncWriter != null) {
+            asyncWriter.close();
+        } else if (journal != null) {
+            journal.close();
+        }
+    }
+
+    @Override
+    protected void entityStored(AbstractTask task) {
+        if (journal != null) {
+            pendingEntries.add(JournalEntry.put(task));
+        }
+    }
+
+    @Override
+    protected void entityRemoved(AbstractTask task) {
+        if (journal != null) {
+            pendingEntries.add(JournalEntry.delete(task.getId()));
+        }
+    }
+
+    @Override
+    protected void entitiesCleared(Class<? extends AbstractTask> type) {
+        if (journal != null) {
+            pendingEntries.add(JournalEntry.clear(type));
+        }
+    }
+
+    @Override
+    protected void transactionCommitted() {
+        save();
+    }
+
+    @Override
+    protected void transactionRolledBack() {
+        pendingEntries.clear();
+    }
+
+    /**
+     * The parallel loader has already checked ids and found the greatest one while decoding, so its result is put
+     * into the storage as a whole.
+     */
+    private void loadSnapshot(File file, LoadStrategy strategy) {
+        if (strategy == LoadStrategy.PARALLEL) {
+            loadEntities(ParallelTaskFileLoader.load(file));
+        } else {
+            TaskFileRepository.readTasks(file, strategy, this::loadEntity);
+        }
+    }
+
+    private void applyLoaded(JournalEntry entry) {
+        switch (entry.getOperation()) {
+            case PUT -> reloadEntity(entry.getTask());
+            case DELETE -> unloadEntity(entry.getId());
+            case CLEAR -> unloadEntities(entry.getType());
+        }
     }
 
     private void save() {
-        TaskFileRepository.saveTasks(file, getAllTasks());
+        if (isInTransaction()) {
+            return;
+        }
+        if (journal == null) {
+            TaskFileRepository.writeTasks(file, allTasksView(), settings.getSnapshotCodec());
+            return;
+        }
+
+        if (asyncWriter == null) {
+            journal.append(pendingEntries);
+            pendingEntries.clear();
+
+            if (journal.getRecordCount() >= settings.getCompactionThreshold()) {
+                journal.compact(getAllTasks());
+            }
+            return;
+        }
+
+        if (pendingEntries.isEmpty()) {
+            return;
+        }
+        asyncWriter.submit(List.copyOf(pendingEntries));
+        entriesSinceCompaction += pendingEntries.size();
+        pendingEntries.clear();
+
+        if (entriesSinceCompaction >= settings.getCompactionThreshold()) {
+            asyncWriter.compact(getAllTasks());
+            entriesSinceCompaction = 0;
+        }
+    }
+
+    private static TaskJournal createJournal(File file, PersistenceSettings settings) {
+        if (settings.getMode() != PersistenceMode.JOURNAL) {
+            return null;
+        }
+        return new TaskJournal(file, settings);
+    }
+
+    private static AsyncJournalWriter createAsyncWriter(TaskJournal journal, PersistenceSettings settings) {
+        return settings.isAsynchronous() ? new AsyncJournalWriter(journal, settings) : null;
     }
 }
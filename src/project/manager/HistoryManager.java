@@ -11,4 +11,18 @@ public interface HistoryManager {
     void remove(int id);
 
     List<AbstractTask> getDefaultHistory();
+
+    /**
+     * Up to {@code limit} entries of the history that follow the entity with id {@code afterId}, or the first ones
+     * if {@code afterId} is 0.
+     *
+     * @throws project.exception.NonexistentEntityException if that entity is not in the history anymore
+     */
+    List<AbstractTask> getHistoryPage(int afterId, int limit);
+
+    /**
+     * Called once by the task manager the history belongs to. Histories that keep entity objects ignore it.
+     */
+    default void attach(TaskResolver resolver) {
+    }
 }
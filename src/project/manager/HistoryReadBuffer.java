@@ -0,0 +1,181 @@
+package project.manager;
+
+import project.model.AbstractTask;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Records views into a {@link HistoryManager} that is not thread-safe without making every view take a lock.
+ * <p>
+ * A view goes into one of several striped ring buffers, picked by the viewing thread, with a single compare-and-set.
+ * The buffers are drained in batches under the history lock: by the thread whose buffer fills up to
+ * {@value #DRAIN_THRESHOLD} views, if nobody else is draining, and before the history is read or changed. Views of
+ * a batch are applied in the order of their {@link System#nanoTime()} timestamps, so the views of one thread keep
+ * their order. A view is dropped only when its buffer is full while another thread holds the history lock, and a
+ * view of an entity that {@code isStored} no longer accepts is skipped, so a removed entity does not come back.
+ * Applied views are also counted by a {@link HotTaskTracker}, which is guarded by the same lock.
+ */
+final class HistoryReadBuffer {
+    private static final int STRIPES = 16;
+    private static final int BUFFER_SIZE = 128;
+    private static final int DRAIN_THRESHOLD = BUFFER_SIZE / 2;
+    private static final Comparator<View> BY_TIME = Comparator.comparingLong(view -> view.viewedAt);
+
+    private final HistoryManager historyManager;
+    private final Predicate<AbstractTask> isStored;
+    private final HotTaskTracker hotTasks;
+    private final ReentrantLock historyLock = new ReentrantLock();
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    HistoryReadBuffer(HistoryManager historyManager, Predicate<AbstractTask> isStored, HotTaskTracker hotTasks) {
+        this.historyManager = historyManager;
+        this.isStored = isStored;
+        this.hotTasks = hotTasks;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    void record(AbstractTask task) {
+        Stripe stripe = stripes[stripeIndex()];
+        View view = new View(task, System.nanoTime());
+
+        int pending = stripe.offer(view);
+        if (pending < 0 && historyLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                historyLock.unlock();
+            }
+            pending = stripe.offer(view);
+        }
+        if (pending >= DRAIN_THRESHOLD && historyLock.tryLock()) {
+            try {
+                drain();
+            } finally {
+                historyLock.unlock();
+            }
+        }
+    }
+
+    void remove(int id) {
+        update(history -> {
+            history.remove(id);
+            hotTasks.remove(id);
+        });
+    }
+
+    int[] hottest(int k) {
+        return read(history -> hotTasks.hottest(k));
+    }
+
+    void removeHotTasksIf(IntPredicate isRemoved) {
+        update(history -> hotTasks.removeIf(isRemoved));
+    }
+
+    /**
+     * Runs {@code action} under the history lock after all views recorded so far have been applied.
+     */
+    void update(Consumer<HistoryManager> action) {
+        read(history -> {
+            action.accept(history);
+            return null;
+        });
+    }
+
+    <R> R read(Function<HistoryManager, R> action) {
+        historyLock.lock();
+        try {
+            drain();
+            return action.apply(historyManager);
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    /**
+     * Must be called under the history lock.
+     */
+    private void drain() {
+        List<View> views = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.drainTo(views);
+        }
+        views.sort(BY_TIME);
+
+        for (View view : views) {
+            if (isStored.test(view.task)) {
+                historyManager.add(view.task);
+                hotTasks.record(view.task.getId());
+            }
+        }
+    }
+
+    private static int stripeIndex() {
+        int hash = (int) Thread.currentThread().threadId() * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static final class View {
+        private final AbstractTask task;
+        private final long viewedAt;
+
+        View(AbstractTask task, long viewedAt) {
+            this.task = task;
+            this.viewedAt = viewedAt;
+        }
+    }
+
+    /**
+     * Bounded multi-producer ring drained by the holder of the history lock. A producer claims a position by
+     * advancing the write counter and then publishes its view there, the drainer stops at a position that has been
+     * claimed but not published yet.
+     */
+    private static final class Stripe {
+        private final AtomicReferenceArray<View> ring = new AtomicReferenceArray<>(BUFFER_SIZE);
+        private final AtomicLong writeCounter = new AtomicLong();
+        private volatile long readCounter;
+
+        /**
+         * @return the number of views waiting in the ring, or -1 if it is full
+         */
+        int offer(View view) {
+            while (true) {
+                long write = writeCounter.get();
+                long pending = write - readCounter;
+                if (pending >= BUFFER_SIZE) {
+                    return -1;
+                }
+                if (writeCounter.compareAndSet(write, write + 1)) {
+                    ring.lazySet((int) write & (BUFFER_SIZE - 1), view);
+                    return (int) pending + 1;
+                }
+            }
+        }
+
+        void drainTo(List<View> views) {
+            long read = readCounter;
+            long write = writeCounter.get();
+            while (read < write) {
+                int index = (int) read & (BUFFER_SIZE - 1);
+                View view = ring.get(index);
+                if (view == null) {
+                    break;
+                }
+                ring.lazySet(index, null);
+                views.add(view);
+                read++;
+            }
+            readCounter = read;
+        }
+    }
+}
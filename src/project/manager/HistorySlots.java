@@ -0,0 +1,172 @@
+package project.manager;
+
+import project.util.IntIntHashMap;
+
+import java.util.Arrays;
+
+/**
+ * Order of a history as a doubly linked list of entity ids kept in {@code int} arrays.
+ * <p>
+ * Every id takes a slot of parallel arrays, slots are linked into the history order by the indexes of their previous
+ * and next slots, and an {@link IntIntHashMap} finds the slot of an id. Owners may keep more
+ * data per slot in arrays of their own. A bounded list reuses the slot of its oldest id when it is full, an
+ * unbounded one doubles its arrays. Adding, moving and removing an id take O(1) and allocate nothing unless the
+ * arrays grow. Not thread-safe.
+ */
+final class HistorySlots {
+    static final int NONE = IntIntHashMap.NONE;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean bounded;
+    private int[] ids;
+    private int[] previous;
+    private int[] next;
+    private IntIntHashMap slotsById;
+    private int head = NONE;
+    private int tail = NONE;
+    private int freeHead;
+    private int size;
+
+    private HistorySlots(int capacity, boolean bounded) {
+        this.bounded = bounded;
+        allocate(capacity);
+    }
+
+    static HistorySlots bounded(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("History capacity should be positive: " + capacity);
+        }
+        return new HistorySlots(capacity, true);
+    }
+
+    static HistorySlots unbounded() {
+        return new HistorySlots(INITIAL_CAPACITY, false);
+    }
+
+    int capacity() {
+        return ids.length;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int head() {
+        return head;
+    }
+
+    int next(int slot) {
+        return next[slot];
+    }
+
+    int id(int slot) {
+        return ids[slot];
+    }
+
+    int slotOf(int id) {
+        return slotsById.get(id);
+    }
+
+    /**
+     * Moves the id to the end of the history, adding it if needed. A full bounded list evicts its oldest id and
+     * gives its slot to the new one, an unbounded one grows, which changes no slot.
+     *
+     * @return the slot of the id
+     */
+    int moveToEnd(int id) {
+        int slot = slotOf(id);
+
+        if (slot != NONE) {
+            unlink(slot);
+        } else {
+            if (size == ids.length && bounded) {
+                slot = head;
+                unlink(slot);
+                slotsById.remove(ids[slot]);
+            } else {
+                if (size == ids.length) {
+                    grow();
+                }
+                slot = freeHead;
+                freeHead = next[slot];
+                size++;
+            }
+            ids[slot] = id;
+            slotsById.put(id, slot);
+        }
+
+        linkLast(slot);
+        return slot;
+    }
+
+    /**
+     * @return the freed slot, or {@link #NONE} if the id is absent
+     */
+    int remove(int id) {
+        int slot = slotOf(id);
+        if (slot == NONE) {
+            return NONE;
+        }
+
+        unlink(slot);
+        slotsById.remove(id);
+        next[slot] = freeHead;
+        freeHead = slot;
+        size--;
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        previous = new int[capacity];
+        next = new int[capacity];
+        slotsById = new IntIntHashMap(capacity);
+
+        // free slots are chained through next
+        for (int slot = 0; slot < capacity; slot++) {
+            next[slot] = slot + 1 < capacity ? slot + 1 : NONE;
+        }
+        freeHead = 0;
+    }
+
+    /**
+     * Only called when every slot is taken, so the new slots form the whole free chain.
+     */
+    private void grow() {
+        int capacity = ids.length;
+        ids = Arrays.copyOf(ids, capacity * 2);
+        previous = Arrays.copyOf(previous, capacity * 2);
+        next = Arrays.copyOf(next, capacity * 2);
+        for (int slot = capacity; slot < capacity * 2; slot++) {
+            next[slot] = slot + 1 < capacity * 2 ? slot + 1 : NONE;
+        }
+        freeHead = capacity;
+    }
+
+    private void linkLast(int slot) {
+        previous[slot] = tail;
+        next[slot] = NONE;
+        if (tail == NONE) {
+            head = slot;
+        } else {
+            next[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = previous[slot];
+        int after = next[slot];
+
+        if (before == NONE) {
+            head = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            tail = before;
+        } else {
+            previous[after] = before;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package project.manager;
+
+import project.util.IntObjectHashMap;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Finds the most viewed entities in memory that does not depend on the size of the board.
+ * <p>
+ * Views are counted approximately by a count-min sketch: {@value #DEPTH} rows of {@code width} counters, a view
+ * increments the smallest of the counters its id hashes to in each row (conservative update), and the smallest of
+ * them is the estimate, which can only be too high. After {@code 10 * width} views all counters are halved, so old
+ * views weigh less and counters never overflow. The {@code capacity} ids with the greatest estimates are kept in a
+ * min-heap, the coldest of them is replaced when a hotter id is viewed. Not thread-safe.
+ */
+final class HotTaskTracker {
+    static final int DEFAULT_WIDTH = 4096;
+    static final int DEFAULT_CAPACITY = 128;
+    private static final int DEPTH = 4;
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final int[][] counters;
+    private final int mask;
+    private final int sampleSize;
+    private final Candidate[] heap;
+    private final IntObjectHashMap<Candidate> candidates;
+    private int heapSize;
+    private int views;
+
+    HotTaskTracker() {
+        this(DEFAULT_WIDTH, DEFAULT_CAPACITY);
+    }
+
+    HotTaskTracker(int width, int capacity) {
+        if (width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width should be a positive power of two: " + width);
+        }
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Tracker capacity should be positive: " + capacity);
+        }
+        counters = new int[DEPTH][width];
+        mask = width - 1;
+        sampleSize = 10 * width;
+        heap = new Candidate[capacity];
+        candidates = new IntObjectHashMap<>(capacity);
+    }
+
+    int capacity() {
+        return heap.length;
+    }
+
+    void record(int id) {
+        int estimate = increment(id);
+
+        Candidate candidate = candidates.get(id);
+        if (candidate != null) {
+            candidate.count = estimate;
+            siftDown(candidate.position);
+        } else if (heapSize < heap.length) {
+            candidate = new Candidate(id, estimate);
+            candidates.put(id, candidate);
+            heap[heapSize] = candidate;
+            candidate.position = heapSize++;
+            siftUp(candidate.position);
+        } else if (estimate > heap[0].count) {
+            candidate = heap[0];
+            candidates.remove(candidate.id);
+            candidate.id = id;
+            candidate.count = estimate;
+            candidates.put(id, candidate);
+            siftDown(0);
+        }
+
+        if (++views == sampleSize) {
+            age();
+        }
+    }
+
+    /**
+     * Stops reporting the id, its views are forgotten as the counters age.
+     */
+    void remove(int id) {
+        Candidate candidate = candidates.remove(id);
+        if (candidate == null) {
+            return;
+        }
+
+        int position = candidate.position;
+        Candidate last = heap[--heapSize];
+        heap[heapSize] = null;
+        if (position < heapSize) {
+            heap[position] = last;
+            last.position = position;
+            siftDown(position);
+            siftUp(last.position);
+        }
+    }
+
+    /**
+     * Stops reporting every tracked id {@code isRemoved} accepts, e.g. after a bulk delete.
+     */
+    void removeIf(IntPredicate isRemoved) {
+        int[] tracked = new int[heapSize];
+        for (int i = 0; i < heapSize; i++) {
+            tracked[i] = heap[i].id;
+        }
+        for (int id : tracked) {
+            if (isRemoved.test(id)) {
+                remove(id);
+            }
+        }
+    }
+
+    /**
+     * @return an independent copy that {@link #restore(HotTaskTracker)} can bring the tracker back to
+     */
+    HotTaskTracker copy() {
+        HotTaskTracker copy = new HotTaskTracker(mask + 1, heap.length);
+        copy.restore(this);
+        return copy;
+    }
+
+    /**
+     * Makes the tracker count exactly what {@code saved} counts, which should have the same width and capacity.
+     */
+    void restore(HotTaskTracker saved) {
+        for (int row = 0; row < DEPTH; row++) {
+            System.arraycopy(saved.counters[row], 0, counters[row], 0, counters[row].length);
+        }
+        Arrays.fill(heap, null);
+        candidates.clear();
+        for (int i = 0; i < saved.heapSize; i++) {
+            Candidate candidate = new Candidate(saved.heap[i].id, saved.heap[i].count);
+            place(candidate, i);
+            candidates.put(candidate.id, candidate);
+        }
+        heapSize = saved.heapSize;
+        views = saved.views;
+    }
+
+    /**
+     * @return ids of at most {@code k} tracked entities, the most viewed first
+     */
+    int[] hottest(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative limit: " + k);
+        }
+
+        Candidate[] sorted = Arrays.copyOf(heap, heapSize);
+        Arrays.sort(sorted, (first, second) -> Integer.compare(second.count, first.count));
+
+        int[] ids = new int[Math.min(k, heapSize)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = sorted[i].id;
+        }
+        return ids;
+    }
+
+    /**
+     * @return the estimated number of recent views of the id
+     */
+    int estimate(int id) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters[row][index(id, row)]);
+        }
+        return estimate;
+    }
+
+    private int increment(int id) {
+        int estimate = estimate(id) + 1;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(id, row);
+            if (counters[row][index] < estimate) {
+                counters[row][index] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    /**
+     * Halving keeps the order of the heap, so it needs no repair.
+     */
+    private void age() {
+        for (int[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] >>>= 1;
+            }
+        }
+        for (int i = 0; i < heapSize; i++) {
+            heap[i].count >>>= 1;
+        }
+        views = sampleSize / 2;
+    }
+
+    private int index(int id, int row) {
+        int hash = id * SEEDS[row];
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void siftUp(int position) {
+        Candidate candidate = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (heap[parent].count <= candidate.count) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(candidate, position);
+    }
+
+    private void siftDown(int position) {
+        Candidate candidate = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (candidate.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(candidate, position);
+    }
+
+    private void place(Candidate candidate, int position) {
+        heap[position] = candidate;
+        candidate.position = position;
+    }
+
+    private static final class Candidate {
+        private int id;
+        private int count;
+        private int position;
+
+        Candidate(int id, int count) {
+            this.id = id;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package project.manager;
+
+import project.exception.NonexistentEntityException;
+import project.model.AbstractTask;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static project.exception.TaskExceptionMessage.HISTORY_DOES_NOT_CONTAIN;
+
+/**
+ * {@link HistoryManager} that keeps only the ids of viewed entities, so it never holds on to an outdated version of
+ * an entity and costs a few {@code int}s per entry.
+ * <p>
+ * The order lives in {@link HistorySlots}. Reads resolve the ids to the entities the task manager stores at that
+ * moment, at most {@value #RESOLVE_BATCH} ids per call to its {@link TaskResolver}, and only as many as the page
+ * needs. An id that does not resolve anymore is dropped from the history on the way. Not thread-safe.
+ */
+public class IdHistoryManager implements HistoryManager {
+    static final int RESOLVE_BATCH = 256;
+
+    private final HistorySlots slots;
+    private final int[] batch = new int[RESOLVE_BATCH];
+    private TaskResolver resolver;
+
+    public IdHistoryManager() {
+        slots = HistorySlots.unbounded();
+    }
+
+    /**
+     * Keeps at most {@code capacity} entries and evicts the oldest one to make room.
+     */
+    public IdHistoryManager(int capacity) {
+        slots = HistorySlots.bounded(capacity);
+    }
+
+    @Override
+    public void attach(TaskResolver resolver) {
+        if (this.resolver != null) {
+            throw new IllegalStateException("History is already attached to a task manager");
+        }
+        this.resolver = resolver;
+    }
+
+    @Override
+    public void add(AbstractTask task) {
+        slots.moveToEnd(task.getId());
+    }
+
+    @Override
+    public void remove(int id) {
+        slots.remove(id);
+    }
+
+    @Override
+    public List<AbstractTask> getDefaultHistory() {
+        List<AbstractTask> tasks = new ArrayList<>(slots.size());
+        resolveFrom(slots.head(), Integer.MAX_VALUE, tasks);
+        return tasks;
+    }
+
+    @Override
+    public List<AbstractTask> getHistoryPage(int afterId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+
+        int slot = slots.head();
+        if (afterId != 0) {
+            int after = slots.slotOf(afterId);
+            if (after == HistorySlots.NONE) {
+                throw new NonexistentEntityException(HISTORY_DOES_NOT_CONTAIN + afterId);
+            }
+            slot = slots.next(after);
+        }
+
+        List<AbstractTask> tasks = new ArrayList<>(Math.min(limit, slots.size()));
+        resolveFrom(slot, limit, tasks);
+        return tasks;
+    }
+
+    /**
+     * Resolves entries from {@code slot} on until {@code limit} entities are found. Dropping an entry that did not
+     * resolve frees a slot behind the walk, so the walk goes on undisturbed.
+     */
+    private void resolveFrom(int slot, int limit, List<AbstractTask> tasks) {
+        if (resolver == null) {
+            throw new IllegalStateException("History is not attached to a task manager");
+        }
+
+        while (slot != HistorySlots.NONE && tasks.size() < limit) {
+            int count = 0;
+            int wanted = Math.min(RESOLVE_BATCH, limit - tasks.size());
+            for (; slot != HistorySlots.NONE && count < wanted; slot = slots.next(slot)) {
+                batch[count++] = slots.id(slot);
+            }
+
+            AbstractTask[] resolved = resolver.resolve(batch, count);
+            for (int i = 0; i < count; i++) {
+                if (resolved[i] != null) {
+                    tasks.add(resolved[i]);
+                } else {
+                    slots.remove(batch[i]);
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package project.manager;
 
+import project.exception.NonexistentEntityException;
 import project.model.AbstractTask;
+import project.util.IntObjectHashMap;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+
+import static project.exception.TaskExceptionMessage.HISTORY_DOES_NOT_CONTAIN;
 
 public class InMemoryHistoryManager implements HistoryManager {
-    private final Map<Integer, Node> links = new HashMap<>();
+    private final IntObjectHashMap<Node> links = new IntObjectHashMap<>();
     private Node head;
     private Node tail;
 
@@ -37,6 +39,29 @@ public class InMemoryHistoryManager implements HistoryManager {
         return tasks;
     }
 
+    @Override
+    public List<AbstractTask> getHistoryPage(int afterId, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+
+        Node current = head;
+        if (afterId != 0) {
+            Node after = links.get(afterId);
+            if (after == null) {
+                throw new NonexistentEntityException(HISTORY_DOES_NOT_CONTAIN + afterId);
+            }
+            current = after.next;
+        }
+
+        List<AbstractTask> tasks = new ArrayList<>(Math.min(limit, links.size()));
+        while (current != null && tasks.size() < limit) {
+            tasks.add(current.item);
+            current = current.next;
+        }
+        return tasks;
+    }
+
     @Override
     public void remove(int id) {
         Node node = links.remove(id);
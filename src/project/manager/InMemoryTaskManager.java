@@ -6,38 +6,68 @@ import project.model.AbstractTask;
 import project.model.Epic;
 import project.model.Subtask;
 import project.model.Task;
+import project.util.IntHashSet;
+import project.util.IntObjectHashMap;
+import project.util.TaskLoadResult;
 import project.util.TaskValidator;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static project.exception.TaskExceptionMessage.EPIC_DOES_NOT_EXIST;
+import static project.exception.TaskExceptionMessage.EPIC_HAS_INVALID_SUBTASK;
+import static project.exception.TaskExceptionMessage.SUBTASK_IS_NOT_LISTED_IN_EPIC;
 import static project.exception.TaskExceptionMessage.SUBTASK_DOES_NOT_EXIST;
 import static project.exception.TaskExceptionMessage.TASKS_CANT_HAVE_SAME_ID;
 import static project.exception.TaskExceptionMessage.TASK_DOES_NOT_EXIST;
+import static project.exception.TaskExceptionMessage.TRANSACTION_IS_ROLLBACK_ONLY;
 
 public class InMemoryTaskManager implements TaskManager {
+    private static final int MIN_EXPECTED_SIZE = 12;
+
     private final TaskValidator validator;
-    private final Map<Integer, Task> tasks = new HashMap<>();
-    private final Map<Integer, Epic> epics = new HashMap<>();
-    private final Map<Integer, Subtask> subtasks = new HashMap<>();
+    private final IndexedStorage<Task> tasks;
+    private final IndexedStorage<Epic> epics;
+    private final IndexedStorage<Subtask> subtasks;
     private final HistoryManager historyManager;
+    private final EpicStatusCounters statusCounters = new EpicStatusCounters();
+    private final TextIndex textIndex = new TextIndex();
+    private final HotTaskTracker hotTasks = new HotTaskTracker();
     private int nextId = 1;
+    private IntObjectHashMap<AbstractTask> undoLog;
+    private List<AbstractTask> historyBeforeTransaction;
+    private boolean rollbackOnly;
+    private HotTaskTracker hotTasksBeforeTransaction;
+    private int transactionStartId;
+    private boolean snapshotsRequested;
+    private volatile TaskSnapshot published;
 
     public InMemoryTaskManager(TaskValidator validator, HistoryManager historyManager) {
-        this.validator = validator;
-        this.historyManager = historyManager;
+        this(validator, historyManager, List.of());
     }
 
     public InMemoryTaskManager(TaskValidator validator, HistoryManager historyManager,
                                List<AbstractTask> taskStorage) {
         this.validator = validator;
         this.historyManager = historyManager;
+        historyManager.attach(this::resolve);
+
+        int subtaskCount = 0;
+        int epicCount = 0;
+        for (AbstractTask abstractTask : taskStorage) {
+            if (abstractTask instanceof Subtask) {
+                subtaskCount++;
+            } else if (abstractTask instanceof Epic) {
+                epicCount++;
+            }
+        }
+        int taskCount = taskStorage.size() - subtaskCount - epicCount;
+        this.tasks = new IndexedStorage<>(Math.max(MIN_EXPECTED_SIZE, taskCount), textIndex);
+        this.epics = new IndexedStorage<>(Math.max(MIN_EXPECTED_SIZE, epicCount), textIndex);
+        this.subtasks = new IndexedStorage<>(Math.max(MIN_EXPECTED_SIZE, subtaskCount), textIndex);
 
         initialize(taskStorage);
     }
@@ -57,28 +87,96 @@ public class InMemoryTaskManager implements TaskManager {
         return List.copyOf(subtasks.values());
     }
 
+    @Override
+    public List<Task> getTasksPage(int afterId, int limit) {
+        return tasks.valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Epic> getEpicsPage(int afterId, int limit) {
+        return epics.valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Subtask> getSubtasksPage(int afterId, int limit) {
+        return subtasks.valuesAfter(afterId, limit);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return List.copyOf(tasks.values(status));
+    }
+
+    @Override
+    public List<Epic> getEpicsByStatus(Status status) {
+        return List.copyOf(epics.values(status));
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByStatus(Status status) {
+        return List.copyOf(subtasks.values(status));
+    }
+
+    @Override
+    public int countByStatus(Class<? extends AbstractTask> type, Status status) {
+        if (type == Task.class) {
+            return tasks.count(status);
+        } else if (type == Epic.class) {
+            return epics.count(status);
+        } else if (type == Subtask.class) {
+            return subtasks.count(status);
+        }
+        throw new IllegalArgumentException("Unknown task type: " + type);
+    }
+
+    @Override
+    public List<AbstractTask> search(String query) {
+        int[] ids = textIndex.search(query);
+        List<AbstractTask> found = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            found.add(findById(id));
+        }
+        return found;
+    }
+
     @Override
     public void deleteTasks() {
+        recordUndo(tasks.values());
         tasks.clear();
+        forgetRemovedHotTasks();
+        entitiesCleared(Task.class);
+        publishSnapshot();
     }
 
     @Override
     public void deleteEpics() {
+        recordUndo(epics.values());
+        recordUndo(subtasks.values());
         epics.clear();
         subtasks.clear();
+        forgetRemovedHotTasks();
+        statusCounters.clear();
+        entitiesCleared(Epic.class);
+        entitiesCleared(Subtask.class);
+        publishSnapshot();
     }
 
     @Override
     public void deleteSubtasks() {
+        recordUndo(subtasks.values());
         subtasks.clear();
+        forgetRemovedHotTasks();
+        statusCounters.reset();
+        entitiesCleared(Subtask.class);
         for (Epic epic : epics.values()) {
             Epic emptyEpic = new Epic.Builder()
                     .fromEpic(epic)
-                    .setSubtaskIds(new ArrayList<>())
+                    .setSubtaskIds(List.of())
                     .build();
 
-            updateEpic(emptyEpic);
+            storeEpic(emptyEpic);
         }
+        publishSnapshot();
     }
 
     @Override
@@ -113,6 +211,8 @@ public class InMemoryTaskManager implements TaskManager {
                 .build();
 
         tasks.put(taskId, newTask);
+        entityStored(newTask);
+        publishSnapshot();
         return newTask;
     }
 
@@ -126,6 +226,9 @@ public class InMemoryTaskManager implements TaskManager {
                 .setId(epicId)
                 .build();
         epics.put(epicId, newEpic);
+        statusCounters.register(epicId);
+        entityStored(newEpic);
+        publishSnapshot();
         return newEpic;
     }
 
@@ -143,28 +246,82 @@ public class InMemoryTaskManager implements TaskManager {
 
         Epic epic = getEpicById(epicId);
         subtasks.put(subtaskId, newSubtask);
-
-        List<Integer> updatedSubtaskIds = new ArrayList<>(epic.getSubtaskIds());
-        updatedSubtaskIds.add(subtaskId);
+        statusCounters.subtaskAdded(epicId, newSubtask.getStatus());
+        entityStored(newSubtask);
 
         Epic updatedEpic = new Epic.Builder()
                 .fromEpic(epic)
-                .setSubtaskIds(updatedSubtaskIds)
+                .addSubtaskId(subtaskId)
                 .build();
-        updateEpic(updatedEpic);
+        storeEpic(updatedEpic);
+        publishSnapshot();
 
         return newSubtask;
     }
 
+    @Override
+    public List<Task> addTasks(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            validator.validateNewTask(task);
+        }
+
+        List<Task> newTasks = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            int taskId = generateId();
+            Task newTask = new Task.Builder()
+                    .fromTask(task)
+                    .setId(taskId)
+                    .build();
+
+            this.tasks.put(taskId, newTask);
+            entityStored(newTask);
+            newTasks.add(newTask);
+        }
+        publishSnapshot();
+        return newTasks;
+    }
+
+    @Override
+    public List<Subtask> addSubtasks(int epicId, Collection<Subtask> subtasks) {
+        for (Subtask subtask : subtasks) {
+            validator.validateNewSubTask(subtask);
+        }
+        Epic epic = getEpicById(epicId);
+
+        Epic.Builder updatedEpic = new Epic.Builder().fromEpic(epic);
+        List<Subtask> newSubtasks = new ArrayList<>(subtasks.size());
+        for (Subtask subtask : subtasks) {
+            int subtaskId = generateId();
+            Subtask newSubtask = new Subtask.Builder()
+                    .fromSubtask(subtask)
+                    .setId(subtaskId)
+                    .setEpicId(epicId)
+                    .build();
+
+            this.subtasks.put(subtaskId, newSubtask);
+            statusCounters.subtaskAdded(epicId, newSubtask.getStatus());
+            entityStored(newSubtask);
+            updatedEpic.addSubtaskId(subtaskId);
+            newSubtasks.add(newSubtask);
+        }
+
+        storeEpic(updatedEpic.build());
+        publishSnapshot();
+        return newSubtasks;
+    }
+
     @Override
     public Task updateTask(Task task) {
         int id = task.getId();
         getTaskById(id);
+        validator.validateText(task);
 
         Task updatedTask = new Task.Builder()
                 .fromTask(task)
                 .build();
-        tasks.put(id, updatedTask);
+        recordUndo(tasks.put(id, updatedTask));
+        entityStored(updatedTask);
+        publishSnapshot();
         return updatedTask;
     }
 
@@ -173,16 +330,13 @@ public class InMemoryTaskManager implements TaskManager {
     */
     @Override
     public Epic updateEpic(Epic epic) {
-        int epicId = epic.getId();
-        getEpicById(epicId);
-
-        Status updatedStatus = calculateStatus(epic.getSubtaskIds());
-
-        Epic updatedEpic = new Epic.Builder()
-                .fromEpic(epic)
-                .setStatus(updatedStatus)
-                .build();
-        epics.put(epicId, updatedEpic);
+        Epic oldEpic = getEpicById(epic.getId());
+        validator.validateText(epic);
+        if (!oldEpic.getSubtaskIds().equals(epic.getSubtaskIds())) {
+            statusCounters.recount(epic.getId(), getSubtasksFromIds(epic.getSubtaskIds()));
+        }
+        Epic updatedEpic = storeEpic(epic);
+        publishSnapshot();
         return updatedEpic;
     }
 
@@ -191,6 +345,7 @@ public class InMemoryTaskManager implements TaskManager {
         int subtaskId = subtask.getId();
         Subtask oldSubtask = getSubtaskById(subtaskId);
         validator.ensureSubtasksEpicsAreEqual(oldSubtask, subtask);
+        validator.validateText(subtask);
 
         Epic epic = getEpicById(subtask.getEpicId());
 
@@ -198,25 +353,81 @@ public class InMemoryTaskManager implements TaskManager {
                 .fromSubtask(subtask)
                 .build();
 
-        subtasks.put(subtaskId, updatedSubtask);
-        updateEpic(epic);
+        recordUndo(subtasks.put(subtaskId, updatedSubtask));
+        statusCounters.subtaskChanged(epic.getId(), oldSubtask.getStatus(), updatedSubtask.getStatus());
+        entityStored(updatedSubtask);
+        storeEpic(epic);
+        publishSnapshot();
         return updatedSubtask;
     }
 
+    @Override
+    public List<Task> updateTasks(Collection<Task> tasks) {
+        for (Task task : tasks) {
+            getTaskById(task.getId());
+            validator.validateText(task);
+        }
+
+        List<Task> updatedTasks = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            Task updatedTask = new Task.Builder()
+                    .fromTask(task)
+                    .build();
+            recordUndo(this.tasks.put(updatedTask.getId(), updatedTask));
+            entityStored(updatedTask);
+            updatedTasks.add(updatedTask);
+        }
+        publishSnapshot();
+        return updatedTasks;
+    }
+
+    @Override
+    public List<Subtask> updateSubtasks(Collection<Subtask> subtasks) {
+        IntObjectHashMap<Epic> affectedEpics = new IntObjectHashMap<>();
+        for (Subtask subtask : subtasks) {
+            validator.ensureSubtasksEpicsAreEqual(getSubtaskById(subtask.getId()), subtask);
+            validator.validateText(subtask);
+            affectedEpics.put(subtask.getEpicId(), getEpicById(subtask.getEpicId()));
+        }
+
+        List<Subtask> updatedSubtasks = new ArrayList<>(subtasks.size());
+        for (Subtask subtask : subtasks) {
+            Subtask updatedSubtask = new Subtask.Builder()
+                    .fromSubtask(subtask)
+                    .build();
+            Subtask oldSubtask = this.subtasks.put(updatedSubtask.getId(), updatedSubtask);
+            recordUndo(oldSubtask);
+            statusCounters.subtaskChanged(updatedSubtask.getEpicId(), oldSubtask.getStatus(),
+                    updatedSubtask.getStatus());
+            entityStored(updatedSubtask);
+            updatedSubtasks.add(updatedSubtask);
+        }
+
+        for (Epic epic : affectedEpics.values()) {
+            storeEpic(epic);
+        }
+        publishSnapshot();
+        return updatedSubtasks;
+    }
+
     @Override
     public Task deleteTask(int id) {
-        return removeEntityById(tasks, id, TASK_DOES_NOT_EXIST);
+        Task removedTask = removeEntityById(tasks, id, TASK_DOES_NOT_EXIST);
+        publishSnapshot();
+        return removedTask;
     }
 
     @Override
     public Epic deleteEpic(int id) {
         Epic removedEpic = removeEntityById(epics, id, EPIC_DOES_NOT_EXIST);
+        statusCounters.unregister(id);
 
         List<Integer> subtasksIdToRemove = removedEpic.getSubtaskIds();
 
         for (Integer subtaskId : subtasksIdToRemove) {
             removeEntityById(subtasks, subtaskId, SUBTASK_DOES_NOT_EXIST);
         }
+        publishSnapshot();
         return removedEpic;
     }
 
@@ -226,16 +437,15 @@ public class InMemoryTaskManager implements TaskManager {
 
         int subtaskEpicId = removedSubtask.getEpicId();
         Epic epic = getEpicById(subtaskEpicId);
-
-        List<Integer> updatedSubtaskIds = new ArrayList<>(epic.getSubtaskIds());
-        updatedSubtaskIds.remove((Integer) id);
+        statusCounters.subtaskRemoved(subtaskEpicId, removedSubtask.getStatus());
 
         Epic updatedEpic = new Epic.Builder()
                 .fromEpic(epic)
-                .setSubtaskIds(updatedSubtaskIds)
+                .removeSubtaskId(id)
                 .build();
 
-        updateEpic(updatedEpic);
+        storeEpic(updatedEpic);
+        publishSnapshot();
         return removedSubtask;
     }
 
@@ -250,12 +460,229 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getDefaultHistory();
     }
 
-    protected List<List<AbstractTask>> getAllTasks() {
-        return List.of(
-                new ArrayList<>(tasks.values()),
-                new ArrayList<>(epics.values()),
-                new ArrayList<>(subtasks.values())
-        );
+    @Override
+    public List<AbstractTask> getHistoryPage(int afterId, int limit) {
+        return historyManager.getHistoryPage(afterId, limit);
+    }
+
+    @Override
+    public List<AbstractTask> getHottestTasks(int k) {
+        int[] ids = hotTasks.hottest(k);
+        List<AbstractTask> hottest = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            AbstractTask task = findById(id);
+            if (task != null) {
+                hottest.add(task);
+            }
+        }
+        return hottest;
+    }
+
+    /**
+     * Managers that never take a snapshot pay nothing for them. The first call builds persistent versions of the
+     * storages in O(n) and must not run concurrently with changes. From then on every storage keeps its version up
+     * to date, sharing structure with the previous one. After each change, or once a transaction commits, the
+     * manager publishes a snapshot of these versions through a volatile field. Later calls take O(1) and may come
+     * from any thread without locking. Changes of a running transaction are not included, unless the first call is
+     * made inside it.
+     */
+    @Override
+    public TaskSnapshot snapshot() {
+        TaskSnapshot snapshot = published;
+        if (snapshot == null) {
+            snapshotsRequested = true;
+            snapshot = new TaskSnapshot(tasks.version(), epics.version(), subtasks.version());
+            if (undoLog == null) {
+                published = snapshot;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Changes are applied in place and undone from an undo log if {@code work} throws, persistence is deferred to
+     * {@link #transactionCommitted()}. Entities that existed before the transaction are logged once, on their first
+     * change; entities created inside it are recognized by their id and simply dropped on rollback. A failed nested
+     * transaction marks the outer one as rollback-only, there are no savepoints.
+     */
+    @Override
+    public void inTransaction(Consumer<? super TaskManager> work) {
+        if (isInTransaction()) {
+            try {
+                work.accept(this);
+            } catch (RuntimeException | Error e) {
+                rollbackOnly = true;
+                throw e;
+            }
+            return;
+        }
+
+        undoLog = new IntObjectHashMap<>();
+        transactionStartId = nextId;
+        try {
+            work.accept(this);
+            if (rollbackOnly) {
+                throw new IllegalStateException(TRANSACTION_IS_ROLLBACK_ONLY);
+            }
+        } catch (RuntimeException | Error e) {
+            rollback();
+            transactionRolledBack();
+            throw e;
+        } finally {
+            undoLog = null;
+            historyBeforeTransaction = null;
+            hotTasksBeforeTransaction = null;
+            rollbackOnly = false;
+            publishSnapshot();
+        }
+        transactionCommitted();
+    }
+
+    /**
+     * Called after an entity has been put into the storage, either as a new one or as a replacement.
+     */
+    protected void entityStored(AbstractTask task) {
+    }
+
+    /**
+     * Called after a single entity has been removed from the storage.
+     */
+    protected void entityRemoved(AbstractTask task) {
+    }
+
+    /**
+     * Called after all entities of the given type have been removed from the storage at once.
+     */
+    protected void entitiesCleared(Class<? extends AbstractTask> type) {
+    }
+
+    protected boolean isInTransaction() {
+        return undoLog != null;
+    }
+
+    /**
+     * Called once after the outermost transaction has completed, its changes have already been reported by the
+     * other hooks.
+     */
+    protected void transactionCommitted() {
+    }
+
+    /**
+     * Called once after the outermost transaction has been undone. Changes reported by the other hooks during it
+     * should be forgotten, the undo itself is not reported.
+     */
+    protected void transactionRolledBack() {
+    }
+
+    /**
+     * Recounts subtask statuses of every epic from scratch and stores again every epic whose status was derived
+     * from wrong counters.
+     *
+     * @return whether counters and statuses were consistent
+     */
+    public boolean rebuildStatusCounters() {
+        boolean consistent = statusCounters.rebuild(subtasks.values());
+
+        for (Epic epic : List.copyOf(epics.values())) {
+            if (epic.getStatus() != statusCounters.statusOf(epic.getId())) {
+                consistent = false;
+                storeEpic(epic);
+            }
+        }
+        publishSnapshot();
+        return consistent;
+    }
+
+    /**
+     * Copy of the storage that stays valid while the manager keeps changing, e.g. for a background snapshot.
+     */
+    protected List<AbstractTask> getAllTasks() {
+        List<AbstractTask> allTasks = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        allTasks.addAll(tasks.values());
+        allTasks.addAll(epics.values());
+        allTasks.addAll(subtasks.values());
+        return allTasks;
+    }
+
+    /**
+     * Live read-only view of the storage, tasks first, then epics, then subtasks. Must not be iterated while the
+     * manager is being changed.
+     */
+    protected Iterable<AbstractTask> allTasksView() {
+        return () -> Stream.of(tasks.values(), epics.values(), subtasks.values())
+                .<AbstractTask>flatMap(Collection::stream)
+                .iterator();
+    }
+
+    /**
+     * Puts an entity read from storage as is. Entities may arrive in any order, so references between epics and
+     * subtasks are only checked by {@link #completeLoading()}, which also publishes them to snapshots. Hooks are not
+     * called.
+     */
+    protected void loadEntity(AbstractTask abstractTask) {
+        discardVersions();
+        ensureIdIsFree(abstractTask.getId());
+        putLoadedEntity(abstractTask);
+        nextId = Math.max(nextId, abstractTask.getId() + 1);
+    }
+
+    /**
+     * Same as {@link #loadEntity(AbstractTask)} for a whole loaded file. Ids the loader has already found unique are
+     * not checked again while the storage is empty, and the next id follows the greatest id the loader found.
+     */
+    protected void loadEntities(TaskLoadResult loaded) {
+        discardVersions();
+        boolean checkIds = !loaded.hasUniqueIds() || tasks.size() + epics.size() + subtasks.size() > 0;
+        for (AbstractTask abstractTask : loaded.getTasks()) {
+            if (checkIds) {
+                ensureIdIsFree(abstractTask.getId());
+            }
+            putLoadedEntity(abstractTask);
+        }
+        nextId = Math.max(nextId, loaded.getMaxId() + 1);
+    }
+
+    /**
+     * Same as {@link #loadEntity(AbstractTask)}, but replaces an entity loaded earlier under the same id. An entity
+     * replaced by one of the same type keeps its position in the storage.
+     */
+    protected void reloadEntity(AbstractTask abstractTask) {
+        int id = abstractTask.getId();
+        if (!(abstractTask instanceof Task)) {
+            tasks.remove(id);
+        }
+        if (!(abstractTask instanceof Epic)) {
+            epics.remove(id);
+        }
+        if (!(abstractTask instanceof Subtask)) {
+            subtasks.remove(id);
+        }
+        putLoadedEntity(abstractTask);
+        nextId = Math.max(nextId, id + 1);
+    }
+
+    protected void unloadEntity(int id) {
+        tasks.remove(id);
+        epics.remove(id);
+        subtasks.remove(id);
+    }
+
+    protected void unloadEntities(Class<? extends AbstractTask> type) {
+        if (type == Task.class) {
+            tasks.clear();
+        } else if (type == Epic.class) {
+            epics.clear();
+        } else if (type == Subtask.class) {
+            subtasks.clear();
+        }
+    }
+
+    /**
+     * Checks the entities loaded so far refer to each other consistently.
+     */
+    protected void completeLoading() {
+        validateReferences();
+        publishSnapshot();
     }
 
 
@@ -275,57 +702,190 @@ public class InMemoryTaskManager implements TaskManager {
         return getEntityById(subtasks, id, SUBTASK_DOES_NOT_EXIST);
     }
 
+    private AbstractTask findById(int id) {
+        AbstractTask task = tasks.get(id);
+        if (task == null) {
+            task = epics.get(id);
+        }
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        return task;
+    }
+
+    private AbstractTask[] resolve(int[] ids, int count) {
+        AbstractTask[] resolved = new AbstractTask[count];
+        for (int i = 0; i < count; i++) {
+            resolved[i] = findById(ids[i]);
+        }
+        return resolved;
+    }
+
     private void addToHistoryManager(AbstractTask task) {
+        recordHistoryUndo();
         historyManager.add(task);
+        hotTasks.record(task.getId());
     }
 
     private void removeFromHistoryManager(int id) {
+        recordHistoryUndo();
         historyManager.remove(id);
+        hotTasks.remove(id);
+    }
+
+    private void forgetRemovedHotTasks() {
+        recordHistoryUndo();
+        hotTasks.removeIf(id -> findById(id) == null);
+    }
+
+    /**
+     * Versions are rebuilt in O(n) by the next {@link #publishSnapshot()}, so a bulk load does not update them entity
+     * by entity.
+     */
+    private void discardVersions() {
+        tasks.discardVersion();
+        epics.discardVersion();
+        subtasks.discardVersion();
+    }
+
+    private void publishSnapshot() {
+        if (snapshotsRequested && undoLog == null) {
+            published = new TaskSnapshot(tasks.version(), epics.version(), subtasks.version());
+        }
     }
 
     private int generateId() {
         return nextId++;
     }
 
+    /**
+     * Bulk load in linear time: one pass puts entities into the storage, checks ids and tracks the greatest id,
+     * a second pass over epics checks that epics and subtasks refer to each other and counts subtask statuses.
+     */
     private void initialize(List<AbstractTask> taskStorage) {
-        Set<Integer> ids = new HashSet<>();
-
         for (AbstractTask abstractTask : taskStorage) {
-            if (!ids.add(abstractTask.getId())) {
-                throw new IllegalStateException(TASKS_CANT_HAVE_SAME_ID);
-            }
+            ensureIdIsFree(abstractTask.getId());
+            putLoadedEntity(abstractTask);
+            nextId = Math.max(nextId, abstractTask.getId() + 1);
+        }
+        validateReferences();
+    }
+
+    private void ensureIdIsFree(int id) {
+        if (tasks.containsKey(id) || epics.containsKey(id) || subtasks.containsKey(id)) {
+            throw new IllegalStateException(TASKS_CANT_HAVE_SAME_ID);
+        }
+    }
+
+    private void putLoadedEntity(AbstractTask abstractTask) {
+        int id = abstractTask.getId();
 
-            switch (abstractTask) {
-                case Epic epic -> epics.put(epic.getId(), epic);
+        switch (abstractTask) {
+            case Epic epic -> epics.put(id, epic);
 
-                case Subtask subtask -> subtasks.put(subtask.getId(), subtask);
+            case Subtask subtask -> subtasks.put(id, subtask);
 
-                case Task task -> tasks.put(task.getId(), task);
+            case Task task -> tasks.put(id, task);
+
+            default -> throw new IllegalArgumentException("Unknown task type: " + abstractTask.getClass());
+        }
+    }
 
-                default -> throw new IllegalArgumentException("Unknown task type: " + abstractTask.getClass());
+    private void validateReferences() {
+        IntHashSet listedSubtasks = new IntHashSet(subtasks.size());
+        statusCounters.clear();
+
+        for (Epic epic : epics.values()) {
+            statusCounters.register(epic.getId());
+            for (int subtaskId : epic.getSubtaskIds()) {
+                Subtask subtask = subtasks.get(subtaskId);
+                if (subtask == null || subtask.getEpicId() != epic.getId() || !listedSubtasks.add(subtaskId)) {
+                    throw new IllegalStateException(EPIC_HAS_INVALID_SUBTASK + epic.getId());
+                }
+                statusCounters.subtaskAdded(epic.getId(), subtask.getStatus());
             }
+        }
+
+        if (listedSubtasks.size() != subtasks.size()) {
+            throw new IllegalStateException(SUBTASK_IS_NOT_LISTED_IN_EPIC);
+        }
+    }
 
-            nextId = ids.isEmpty() ? 1 : Collections.max(ids) + 1;
+    private void recordUndo(AbstractTask previous) {
+        if (undoLog != null && previous != null && previous.getId() < transactionStartId
+                && !undoLog.containsKey(previous.getId())) {
+            undoLog.put(previous.getId(), previous);
         }
     }
 
-    private Status calculateStatus(List<Integer> subtaskIds) {
-        List<Subtask> subtasksFromEpic = getSubtasksFromIds(subtaskIds);
-        List<Status> uniqueStatuses = subtasksFromEpic.stream().map(Subtask::getStatus)
-                .distinct().toList();
+    private void recordUndo(Collection<? extends AbstractTask> previous) {
+        if (undoLog != null) {
+            for (AbstractTask task : previous) {
+                recordUndo(task);
+            }
+        }
+    }
 
-        if (uniqueStatuses.size() > 1 || uniqueStatuses.contains(Status.IN_PROGRESS)) {
-            return Status.IN_PROGRESS;
+    private void recordHistoryUndo() {
+        if (undoLog != null && historyBeforeTransaction == null) {
+            historyBeforeTransaction = historyManager.getDefaultHistory();
+            hotTasksBeforeTransaction = hotTasks.copy();
+        }
+    }
+
+    private void rollback() {
+        IntHashSet touchedEpicIds = new IntHashSet();
+        for (int id = transactionStartId; id < nextId; id++) {
+            tasks.remove(id);
+            Subtask createdSubtask = subtasks.remove(id);
+            if (createdSubtask != null) {
+                touchedEpicIds.add(createdSubtask.getEpicId());
+            }
+            if (epics.remove(id) != null) {
+                statusCounters.unregister(id);
+            }
+        }
+        for (AbstractTask task : undoLog.values()) {
+            reloadEntity(task);
+            if (task instanceof Epic) {
+                touchedEpicIds.add(task.getId());
+            } else if (task instanceof Subtask subtask) {
+                touchedEpicIds.add(subtask.getEpicId());
+            }
         }
+        nextId = transactionStartId;
 
-        if (uniqueStatuses.contains(Status.DONE)) {
-            return Status.DONE;
+        touchedEpicIds.forEach(epicId -> {
+            Epic epic = epics.get(epicId);
+            if (epic != null) {
+                statusCounters.recount(epicId, getSubtasksFromIds(epic.getSubtaskIds()));
+            }
+        });
+
+        if (historyBeforeTransaction != null) {
+            for (AbstractTask task : historyManager.getDefaultHistory()) {
+                historyManager.remove(task.getId());
+            }
+            for (AbstractTask task : historyBeforeTransaction) {
+                historyManager.add(task);
+            }
+            hotTasks.restore(hotTasksBeforeTransaction);
         }
+    }
+
+    private Epic storeEpic(Epic epic) {
+        Status updatedStatus = statusCounters.statusOf(epic.getId());
 
-        return Status.NEW;
+        Epic updatedEpic = new Epic.Builder()
+                .fromEpic(epic)
+                .setStatus(updatedStatus)
+                .build();
+        recordUndo(epics.put(updatedEpic.getId(), updatedEpic));
+        entityStored(updatedEpic);
+        return updatedEpic;
     }
 
-    private <T extends AbstractTask> T getEntityById(Map<Integer, T> storage, int id, String errorMessage) {
+    private <T extends AbstractTask> T getEntityById(IndexedStorage<T> storage, int id, String errorMessage) {
         T entity = storage.get(id);
         if (entity == null) {
             throw new NonexistentEntityException(errorMessage + id);
@@ -333,12 +893,14 @@ public class InMemoryTaskManager implements TaskManager {
         return entity;
     }
 
-    private <T extends AbstractTask> T removeEntityById(Map<Integer, T> storage, int id, String errorMessage) {
+    private <T extends AbstractTask> T removeEntityById(IndexedStorage<T> storage, int id, String errorMessage) {
         removeFromHistoryManager(id);
         T entity = storage.remove(id);
         if (entity == null) {
             throw new NonexistentEntityException(errorMessage + id);
         }
+        recordUndo(entity);
+        entityRemoved(entity);
         return entity;
     }
 }
@@ -0,0 +1,143 @@
+package project.manager;
+
+import project.enums.Status;
+import project.model.AbstractTask;
+import project.util.IntObjectHashMap;
+import project.util.PersistentIntMap;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Entities of one type by id, together with indexes that are kept up to date on every change: an index of the same
+ * entities by status, and a {@link TextIndex} shared by the storages of all types. Counting entities in a status
+ * takes constant time, listing them is proportional to their number.
+ * <p>
+ * Once {@link #version()} has been asked for, the storage also keeps an immutable version of its entities up to date,
+ * which costs O(log n) extra per change, until {@link #discardVersion()}. Until then changes pay nothing for it.
+ * Not thread-safe.
+ */
+class IndexedStorage<T extends AbstractTask> {
+    private static final Status[] STATUSES = Status.values();
+
+    private final IntObjectHashMap<T> byId;
+    private final IntObjectHashMap<T>[] byStatus;
+    private final TextIndex textIndex;
+    private PersistentIntMap<T> version;
+
+    IndexedStorage(int expectedSize, TextIndex textIndex) {
+        this.textIndex = textIndex;
+        byId = new IntObjectHashMap<>(expectedSize);
+        byStatus = newStatusIndex();
+    }
+
+    T get(int id) {
+        return byId.get(id);
+    }
+
+    boolean containsKey(int id) {
+        return byId.containsKey(id);
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    /**
+     * Entity keeps its position in both indexes as long as its status does not change.
+     *
+     * @return the previous entity with the same id, or {@code null}
+     */
+    T put(int id, T entity) {
+        T previous = byId.put(id, entity);
+        if (previous != null && previous.getStatus() != entity.getStatus()) {
+            byStatus[previous.getStatus().ordinal()].remove(id);
+        }
+        byStatus[entity.getStatus().ordinal()].put(id, entity);
+
+        if (version != null) {
+            version = version.with(id, entity);
+        }
+        if (previous == null) {
+            textIndex.add(entity);
+        } else {
+            textIndex.replace(previous, entity);
+        }
+        return previous;
+    }
+
+    T remove(int id) {
+        T removed = byId.remove(id);
+        if (removed != null) {
+            byStatus[removed.getStatus().ordinal()].remove(id);
+            textIndex.remove(removed);
+            if (version != null) {
+                version = version.without(id);
+            }
+        }
+        return removed;
+    }
+
+    void clear() {
+        for (T entity : byId.values()) {
+            textIndex.remove(entity);
+        }
+        byId.clear();
+        for (IntObjectHashMap<T> index : byStatus) {
+            index.clear();
+        }
+        if (version != null) {
+            version = PersistentIntMap.empty();
+        }
+    }
+
+    Collection<T> values() {
+        return byId.values();
+    }
+
+    /**
+     * @see IntObjectHashMap#valuesAfter(int, int)
+     */
+    List<T> valuesAfter(int id, int limit) {
+        return byId.valuesAfter(id, limit);
+    }
+
+    /**
+     * Current entities as an immutable map. The first call after creation or {@link #discardVersion()} copies the
+     * storage, later ones take constant time.
+     */
+    PersistentIntMap<T> version() {
+        if (version == null) {
+            version = PersistentIntMap.of(byId.values(), AbstractTask::getId);
+        }
+        return version;
+    }
+
+    /**
+     * Stops keeping the immutable version up to date, e.g. while many entities are loaded at once.
+     */
+    void discardVersion() {
+        version = null;
+    }
+
+    Collection<T> values(Status status) {
+        return byStatus[status.ordinal()].values();
+    }
+
+    int count(Status status) {
+        return byStatus[status.ordinal()].size();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> IntObjectHashMap<T>[] newStatusIndex() {
+        IntObjectHashMap<T>[] byStatus = new IntObjectHashMap[STATUSES.length];
+        for (int i = 0; i < byStatus.length; i++) {
+            byStatus[i] = new IntObjectHashMap<>();
+        }
+        return byStatus;
+    }
+}
@@ -0,0 +1,55 @@
+package project.manager;
+
+import project.model.AbstractTask;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy streams on top of keyset pagination: a page is read only when the previous one has been consumed, and the
+ * next page starts after the id of the last entity seen. Nothing is held between pages, so the store may change
+ * during a walk without failing it, unless the reader rejects a cursor that is gone, as history pages do.
+ */
+final class KeysetPages {
+    static final int STREAM_PAGE_SIZE = 256;
+
+    private KeysetPages() {
+    }
+
+    @FunctionalInterface
+    interface PageReader<T extends AbstractTask> {
+        List<T> read(int afterId, int limit);
+    }
+
+    static <T extends AbstractTask> Stream<T> stream(PageReader<T> reader) {
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private Iterator<T> page = List.<T>of().iterator();
+            private int lastId;
+            private boolean lastPage;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                if (!page.hasNext() && !lastPage) {
+                    List<T> next = reader.read(lastId, STREAM_PAGE_SIZE);
+                    lastPage = next.size() < STREAM_PAGE_SIZE;
+                    page = next.iterator();
+                }
+                if (!page.hasNext()) {
+                    return false;
+                }
+
+                T entity = page.next();
+                lastId = entity.getId();
+                action.accept(entity);
+                return true;
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+}
@@ -1,11 +1,16 @@
 package project.manager;
 
+import project.enums.Status;
+import project.exception.NonexistentEntityException;
 import project.model.AbstractTask;
 import project.model.Epic;
 import project.model.Subtask;
 import project.model.Task;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface TaskManager {
     List<Task> getTasks();
@@ -14,6 +19,62 @@ public interface TaskManager {
 
     List<Subtask> getSubtasks();
 
+    /**
+     * Keyset pagination: up to {@code limit} tasks with ids greater than {@code afterId}, in ascending id order. The
+     * first page starts after 0, every next one after the id of the last task of the previous page, so no task is
+     * skipped or repeated when others are added or deleted in between.
+     */
+    List<Task> getTasksPage(int afterId, int limit);
+
+    /**
+     * @see #getTasksPage(int, int)
+     */
+    List<Epic> getEpicsPage(int afterId, int limit);
+
+    /**
+     * @see #getTasksPage(int, int)
+     */
+    List<Subtask> getSubtasksPage(int afterId, int limit);
+
+    /**
+     * Lazy walk over all tasks in ascending id order, read page by page with {@link #getTasksPage(int, int)}. Every
+     * task that exists for the whole walk is seen once, changes made during it may or may not be seen.
+     */
+    default Stream<Task> streamTasks() {
+        return KeysetPages.stream(this::getTasksPage);
+    }
+
+    /**
+     * @see #streamTasks()
+     */
+    default Stream<Epic> streamEpics() {
+        return KeysetPages.stream(this::getEpicsPage);
+    }
+
+    /**
+     * @see #streamTasks()
+     */
+    default Stream<Subtask> streamSubtasks() {
+        return KeysetPages.stream(this::getSubtasksPage);
+    }
+
+    List<Task> getTasksByStatus(Status status);
+
+    List<Epic> getEpicsByStatus(Status status);
+
+    List<Subtask> getSubtasksByStatus(Status status);
+
+    /**
+     * @param type {@code Task.class}, {@code Epic.class} or {@code Subtask.class}
+     */
+    int countByStatus(Class<? extends AbstractTask> type, Status status);
+
+    /**
+     * Full-text search over names and descriptions of all entities. Every word of the query must be found, a word
+     * ending with {@code *} matches words starting with it. Best matches come first.
+     */
+    List<AbstractTask> search(String query);
+
     void deleteTasks();
 
     void deleteEpics();
@@ -32,12 +93,34 @@ public interface TaskManager {
 
     Subtask addSubtask(Subtask subtask, int epicId);
 
+    /**
+     * Adds all tasks at once. Every task is validated before any of them is added.
+     */
+    List<Task> addTasks(Collection<Task> tasks);
+
+    /**
+     * Adds all subtasks to the epic at once. Every subtask is validated before any of them is added, the status of
+     * the epic is recalculated once.
+     */
+    List<Subtask> addSubtasks(int epicId, Collection<Subtask> subtasks);
+
     Task updateTask(Task task);
 
     Epic updateEpic(Epic epic);
 
     Subtask updateSubtask(Subtask subtask);
 
+    /**
+     * Updates all tasks at once. Nothing is changed if any of them does not exist.
+     */
+    List<Task> updateTasks(Collection<Task> tasks);
+
+    /**
+     * Updates all subtasks at once. Nothing is changed if any of them does not exist or moves to another epic, the
+     * status of every affected epic is recalculated once.
+     */
+    List<Subtask> updateSubtasks(Collection<Subtask> subtasks);
+
     Task deleteTask(int id);
 
     Epic deleteEpic(int id);
@@ -47,4 +130,42 @@ public interface TaskManager {
     List<Subtask> getEpicSubtasks(int id);
 
     List<AbstractTask> getHistory();
+
+    /**
+     * Up to {@code limit} entries of the history that follow the entity with id {@code afterId}, 0 for the first page.
+     * An entity viewed again moves to the end of the history, and so does a walk that uses it as a cursor.
+     *
+     * @throws NonexistentEntityException if the entity with id {@code afterId} has left the history
+     */
+    List<AbstractTask> getHistoryPage(int afterId, int limit);
+
+    /**
+     * Lazy walk over the history, read page by page with {@link #getHistoryPage(int, int)}. The walk fails with
+     * {@link NonexistentEntityException} if the last entity it has returned leaves the history before the next page
+     * is read.
+     */
+    default Stream<AbstractTask> streamHistory() {
+        return KeysetPages.stream(this::getHistoryPage);
+    }
+
+    /**
+     * Up to {@code k} entities viewed most often lately, the most viewed first. Counts are estimates kept in fixed
+     * memory that lose weight over time, and only a fixed number of the hottest entities are tracked.
+     */
+    List<AbstractTask> getHottestTasks(int k);
+
+    /**
+     * Immutable view of all entities as they are now, which stays the same while the manager keeps changing and can
+     * be read from any thread.
+     */
+    TaskSnapshot snapshot();
+
+    /**
+     * Runs {@code work} against this manager as one unit: if it throws, every change it made is undone before the
+     * exception is rethrown, otherwise the changes are persisted once, after {@code work} returns. A transaction
+     * started inside {@code work} joins the outer one. If it throws, the outer one can no longer commit: even when
+     * the exception is caught, the outer transaction is undone once {@code work} returns and an
+     * {@link IllegalStateException} is thrown.
+     */
+    void inTransaction(Consumer<? super TaskManager> work);
 }
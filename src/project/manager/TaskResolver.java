@@ -0,0 +1,17 @@
+package project.manager;
+
+import project.model.AbstractTask;
+
+/**
+ * Looks up the entities a task manager stores right now by their ids, for histories that keep only ids.
+ */
+@FunctionalInterface
+public interface TaskResolver {
+
+    /**
+     * Resolves the first {@code count} ids of {@code ids} in one pass.
+     *
+     * @return the current entities in the order of the ids, with {@code null} for an id that is not stored
+     */
+    AbstractTask[] resolve(int[] ids, int count);
+}
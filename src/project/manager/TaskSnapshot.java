@@ -0,0 +1,74 @@
+package project.manager;
+
+import project.exception.NonexistentEntityException;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.PersistentIntMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static project.exception.TaskExceptionMessage.EPIC_DOES_NOT_EXIST;
+import static project.exception.TaskExceptionMessage.SUBTASK_DOES_NOT_EXIST;
+import static project.exception.TaskExceptionMessage.TASK_DOES_NOT_EXIST;
+
+/**
+ * Immutable point-in-time view of all entities of a {@link TaskManager}, see {@link TaskManager#snapshot()}.
+ * <p>
+ * Lists are read-only views sorted by id, nothing is copied when they are read. A snapshot can be read from any
+ * thread, there are no locks and no registry of open snapshots: a version of the board is reclaimed by the garbage
+ * collector once no snapshot refers to it.
+ */
+public final class TaskSnapshot {
+    private final PersistentIntMap<Task> tasks;
+    private final PersistentIntMap<Epic> epics;
+    private final PersistentIntMap<Subtask> subtasks;
+
+    TaskSnapshot(PersistentIntMap<Task> tasks, PersistentIntMap<Epic> epics, PersistentIntMap<Subtask> subtasks) {
+        this.tasks = tasks;
+        this.epics = epics;
+        this.subtasks = subtasks;
+    }
+
+    public List<Task> getTasks() {
+        return tasks.values();
+    }
+
+    public List<Epic> getEpics() {
+        return epics.values();
+    }
+
+    public List<Subtask> getSubtasks() {
+        return subtasks.values();
+    }
+
+    public Task getTask(int id) {
+        return getEntityById(tasks, id, TASK_DOES_NOT_EXIST);
+    }
+
+    public Epic getEpic(int id) {
+        return getEntityById(epics, id, EPIC_DOES_NOT_EXIST);
+    }
+
+    public Subtask getSubtask(int id) {
+        return getEntityById(subtasks, id, SUBTASK_DOES_NOT_EXIST);
+    }
+
+    public List<Subtask> getEpicSubtasks(int id) {
+        List<Integer> subtaskIds = getEpic(id).getSubtaskIds();
+        List<Subtask> epicSubtasks = new ArrayList<>(subtaskIds.size());
+        for (int subtaskId : subtaskIds) {
+            epicSubtasks.add(getSubtask(subtaskId));
+        }
+        return epicSubtasks;
+    }
+
+    private static <T> T getEntityById(PersistentIntMap<T> storage, int id, String errorMessage) {
+        T entity = storage.get(id);
+        if (entity == null) {
+            throw new NonexistentEntityException(errorMessage + id);
+        }
+        return entity;
+    }
+}
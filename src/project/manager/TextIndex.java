@@ -0,0 +1,201 @@
+package project.manager;
+
+import project.model.AbstractTask;
+import project.util.IntBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * Inverted index from the words of entity names and descriptions to entity ids.
+ * <p>
+ * A word is a maximal run of letters and digits, compared in lower case. Every word keeps two compressed posting
+ * lists, the ids of entities that mention it anywhere and the ids of those that mention it in the name. Words are
+ * looked up by hash and also kept sorted, so a prefix query is a range of words. Not thread-safe.
+ */
+class TextIndex {
+    private static final char PREFIX_WILDCARD = '*';
+    private static final int NAME_WEIGHT = 2;
+
+    private final Map<String, Postings> dictionary = new HashMap<>();
+    private final NavigableSet<String> sortedWords = new TreeSet<>();
+    private int documentCount;
+
+    void add(AbstractTask task) {
+        int id = task.getId();
+        tokenize(task.getName(), word -> postingsOf(word).addName(id));
+        tokenize(task.getDescription(), word -> postingsOf(word).add(id));
+        documentCount++;
+    }
+
+    void remove(AbstractTask task) {
+        int id = task.getId();
+        tokenize(task.getName(), word -> removePosting(word, id));
+        tokenize(task.getDescription(), word -> removePosting(word, id));
+        documentCount--;
+    }
+
+    /**
+     * Replaces {@code previous} by {@code current}, does nothing when their text is the same.
+     */
+    void replace(AbstractTask previous, AbstractTask current) {
+        if (Objects.equals(previous.getName(), current.getName())
+                && Objects.equals(previous.getDescription(), current.getDescription())) {
+            return;
+        }
+        remove(previous);
+        add(current);
+    }
+
+    /**
+     * Finds entities that contain every word of the query, a word ending with {@code *} matches any word starting
+     * with it. Results are ranked by the sum of the query words' inverse document frequencies, a word found in the
+     * name counts double; ties are broken by id.
+     *
+     * @return ids of the found entities, best first
+     */
+    int[] search(String query) {
+        List<Term> terms = parse(query);
+        if (terms.isEmpty()) {
+            return new int[0];
+        }
+
+        IntBitmap matches = null;
+        for (Term term : terms) {
+            matches = matches == null ? term.anywhere : IntBitmap.and(matches, term.anywhere);
+            if (matches.isEmpty()) {
+                return new int[0];
+            }
+        }
+
+        int[] ids = matches.toArray();
+        double[] scores = new double[ids.length];
+        for (Term term : terms) {
+            double idf = Math.log(1 + (double) documentCount / term.anywhere.cardinality());
+            for (int i = 0; i < ids.length; i++) {
+                scores[i] += term.inName.contains(ids[i]) ? NAME_WEIGHT * idf : idf;
+            }
+        }
+
+        // scores are positive, so the bits of a float sort like the float itself; a primitive sort of
+        // (inverted score, id) keys avoids boxing hundreds of thousands of indexes for frequent words
+        long[] keys = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            long invertedScore = Integer.MAX_VALUE - Float.floatToIntBits((float) scores[i]);
+            keys[i] = invertedScore << Integer.SIZE | (ids[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+        }
+        Arrays.sort(keys);
+
+        int[] ranked = new int[ids.length];
+        for (int i = 0; i < ranked.length; i++) {
+            ranked[i] = (int) keys[i] ^ Integer.MIN_VALUE;
+        }
+        return ranked;
+    }
+
+    private static void tokenize(String text, Consumer<String> action) {
+        if (text == null) {
+            return;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                action.accept(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+    }
+
+    private List<Term> parse(String query) {
+        List<Term> terms = new ArrayList<>();
+        for (String part : query.trim().split("\\s+")) {
+            boolean prefix = part.endsWith(String.valueOf(PREFIX_WILDCARD));
+            List<String> words = new ArrayList<>();
+            tokenize(part, words::add);
+
+            for (int i = 0; i < words.size(); i++) {
+                terms.add(prefix && i == words.size() - 1 ? prefixTerm(words.get(i)) : wordTerm(words.get(i)));
+            }
+        }
+        return terms;
+    }
+
+    private Term wordTerm(String word) {
+        Postings postings = dictionary.get(word);
+        return postings == null
+                ? new Term(new IntBitmap(), new IntBitmap())
+                : new Term(postings.anywhere, postings.inName);
+    }
+
+    private Term prefixTerm(String prefix) {
+        IntBitmap anywhere = new IntBitmap();
+        IntBitmap inName = new IntBitmap();
+        for (String word : sortedWords.tailSet(prefix, true)) {
+            if (!word.startsWith(prefix)) {
+                break;
+            }
+            Postings postings = dictionary.get(word);
+            anywhere = IntBitmap.or(anywhere, postings.anywhere);
+            inName = IntBitmap.or(inName, postings.inName);
+        }
+        return new Term(anywhere, inName);
+    }
+
+    private Postings postingsOf(String word) {
+        Postings postings = dictionary.get(word);
+        if (postings == null) {
+            postings = new Postings();
+            dictionary.put(word, postings);
+            sortedWords.add(word);
+        }
+        return postings;
+    }
+
+    private void removePosting(String word, int id) {
+        Postings postings = dictionary.get(word);
+        if (postings != null) {
+            postings.anywhere.remove(id);
+            postings.inName.remove(id);
+            if (postings.anywhere.isEmpty()) {
+                dictionary.remove(word);
+                sortedWords.remove(word);
+            }
+        }
+    }
+
+    private static final class Postings {
+        private final IntBitmap anywhere = new IntBitmap();
+        private final IntBitmap inName = new IntBitmap();
+
+        void add(int id) {
+            anywhere.add(id);
+        }
+
+        void addName(int id) {
+            anywhere.add(id);
+            inName.add(id);
+        }
+    }
+
+    private static final class Term {
+        private final IntBitmap anywhere;
+        private final IntBitmap inName;
+
+        Term(IntBitmap anywhere, IntBitmap inName) {
+            this.anywhere = anywhere;
+            this.inName = inName;
+        }
+    }
+}
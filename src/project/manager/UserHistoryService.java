@@ -0,0 +1,379 @@
+package project.manager;
+
+import project.exception.ManagerSaveException;
+import project.util.IntIntHashMap;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static project.exception.TaskExceptionMessage.ERROR_SPILLING_HISTORY;
+
+/**
+ * Recently viewed task ids of many users, each history capped at {@code capacityPerUser} ids, oldest first. Viewing
+ * a task again moves it to the end, viewing a new one at the cap drops the oldest.
+ * <p>
+ * Histories of up to {@code maxResidentUsers} users are kept in memory, in blocks of shared preallocated arrays, so a
+ * resident user costs {@code capacityPerUser + 3} ints and a flag, plus an entry of the user table. When a block is
+ * needed and none is free, the history of an idle user is written to the spill file: blocks are picked by the CLOCK
+ * algorithm, which skips, and then forgets, every user active since the hand last passed. {@link #evictIdleUsers()}
+ * spills all users idle since the previous call at once. A spilled history is read back on its next use, and the
+ * file is compacted once most of it is dead. The spill file is scratch space: it is truncated when the service is
+ * created and deleted when it is closed.
+ * <p>
+ * Ids of deleted tasks are not removed from histories, callers skip ids that no longer resolve. Thread-safe, every
+ * method takes the lock of the service.
+ */
+public class UserHistoryService implements Closeable {
+    private static final int NONE = -1;
+    private static final int MIN_USER_SLOTS = 16;
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final long MIN_COMPACTION_BYTES = 1 << 20;
+    private static final String COMPACTION_EXTENSION = ".tmp";
+
+    private final int capacityPerUser;
+    private final int[] entries;
+    private final int[] lengths;
+    private final int[] blockUsers;
+    private final boolean[] referenced;
+    private final int[] freeBlocks;
+    private int freeCount;
+    private int clockHand;
+
+    // user id -> user slot, slots are dense: the last one moves into a removed one
+    private final IntIntHashMap userSlots = new IntIntHashMap();
+    private int[] slotUsers = new int[MIN_USER_SLOTS];
+    // block + 1 for a resident history, -(offset + 1) for a spilled one
+    private long[] locations = new long[MIN_USER_SLOTS];
+    private int knownUsers;
+    private int spilledUsers;
+
+    private final Path spillPath;
+    private final ByteBuffer record;
+    private FileChannel spill;
+    private long spillEnd;
+    private long deadBytes;
+
+    public UserHistoryService(int capacityPerUser, int maxResidentUsers, Path spillFile) {
+        if (capacityPerUser <= 0 || maxResidentUsers <= 0) {
+            throw new IllegalArgumentException("History capacity and resident users should be positive: "
+                    + capacityPerUser + ", " + maxResidentUsers);
+        }
+        this.capacityPerUser = capacityPerUser;
+        entries = new int[Math.multiplyExact(capacityPerUser, maxResidentUsers)];
+        lengths = new int[maxResidentUsers];
+        blockUsers = new int[maxResidentUsers];
+        referenced = new boolean[maxResidentUsers];
+        freeBlocks = new int[maxResidentUsers];
+        for (int i = 0; i < maxResidentUsers; i++) {
+            freeBlocks[i] = maxResidentUsers - 1 - i;
+        }
+        freeCount = maxResidentUsers;
+
+        spillPath = spillFile;
+        record = ByteBuffer.allocate(RECORD_HEADER_BYTES + capacityPerUser * Integer.BYTES);
+        try {
+            spill = FileChannel.open(spillFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_SPILLING_HISTORY, e);
+        }
+    }
+
+    public synchronized void add(int userId, int taskId) {
+        int block = residentBlock(userId, true);
+        int base = block * capacityPerUser;
+        int length = lengths[block];
+
+        int position = indexOf(base, length, taskId);
+        if (position == NONE && length == capacityPerUser) {
+            position = base;
+        }
+        if (position == NONE) {
+            entries[base + length] = taskId;
+            lengths[block] = length + 1;
+        } else {
+            System.arraycopy(entries, position + 1, entries, position, base + length - position - 1);
+            entries[base + length - 1] = taskId;
+        }
+    }
+
+    public synchronized void remove(int userId, int taskId) {
+        int block = residentBlock(userId, false);
+        if (block == NONE) {
+            return;
+        }
+
+        int base = block * capacityPerUser;
+        int length = lengths[block];
+        int position = indexOf(base, length, taskId);
+        if (position != NONE) {
+            System.arraycopy(entries, position + 1, entries, position, base + length - position - 1);
+            lengths[block] = length - 1;
+        }
+    }
+
+    /**
+     * @return viewed task ids, oldest first
+     */
+    public synchronized int[] getHistory(int userId) {
+        int block = residentBlock(userId, false);
+        if (block == NONE) {
+            return new int[0];
+        }
+        int base = block * capacityPerUser;
+        return Arrays.copyOfRange(entries, base, base + lengths[block]);
+    }
+
+    public synchronized void removeUser(int userId) {
+        int slot = userSlots.remove(userId);
+        if (slot == IntIntHashMap.NONE) {
+            return;
+        }
+
+        long location = locations[slot];
+        int last = --knownUsers;
+        if (slot != last) {
+            slotUsers[slot] = slotUsers[last];
+            locations[slot] = locations[last];
+            userSlots.put(slotUsers[slot], slot);
+        }
+        if (location > 0) {
+            freeBlocks[freeCount++] = (int) location - 1;
+        } else {
+            deadBytes += recordSize(readLength(-location - 1));
+            spilledUsers--;
+            compactIfMostlyDead();
+        }
+    }
+
+    /**
+     * Spills the history of every resident user that has not been used since the previous call.
+     *
+     * @return the number of spilled users
+     */
+    public synchronized int evictIdleUsers() {
+        int evicted = 0;
+        for (int block = 0; block < lengths.length; block++) {
+            if (!isResident(block)) {
+                continue;
+            }
+            if (referenced[block]) {
+                referenced[block] = false;
+            } else {
+                spillBlock(block);
+                freeBlocks[freeCount++] = block;
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public synchronized int getResidentUsers() {
+        return knownUsers - spilledUsers;
+    }
+
+    public synchronized int getSpilledUsers() {
+        return spilledUsers;
+    }
+
+    /**
+     * Bytes taken in the heap: the preallocated blocks, which do not depend on the number of users, and the user
+     * table, which takes about 40 bytes per known user.
+     */
+    public synchronized long getMemoryFootprint() {
+        return (long) entries.length * Integer.BYTES
+                + (long) lengths.length * (3 * Integer.BYTES + 1)
+                + (long) userSlots.capacity() * 2 * Integer.BYTES
+                + (long) slotUsers.length * (Integer.BYTES + Long.BYTES)
+                + record.capacity();
+    }
+
+    public synchronized long getSpillFileSize() {
+        return spillEnd;
+    }
+
+    /**
+     * Deletes the spill file, spilled histories are lost.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            spill.close();
+            Files.deleteIfExists(spillPath);
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_SPILLING_HISTORY, e);
+        }
+    }
+
+    private int indexOf(int base, int length, int taskId) {
+        for (int i = base; i < base + length; i++) {
+            if (entries[i] == taskId) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Finds the block of the user, reading a spilled history back or taking a new block if needed, and marks it as
+     * used.
+     *
+     * @return the block, or {@link #NONE} if the user has no history and {@code create} is false
+     */
+    private int residentBlock(int userId, boolean create) {
+        int slot = userSlots.get(userId);
+        if (slot == IntIntHashMap.NONE && !create) {
+            return NONE;
+        }
+
+        int block;
+        if (slot != IntIntHashMap.NONE && locations[slot] > 0) {
+            block = (int) locations[slot] - 1;
+        } else if (slot != IntIntHashMap.NONE) {
+            long offset = -locations[slot] - 1;
+            block = allocateBlock();
+            readBlock(offset, block);
+            deadBytes += recordSize(lengths[block]);
+            spilledUsers--;
+            locations[slot] = block + 1;
+            compactIfMostlyDead();
+        } else {
+            block = allocateBlock();
+            lengths[block] = 0;
+            addUser(userId, block + 1);
+        }
+
+        blockUsers[block] = userId;
+        referenced[block] = true;
+        return block;
+    }
+
+    private int allocateBlock() {
+        if (freeCount > 0) {
+            return freeBlocks[--freeCount];
+        }
+
+        while (referenced[clockHand]) {
+            referenced[clockHand] = false;
+            clockHand = (clockHand + 1) % lengths.length;
+        }
+        int block = clockHand;
+        clockHand = (clockHand + 1) % lengths.length;
+        spillBlock(block);
+        return block;
+    }
+
+    private boolean isResident(int block) {
+        int slot = userSlots.get(blockUsers[block]);
+        return slot != IntIntHashMap.NONE && locations[slot] == block + 1;
+    }
+
+    private void spillBlock(int block) {
+        int length = lengths[block];
+        record.clear();
+        record.putInt(blockUsers[block]).putInt(length);
+        record.asIntBuffer().put(entries, block * capacityPerUser, length);
+        record.position(recordSize(length)).flip();
+        write(record, spillEnd);
+
+        locations[userSlots.get(blockUsers[block])] = -(spillEnd + 1);
+        spillEnd += recordSize(length);
+        spilledUsers++;
+        referenced[block] = false;
+    }
+
+    private void readBlock(long offset, int block) {
+        int length = readLength(offset);
+        record.clear().limit(recordSize(length));
+        read(record, offset);
+        record.position(RECORD_HEADER_BYTES);
+        record.asIntBuffer().get(entries, block * capacityPerUser, length);
+        lengths[block] = length;
+    }
+
+    private int readLength(long offset) {
+        record.clear().limit(RECORD_HEADER_BYTES);
+        read(record, offset);
+        return record.getInt(Integer.BYTES);
+    }
+
+    /**
+     * Rewrites the live records to a new file once dead ones take more than half of it.
+     */
+    private void compactIfMostlyDead() {
+        if (deadBytes < MIN_COMPACTION_BYTES || deadBytes * 2 < spillEnd) {
+            return;
+        }
+
+        Path compactedPath = spillPath.resolveSibling(spillPath.getFileName() + COMPACTION_EXTENSION);
+        try (FileChannel compacted = FileChannel.open(compactedPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long compactedEnd = 0;
+            for (int slot = 0; slot < knownUsers; slot++) {
+                if (locations[slot] < 0) {
+                    long offset = -locations[slot] - 1;
+                    int size = recordSize(readLength(offset));
+                    record.clear().limit(size);
+                    read(record, offset);
+                    record.flip();
+                    while (record.hasRemaining()) {
+                        compacted.write(record, compactedEnd + record.position());
+                    }
+                    locations[slot] = -(compactedEnd + 1);
+                    compactedEnd += size;
+                }
+            }
+
+            spill.close();
+            Files.move(compactedPath, spillPath, StandardCopyOption.REPLACE_EXISTING);
+            spill = FileChannel.open(spillPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            spillEnd = compactedEnd;
+            deadBytes = 0;
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_SPILLING_HISTORY, e);
+        }
+    }
+
+    private void write(ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                spill.write(buffer, position + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_SPILLING_HISTORY, e);
+        }
+    }
+
+    private void read(ByteBuffer buffer, long position) {
+        try {
+            while (buffer.hasRemaining()) {
+                if (spill.read(buffer, position + buffer.position()) < 0) {
+                    throw new ManagerSaveException(ERROR_SPILLING_HISTORY);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_SPILLING_HISTORY, e);
+        }
+    }
+
+    private static int recordSize(int length) {
+        return RECORD_HEADER_BYTES + length * Integer.BYTES;
+    }
+
+    private void addUser(int userId, long location) {
+        if (knownUsers == slotUsers.length) {
+            slotUsers = Arrays.copyOf(slotUsers, knownUsers * 2);
+            locations = Arrays.copyOf(locations, knownUsers * 2);
+        }
+        slotUsers[knownUsers] = userId;
+        locations[knownUsers] = location;
+        userSlots.put(userId, knownUsers++);
+    }
+}
@@ -7,110 +7,172 @@ import project.model.Subtask;
 import project.model.Task;
 import project.util.AbstractTaskBuilder;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.function.Supplier;
 
 public class AbstractTaskSerializer {
 
-    private static final int ID_INDEX = 0;
-    private static final int TASK_TYPE = 1;
-    private static final int NAME_INDEX = 2;
-    private static final int DESCRIPTION_INDEX = 3;
-    private static final int STATUS_INDEX = 4;
-    private static final int ADDITIONAL_INFO = 5;
+    private static final int TASK_TYPE = 0;
+    private static final int EPIC_TYPE = 1;
+    private static final int SUBTASK_TYPE = 2;
 
-    private static final String FIELD_DELIMITER = ",";
+    private static final char FIELD_DELIMITER = ',';
+    private static final char QUOTE = '"';
+    private static final String NULL_FIELD = "null";
 
-    private static final Map<String, Function<String[], AbstractTask>> mapper;
+    private static final String[] typeNames = {
+            Task.class.getSimpleName(),
+            Epic.class.getSimpleName(),
+            Subtask.class.getSimpleName()
+    };
+    private static final Status[] statuses = Status.values();
+    private static final String[] statusNames = Arrays.stream(statuses)
+            .map(Status::name)
+            .toArray(String[]::new);
 
-
-    static {
-        mapper = new HashMap<>();
-
-        mapper.put(Epic.class.getSimpleName(), (array -> {
-            List<Integer> subtaskId = extractSubtaskId(array);
-            Epic.Builder builder = getTaskBuilder(array, Epic.Builder::new);
-            return builder.setSubtaskIds(subtaskId)
-                    .build();
-        }));
-
-        mapper.put(Task.class.getSimpleName(), (array -> {
-            Task.Builder builder = getTaskBuilder(array, Task.Builder::new);
-            return builder.build();
-        }));
-
-        mapper.put(Subtask.class.getSimpleName(), (array -> {
-            Subtask.Builder builder = getTaskBuilder(array, Subtask.Builder::new);
-            int epicId = Integer.parseInt(array[ADDITIONAL_INFO]);
-            return builder.setEpicId(epicId)
-                    .build();
-
-        }));
-    }
+    private static final ThreadLocal<CsvTokenizer> tokenizers = ThreadLocal.withInitial(CsvTokenizer::new);
 
     private AbstractTaskSerializer() {
     }
 
     public static AbstractTask deserialize(String serialized) {
-        String[] split = serialized.split(FIELD_DELIMITER);
-        Function<String[], AbstractTask> taskFactory = mapper.get(split[TASK_TYPE]);
+        return deserialize(serialized, 0, serialized.length());
+    }
 
-        if (taskFactory == null) {
-            throw new IllegalArgumentException("Unknown task type: " + split[TASK_TYPE]);
+    /**
+     * Deserializes the record occupying {@code [from, to)} of {@code serialized}.
+     */
+    public static AbstractTask deserialize(CharSequence serialized, int from, int to) {
+        CsvTokenizer tokenizer = tokenizers.get().reset(serialized, from, to);
+
+        int id = tokenizer.nextInt();
+        int type = tokenizer.nextToken(typeNames, false);
+        if (type < 0) {
+            throw new IllegalArgumentException("Unknown task type in record: " + tokenizer.record());
         }
-        return taskFactory.apply(split);
+
+        return switch (type) {
+            case TASK_TYPE -> readBasicFields(tokenizer, new Task.Builder(), id).build();
+            case SUBTASK_TYPE -> {
+                Subtask.Builder builder = readBasicFields(tokenizer, new Subtask.Builder(), id);
+                yield builder.setEpicId(tokenizer.nextInt())
+                        .build();
+            }
+            case EPIC_TYPE -> {
+                Epic.Builder builder = readBasicFields(tokenizer, new Epic.Builder(), id);
+                List<Integer> subtaskIds = new ArrayList<>();
+                while (tokenizer.hasNext()) {
+                    subtaskIds.add(tokenizer.nextInt());
+                }
+                yield builder.setSubtaskIds(subtaskIds)
+                        .build();
+            }
+            default -> throw new IllegalStateException("Unexpected type index: " + type);
+        };
     }
 
     public static String serialize(AbstractTask task) {
-        List<String> fields = extractBasicFields(task);
+        StringBuilder builder = new StringBuilder(64);
+        try {
+            serialize(task, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Appends the record field by field, without the line delimiter.
+     */
+    public static void serialize(AbstractTask task, Appendable out) throws IOException {
+        appendInt(out, task.getId());
+        out.append(FIELD_DELIMITER);
+        out.append(task.getClass().getSimpleName());
+        out.append(FIELD_DELIMITER);
+        appendQuoted(out, task.getName());
+        out.append(FIELD_DELIMITER);
+        appendQuoted(out, task.getDescription());
+        out.append(FIELD_DELIMITER);
+        out.append(task.getStatus().name());
 
         if (task instanceof Epic epic) {
-            fields.addAll(epic.getSubtaskIds().stream()
-                    .map(String::valueOf)
-                    .toList());
+            for (int subtaskId : epic.getSubtaskIds()) {
+                out.append(FIELD_DELIMITER);
+                appendInt(out, subtaskId);
+            }
         } else if (task instanceof Subtask subtask) {
-            fields.add(String.valueOf(subtask.getEpicId()));
+            out.append(FIELD_DELIMITER);
+            appendInt(out, subtask.getEpicId());
         }
-
-        return String.join(FIELD_DELIMITER, fields);
     }
 
 
-    public static <T extends AbstractTask, B extends AbstractTaskBuilder<T, B>> B getTaskBuilder(
-            String[] array,
-            Supplier<B> builderSupplier
+    private static <T extends AbstractTask, B extends AbstractTaskBuilder<T, B>> B readBasicFields(
+            CsvTokenizer tokenizer,
+            B builder,
+            int id
     ) {
-        return builderSupplier.get()
-                .setId(Integer.parseInt(array[ID_INDEX]))
-                .setName(array[NAME_INDEX])
-                .setDescription(array[DESCRIPTION_INDEX])
-                .setStatus(Status.valueOf(array[STATUS_INDEX].toUpperCase()));
-    }
-
+        builder.setId(id)
+                .setName(tokenizer.nextString())
+                .setDescription(tokenizer.nextString());
 
-    private static List<Integer> extractSubtaskId(String[] array) {
-        List<Integer> subtasksId = new ArrayList<>();
-        for (int i = ADDITIONAL_INFO; i < array.length; i++) {
-            subtasksId.add(Integer.parseInt(array[i]));
+        int status = tokenizer.nextToken(statusNames, true);
+        if (status < 0) {
+            throw new IllegalArgumentException("Unknown status in record: " + tokenizer.record());
         }
-        return subtasksId;
+        return builder.setStatus(statuses[status]);
     }
 
+    /**
+     * Quotes a field containing a delimiter or a quote, doubling the quotes inside. Line breaks are rejected, every
+     * reader takes one record per line.
+     */
+    private static void appendQuoted(Appendable out, String field) throws IOException {
+        if (field == null) {
+            out.append(NULL_FIELD);
+            return;
+        }
 
-    private static List<String> extractBasicFields(AbstractTask task) {
-        List<String> fields = new ArrayList<>();
-
-        fields.add(ID_INDEX, String.valueOf(task.getId()));
-        fields.add(TASK_TYPE, task.getClass().getSimpleName());
-        fields.add(NAME_INDEX, task.getName());
-        fields.add(DESCRIPTION_INDEX, task.getDescription());
-        fields.add(STATUS_INDEX, task.getStatus().toString());
+        boolean needsQuotes = false;
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == '\n' || c == '\r') {
+                throw new IllegalArgumentException("Line break in field: " + field);
+            }
+            needsQuotes |= c == FIELD_DELIMITER || c == QUOTE;
+        }
+        if (!needsQuotes) {
+            out.append(field);
+            return;
+        }
 
-        return fields;
+        out.append(QUOTE);
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == QUOTE) {
+                out.append(QUOTE);
+            }
+            out.append(c);
+        }
+        out.append(QUOTE);
     }
 
+    static void appendInt(Appendable out, int value) throws IOException {
+        long remaining = value;
+        if (remaining < 0) {
+            out.append('-');
+            remaining = -remaining;
+        }
+
+        long divisor = 1;
+        while (divisor * 10 <= remaining) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + remaining / divisor % 10));
+        }
+    }
 }
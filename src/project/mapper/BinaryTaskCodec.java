@@ -0,0 +1,35 @@
+package project.mapper;
+
+import project.model.AbstractTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+/**
+ * See {@link BinaryTaskSerializer}.
+ */
+public class BinaryTaskCodec implements TaskCodec {
+    public static final String NAME = "binary";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean canRead(byte[] header, int length) {
+        return BinaryTaskSerializer.hasMagic(header, length);
+    }
+
+    @Override
+    public void write(OutputStream out, Iterable<? extends AbstractTask> tasks) throws IOException {
+        BinaryTaskSerializer.write(out, tasks);
+    }
+
+    @Override
+    public void read(InputStream in, Consumer<? super AbstractTask> consumer) throws IOException {
+        BinaryTaskSerializer.read(in, consumer);
+    }
+}
@@ -0,0 +1,308 @@
+package project.mapper;
+
+import project.enums.Status;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.AbstractTaskBuilder;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static project.exception.TaskExceptionMessage.MALFORMED_SNAPSHOT;
+import static project.exception.TaskExceptionMessage.UNSUPPORTED_SNAPSHOT_VERSION;
+
+/**
+ * Compact binary snapshot format.
+ * <pre>
+ * file   := MAGIC VERSION record* END
+ * record := tag id name description payload
+ * tag    := one byte, task type in the high bits and status ordinal in the low two bits
+ * id     := unsigned varint
+ * string := unsigned varint (byte length + 1, 0 for null) followed by UTF-8 bytes
+ * payload:= nothing for Task, epic id for Subtask,
+ *           count and zigzag varint deltas between consecutive subtask ids for Epic
+ * </pre>
+ */
+public class BinaryTaskSerializer {
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'K', 'N', 'B', 'N'};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int TASK_TAG = 0;
+    private static final int EPIC_TAG = 1;
+    private static final int SUBTASK_TAG = 2;
+    private static final int STATUS_BITS = 2;
+    private static final int STATUS_MASK = (1 << STATUS_BITS) - 1;
+    private static final int END_TAG = 0xFF;
+
+    private static final Status[] statuses = Status.values();
+
+    private BinaryTaskSerializer() {
+    }
+
+    public static int headerLength() {
+        return MAGIC.length + 1;
+    }
+
+    public static boolean hasMagic(byte[] header, int length) {
+        return length >= MAGIC.length && Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    public static void write(OutputStream out, Iterable<? extends AbstractTask> tasks) throws IOException {
+        Encoder encoder = new Encoder(out);
+        encoder.writeBytes(MAGIC, MAGIC.length);
+        encoder.writeByte(VERSION);
+
+        for (AbstractTask task : tasks) {
+            writeTask(encoder, task);
+        }
+
+        encoder.writeByte(END_TAG);
+        encoder.flush();
+    }
+
+    public static List<AbstractTask> read(InputStream in) throws IOException {
+        List<AbstractTask> tasks = new ArrayList<>();
+        read(in, tasks::add);
+        return tasks;
+    }
+
+    public static void read(InputStream in, Consumer<? super AbstractTask> consumer) throws IOException {
+        Decoder decoder = new Decoder(in);
+
+        byte[] header = decoder.readBytes(MAGIC.length);
+        if (!hasMagic(header, header.length)) {
+            throw new IOException(MALFORMED_SNAPSHOT);
+        }
+        int version = decoder.readByte();
+        if (version != VERSION) {
+            throw new IOException(UNSUPPORTED_SNAPSHOT_VERSION + version);
+        }
+
+        int tag = decoder.readByte();
+        while (tag != END_TAG) {
+            consumer.accept(readTask(decoder, tag));
+            tag = decoder.readByte();
+        }
+    }
+
+    private static void writeTask(Encoder encoder, AbstractTask task) throws IOException {
+        int type = switch (task) {
+            case Epic ignored -> EPIC_TAG;
+            case Subtask ignored -> SUBTASK_TAG;
+            case Task ignored -> TASK_TAG;
+            default -> throw new IllegalArgumentException("Unknown task type: " + task.getClass());
+        };
+
+        encoder.writeByte(type << STATUS_BITS | task.getStatus().ordinal());
+        encoder.writeVarInt(task.getId());
+        encoder.writeString(task.getName());
+        encoder.writeString(task.getDescription());
+
+        if (task instanceof Epic epic) {
+            List<Integer> subtaskIds = epic.getSubtaskIds();
+            encoder.writeVarInt(subtaskIds.size());
+
+            int previous = 0;
+            for (int subtaskId : subtaskIds) {
+                encoder.writeVarInt(zigZag(subtaskId - previous));
+                previous = subtaskId;
+            }
+        } else if (task instanceof Subtask subtask) {
+            encoder.writeVarInt(subtask.getEpicId());
+        }
+    }
+
+    private static AbstractTask readTask(Decoder decoder, int tag) throws IOException {
+        int type = tag >>> STATUS_BITS;
+        int statusOrdinal = tag & STATUS_MASK;
+        if (statusOrdinal >= statuses.length) {
+            throw new IOException(MALFORMED_SNAPSHOT);
+        }
+
+        return switch (type) {
+            case TASK_TAG -> readBasicFields(decoder, new Task.Builder(), statusOrdinal).build();
+            case SUBTASK_TAG -> {
+                Subtask.Builder builder = readBasicFields(decoder, new Subtask.Builder(), statusOrdinal);
+                yield builder.setEpicId(decoder.readVarInt())
+                        .build();
+            }
+            case EPIC_TAG -> {
+                Epic.Builder builder = readBasicFields(decoder, new Epic.Builder(), statusOrdinal);
+                int count = decoder.readVarInt();
+                List<Integer> subtaskIds = new ArrayList<>(count);
+
+                int previous = 0;
+                for (int i = 0; i < count; i++) {
+                    previous += unZigZag(decoder.readVarInt());
+                    subtaskIds.add(previous);
+                }
+                yield builder.setSubtaskIds(subtaskIds)
+                        .build();
+            }
+            default -> throw new IOException(MALFORMED_SNAPSHOT);
+        };
+    }
+
+    private static <T extends AbstractTask, B extends AbstractTaskBuilder<T, B>> B readBasicFields(
+            Decoder decoder,
+            B builder,
+            int statusOrdinal
+    ) throws IOException {
+        return builder.setId(decoder.readVarInt())
+                .setName(decoder.readString())
+                .setDescription(decoder.readString())
+                .setStatus(statuses[statusOrdinal]);
+    }
+
+    private static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static class Encoder {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        Encoder(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeByte(int value) throws IOException {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeVarInt(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarInt(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length + 1);
+            writeBytes(bytes, bytes.length);
+        }
+
+        void writeBytes(byte[] bytes, int length) throws IOException {
+            if (length > buffer.length - position) {
+                flushBuffer();
+                if (length > buffer.length) {
+                    out.write(bytes, 0, length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, length);
+            position += length;
+        }
+
+        void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private static class Decoder {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private byte[] stringBuffer = new byte[256];
+        private int position;
+        private int limit;
+
+        Decoder(InputStream in) {
+            this.in = in;
+        }
+
+        int readByte() throws IOException {
+            if (position == limit) {
+                fill();
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        int readVarInt() throws IOException {
+            int result = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IOException(MALFORMED_SNAPSHOT);
+        }
+
+        String readString() throws IOException {
+            int length = readVarInt() - 1;
+            if (length < 0) {
+                return null;
+            }
+            if (length <= limit - position) {
+                String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+                return value;
+            }
+            if (stringBuffer.length < length) {
+                stringBuffer = new byte[Math.max(length, stringBuffer.length * 2)];
+            }
+            readInto(stringBuffer, length);
+            return new String(stringBuffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        byte[] readBytes(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            readInto(bytes, length);
+            return bytes;
+        }
+
+        private void readInto(byte[] target, int length) throws IOException {
+            int copied = 0;
+            while (copied < length) {
+                if (position == limit) {
+                    fill();
+                }
+                int chunk = Math.min(length - copied, limit - position);
+                System.arraycopy(buffer, position, target, copied, chunk);
+                position += chunk;
+                copied += chunk;
+            }
+        }
+
+        private void fill() throws IOException {
+            int read = in.read(buffer, 0, buffer.length);
+            if (read <= 0) {
+                throw new EOFException(MALFORMED_SNAPSHOT);
+            }
+            position = 0;
+            limit = read;
+        }
+    }
+}
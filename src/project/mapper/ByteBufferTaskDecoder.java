@@ -0,0 +1,242 @@
+package project.mapper;
+
+import project.enums.Status;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes CSV records produced by {@link AbstractTaskSerializer} straight from a byte buffer.
+ * <p>
+ * Fields are located by scanning for delimiters with absolute reads, quoting follows the same rules as in
+ * {@link CsvTokenizer}. Ids are parsed from the bytes in place and the type and status tokens are matched byte by
+ * byte, so the only objects made per record are the name, the description and the entity itself. Not thread-safe,
+ * every thread needs its own decoder.
+ */
+public class ByteBufferTaskDecoder {
+    private static final byte FIELD_DELIMITER = ',';
+    private static final byte LINE_DELIMITER = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+    private static final byte QUOTE = '"';
+
+    private static final byte[] TASK = Task.class.getSimpleName().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] EPIC = Epic.class.getSimpleName().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUBTASK = Subtask.class.getSimpleName().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEW = Status.NEW.name().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] IN_PROGRESS = Status.IN_PROGRESS.name().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DONE = Status.DONE.name().getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] scratch = new byte[256];
+
+    /**
+     * @return index of the first line delimiter at or after {@code from}, or {@code limit} if there is none
+     */
+    public static int findLineEnd(ByteBuffer buffer, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == LINE_DELIMITER) {
+                return i;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * @return end of the record starting at {@code from} without the trailing {@code \r}
+     */
+    public static int trimLineEnd(ByteBuffer buffer, int from, int lineEnd) {
+        return lineEnd > from && buffer.get(lineEnd - 1) == CARRIAGE_RETURN ? lineEnd - 1 : lineEnd;
+    }
+
+    /**
+     * Decodes the record occupying {@code [from, to)}, without the line delimiter.
+     */
+    public AbstractTask decode(ByteBuffer buffer, int from, int to) {
+        int idEnd = fieldEnd(buffer, from, to);
+        int typeEnd = fieldEnd(buffer, idEnd + 1, to);
+        int nameEnd = fieldEnd(buffer, typeEnd + 1, to);
+        int descriptionEnd = fieldEnd(buffer, nameEnd + 1, to);
+        int statusEnd = fieldEnd(buffer, descriptionEnd + 1, to);
+
+        if (descriptionEnd >= to) {
+            throw malformed(buffer, from, to);
+        }
+
+        int id = parseInt(buffer, from, idEnd);
+        String name = decodeString(buffer, typeEnd + 1, nameEnd);
+        String description = decodeString(buffer, nameEnd + 1, descriptionEnd);
+        Status status = parseStatus(buffer, descriptionEnd + 1, statusEnd);
+        int typeStart = idEnd + 1;
+
+        if (matches(buffer, typeStart, typeEnd, TASK, false)) {
+            return new Task.Builder()
+                    .setId(id)
+                    .setName(name)
+                    .setDescription(description)
+                    .setStatus(status)
+                    .build();
+        }
+
+        if (matches(buffer, typeStart, typeEnd, SUBTASK, false)) {
+            if (statusEnd >= to) {
+                throw malformed(buffer, from, to);
+            }
+            return new Subtask.Builder()
+                    .setId(id)
+                    .setName(name)
+                    .setDescription(description)
+                    .setStatus(status)
+                    .setEpicId(parseInt(buffer, statusEnd + 1, fieldEnd(buffer, statusEnd + 1, to)))
+                    .build();
+        }
+
+        if (matches(buffer, typeStart, typeEnd, EPIC, false)) {
+            List<Integer> subtaskIds = new ArrayList<>();
+            int fieldStart = statusEnd + 1;
+            while (fieldStart < to) {
+                int fieldEnd = fieldEnd(buffer, fieldStart, to);
+                subtaskIds.add(parseInt(buffer, fieldStart, fieldEnd));
+                fieldStart = fieldEnd + 1;
+            }
+            return new Epic.Builder()
+                    .setId(id)
+                    .setName(name)
+                    .setDescription(description)
+                    .setStatus(status)
+                    .setSubtaskIds(subtaskIds)
+                    .build();
+        }
+
+        throw new IllegalArgumentException("Unknown task type: " + decodeString(buffer, typeStart, typeEnd));
+    }
+
+    /**
+     * @return index of the delimiter ending the field that starts at {@code from}, or {@code to} for the last field.
+     * A quoted field ends after its closing quote.
+     */
+    private static int fieldEnd(ByteBuffer buffer, int from, int to) {
+        if (from < to && buffer.get(from) == QUOTE) {
+            for (int i = from + 1; i < to; i++) {
+                if (buffer.get(i) != QUOTE) {
+                    continue;
+                }
+                if (i + 1 < to && buffer.get(i + 1) == QUOTE) {
+                    i++;
+                    continue;
+                }
+                if (i + 1 < to && buffer.get(i + 1) != FIELD_DELIMITER) {
+                    throw new IllegalArgumentException("Unexpected character after quoted field at offset " + i);
+                }
+                return i + 1;
+            }
+            throw new IllegalArgumentException("Unterminated quoted field at offset " + from);
+        }
+
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == FIELD_DELIMITER) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static int parseInt(ByteBuffer buffer, int from, int to) {
+        if (from >= to) {
+            throw new NumberFormatException("Empty number");
+        }
+
+        boolean negative = buffer.get(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) {
+            throw new NumberFormatException("Sign without digits");
+        }
+
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Unexpected character in number at offset " + i);
+            }
+            result = result * 10 + digit;
+            if (result > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Number is out of int range at offset " + from);
+            }
+        }
+
+        result = negative ? -result : result;
+        if (result > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number is out of int range at offset " + from);
+        }
+        return (int) result;
+    }
+
+    private static Status parseStatus(ByteBuffer buffer, int from, int to) {
+        switch (to - from) {
+            case 3 -> {
+                if (matches(buffer, from, to, NEW, true)) {
+                    return Status.NEW;
+                }
+            }
+            case 4 -> {
+                if (matches(buffer, from, to, DONE, true)) {
+                    return Status.DONE;
+                }
+            }
+            case 11 -> {
+                if (matches(buffer, from, to, IN_PROGRESS, true)) {
+                    return Status.IN_PROGRESS;
+                }
+            }
+            default -> {
+            }
+        }
+        throw new IllegalArgumentException("Unknown status at offset " + from);
+    }
+
+    private static boolean matches(ByteBuffer buffer, int from, int to, byte[] token, boolean ignoreCase) {
+        if (to - from != token.length) {
+            return false;
+        }
+        for (int i = 0; i < token.length; i++) {
+            byte b = buffer.get(from + i);
+            if (ignoreCase && b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != token[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String decodeString(ByteBuffer buffer, int from, int to) {
+        int length = to - from;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+
+        if (length < 2 || buffer.get(from) != QUOTE) {
+            buffer.get(from, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int unquotedLength = 0;
+        for (int i = from + 1; i < to - 1; i++) {
+            byte b = buffer.get(i);
+            scratch[unquotedLength++] = b;
+            if (b == QUOTE) {
+                i++;
+            }
+        }
+        return new String(scratch, 0, unquotedLength, StandardCharsets.UTF_8);
+    }
+
+    private IllegalArgumentException malformed(ByteBuffer buffer, int from, int to) {
+        return new IllegalArgumentException("Malformed task record: " + decodeString(buffer, from, to));
+    }
+}
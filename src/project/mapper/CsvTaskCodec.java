@@ -0,0 +1,102 @@
+package project.mapper;
+
+import project.exception.ManagerSaveException;
+import project.model.AbstractTask;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import static project.exception.TaskExceptionMessage.FILE_SHOULD_START_WITH;
+
+/**
+ * The original format: a header line and one {@link AbstractTaskSerializer} record per line. Reading stops at the
+ * first empty line.
+ */
+public class CsvTaskCodec implements TaskCodec {
+    public static final String NAME = "csv";
+    public static final String HEADER = "id,type,name,status,description,additional";
+
+    private static final byte[] headerBytes = HEADER.getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * Accepts the header line the reader accepts: the exact header, with only whitespace around it.
+     */
+    @Override
+    public boolean canRead(byte[] header, int length) {
+        int start = 0;
+        while (start < length && isBlank(header[start])) {
+            start++;
+        }
+        if (length - start < headerBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < headerBytes.length; i++) {
+            if (header[start + i] != headerBytes[i]) {
+                return false;
+            }
+        }
+        int end = start + headerBytes.length;
+        return end == length || isBlank(header[end]);
+    }
+
+    @Override
+    public void write(OutputStream out, Iterable<? extends AbstractTask> tasks) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER);
+
+        for (AbstractTask task : tasks) {
+            writer.newLine();
+            AbstractTaskSerializer.serialize(task, writer);
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void read(InputStream in, Consumer<? super AbstractTask> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line = reader.readLine();
+
+        if (line == null || !line.trim().equals(HEADER)) {
+            throw new ManagerSaveException(FILE_SHOULD_START_WITH + HEADER);
+        }
+
+        line = reader.readLine();
+        while (line != null && !line.isEmpty()) {
+            consumer.accept(AbstractTaskSerializer.deserialize(line));
+            line = reader.readLine();
+        }
+    }
+
+    /**
+     * The same header check as {@link #read}, for loaders that decode the file in mapped memory.
+     *
+     * @return offset of the first record
+     */
+    public static int readHeader(ByteBuffer buffer, int limit) {
+        int lineEnd = ByteBufferTaskDecoder.findLineEnd(buffer, 0, limit);
+        byte[] header = new byte[lineEnd];
+        buffer.get(0, header, 0, lineEnd);
+
+        if (!new String(header, StandardCharsets.UTF_8).trim().equals(HEADER)) {
+            throw new ManagerSaveException(FILE_SHOULD_START_WITH + HEADER);
+        }
+        return Math.min(lineEnd + 1, limit);
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+    }
+}
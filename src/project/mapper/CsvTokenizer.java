@@ -0,0 +1,164 @@
+package project.mapper;
+
+/**
+ * Reads the fields of one CSV record from a {@link CharSequence} without splitting it.
+ * <p>
+ * Fields may be quoted the RFC 4180 way: a quoted field can contain delimiters, and a quote inside it is written
+ * twice. Numbers are parsed and tokens are matched in place, strings are the only objects made per field.
+ * Line breaks are not supported inside fields, records are read line by line. Not thread-safe.
+ */
+public class CsvTokenizer {
+    private static final char FIELD_DELIMITER = ',';
+    private static final char QUOTE = '"';
+
+    private final StringBuilder unquoted = new StringBuilder();
+    private CharSequence input;
+    private int position;
+    private int limit;
+    private int fieldStart;
+    private int fieldEnd;
+    private boolean fieldQuoted;
+
+    public CsvTokenizer reset(CharSequence input) {
+        return reset(input, 0, input.length());
+    }
+
+    /**
+     * Starts reading the record occupying {@code [from, to)} of {@code input}.
+     */
+    public CsvTokenizer reset(CharSequence input, int from, int to) {
+        this.input = input;
+        this.position = from;
+        this.limit = to;
+        return this;
+    }
+
+    public boolean hasNext() {
+        return position <= limit && input != null;
+    }
+
+    public String nextString() {
+        advance();
+        if (!fieldQuoted) {
+            return input.subSequence(fieldStart, fieldEnd).toString();
+        }
+
+        unquoted.setLength(0);
+        for (int i = fieldStart; i < fieldEnd; i++) {
+            char c = input.charAt(i);
+            unquoted.append(c);
+            if (c == QUOTE) {
+                i++;
+            }
+        }
+        return unquoted.toString();
+    }
+
+    public int nextInt() {
+        advance();
+        int from = fieldStart;
+        int to = fieldEnd;
+        if (from >= to) {
+            throw new NumberFormatException("Empty number at offset " + from);
+        }
+
+        boolean negative = input.charAt(from) == '-';
+        int i = negative ? from + 1 : from;
+        if (i == to) {
+            throw new NumberFormatException("Sign without digits at offset " + from);
+        }
+
+        long result = 0;
+        for (; i < to; i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("Unexpected character in number at offset " + i);
+            }
+            result = result * 10 + digit;
+            if (result > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException("Number is out of int range at offset " + from);
+            }
+        }
+
+        result = negative ? -result : result;
+        if (result > Integer.MAX_VALUE) {
+            throw new NumberFormatException("Number is out of int range at offset " + from);
+        }
+        return (int) result;
+    }
+
+    /**
+     * @return index of the token equal to the next field, or -1 if there is none
+     */
+    public int nextToken(String[] tokens, boolean ignoreCase) {
+        advance();
+        int length = fieldEnd - fieldStart;
+
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (token.length() == length && matches(token, ignoreCase)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Text of the current record, for error messages.
+     */
+    public String record() {
+        return input == null ? "" : input.toString();
+    }
+
+    private boolean matches(String token, boolean ignoreCase) {
+        for (int i = 0; i < token.length(); i++) {
+            char c = input.charAt(fieldStart + i);
+            char expected = token.charAt(i);
+            if (c != expected && !(ignoreCase && Character.toUpperCase(c) == Character.toUpperCase(expected))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void advance() {
+        if (!hasNext()) {
+            throw new IllegalArgumentException("Missing field in record: " + record());
+        }
+
+        if (position < limit && input.charAt(position) == QUOTE) {
+            fieldQuoted = true;
+            fieldStart = position + 1;
+            int i = fieldStart;
+            while (true) {
+                if (i >= limit) {
+                    throw new IllegalArgumentException("Unterminated quoted field in record: " + record());
+                }
+                if (input.charAt(i) == QUOTE) {
+                    if (i + 1 < limit && input.charAt(i + 1) == QUOTE) {
+                        i += 2;
+                        continue;
+                    }
+                    break;
+                }
+                i++;
+            }
+            fieldEnd = i;
+            int next = i + 1;
+            if (next < limit && input.charAt(next) != FIELD_DELIMITER) {
+                throw new IllegalArgumentException("Unexpected character after quoted field in record: " + record());
+            }
+            position = next + 1;
+            return;
+        }
+
+        fieldQuoted = false;
+        fieldStart = position;
+        int i = position;
+        while (i < limit && input.charAt(i) != FIELD_DELIMITER) {
+            i++;
+        }
+        fieldEnd = i;
+        position = i + 1;
+    }
+}
@@ -0,0 +1,70 @@
+package project.mapper;
+
+import project.enums.JournalOperation;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.JournalEntry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+public class JournalEntrySerializer {
+
+    private static final String FIELD_DELIMITER = ",";
+
+    private static final Map<String, Class<? extends AbstractTask>> types = Map.of(
+            Task.class.getSimpleName(), Task.class,
+            Epic.class.getSimpleName(), Epic.class,
+            Subtask.class.getSimpleName(), Subtask.class
+    );
+
+    private JournalEntrySerializer() {
+    }
+
+    public static String serialize(JournalEntry entry) {
+        StringBuilder builder = new StringBuilder(64);
+        try {
+            serialize(entry, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    public static void serialize(JournalEntry entry, Appendable out) throws IOException {
+        out.append(entry.getOperation().name());
+        out.append(FIELD_DELIMITER);
+
+        switch (entry.getOperation()) {
+            case PUT -> AbstractTaskSerializer.serialize(entry.getTask(), out);
+            case DELETE -> AbstractTaskSerializer.appendInt(out, entry.getId());
+            case CLEAR -> out.append(entry.getType().getSimpleName());
+        }
+    }
+
+    public static JournalEntry deserialize(String serialized) {
+        int delimiter = serialized.indexOf(FIELD_DELIMITER);
+        if (delimiter < 0) {
+            throw new IllegalArgumentException("Malformed journal entry: " + serialized);
+        }
+
+        JournalOperation operation = JournalOperation.valueOf(serialized.substring(0, delimiter));
+
+        return switch (operation) {
+            case PUT -> JournalEntry.put(AbstractTaskSerializer.deserialize(serialized, delimiter + 1,
+                    serialized.length()));
+            case DELETE -> JournalEntry.delete(Integer.parseInt(serialized, delimiter + 1, serialized.length(), 10));
+            case CLEAR -> {
+                String payload = serialized.substring(delimiter + 1);
+                Class<? extends AbstractTask> type = types.get(payload);
+                if (type == null) {
+                    throw new IllegalArgumentException("Unknown task type: " + payload);
+                }
+                yield JournalEntry.clear(type);
+            }
+        };
+    }
+}
@@ -0,0 +1,327 @@
+package project.mapper;
+
+import project.enums.Status;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One JSON object per line, e.g.
+ * <pre>
+ * {"id":2,"type":"Epic","name":"epic","description":"text","status":"NEW","subtaskIds":[3]}
+ * {"id":3,"type":"Subtask","name":"subtask","description":"text","status":"NEW","epicId":2}
+ * </pre>
+ * Keys may come in any order and unknown keys with plain values are skipped. Blank lines are ignored.
+ */
+public class JsonLinesTaskCodec implements TaskCodec {
+    public static final String NAME = "jsonl";
+
+    private static final String ID = "id";
+    private static final String TYPE = "type";
+    private static final String NAME_KEY = "name";
+    private static final String DESCRIPTION = "description";
+    private static final String STATUS = "status";
+    private static final String EPIC_ID = "epicId";
+    private static final String SUBTASK_IDS = "subtaskIds";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean canRead(byte[] header, int length) {
+        for (int i = 0; i < length; i++) {
+            if (!Character.isWhitespace(header[i])) {
+                return header[i] == '{';
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void write(OutputStream out, Iterable<? extends AbstractTask> tasks) throws IOException {
+        BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        for (AbstractTask task : tasks) {
+            writer.write("{\"" + ID + "\":");
+            writer.write(Integer.toString(task.getId()));
+            writer.write(",\"" + TYPE + "\":\"");
+            writer.write(task.getClass().getSimpleName());
+            writer.write("\",\"" + NAME_KEY + "\":");
+            writeString(writer, task.getName());
+            writer.write(",\"" + DESCRIPTION + "\":");
+            writeString(writer, task.getDescription());
+            writer.write(",\"" + STATUS + "\":\"");
+            writer.write(task.getStatus().name());
+            writer.write('"');
+
+            if (task instanceof Epic epic) {
+                writer.write(",\"" + SUBTASK_IDS + "\":[");
+                List<Integer> subtaskIds = epic.getSubtaskIds();
+                for (int i = 0; i < subtaskIds.size(); i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(Integer.toString(subtaskIds.get(i)));
+                }
+                writer.write(']');
+            } else if (task instanceof Subtask subtask) {
+                writer.write(",\"" + EPIC_ID + "\":");
+                writer.write(Integer.toString(subtask.getEpicId()));
+            }
+
+            writer.write('}');
+            writer.newLine();
+        }
+        writer.flush();
+    }
+
+    @Override
+    public void read(InputStream in, Consumer<? super AbstractTask> consumer) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        LineParser parser = new LineParser();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!line.isBlank()) {
+                consumer.accept(parser.parse(line));
+            }
+        }
+    }
+
+    private static void writeString(Writer writer, String value) throws IOException {
+        if (value == null) {
+            writer.write("null");
+            return;
+        }
+
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static class LineParser {
+        private final StringBuilder text = new StringBuilder();
+        private String line;
+        private int position;
+
+        AbstractTask parse(String line) {
+            this.line = line;
+            this.position = 0;
+
+            Integer id = null;
+            String type = null;
+            String name = null;
+            String description = null;
+            String status = null;
+            Integer epicId = null;
+            List<Integer> subtaskIds = null;
+
+            expect('{');
+            if (!tryConsume('}')) {
+                do {
+                    String key = readString();
+                    expect(':');
+                    switch (key) {
+                        case ID -> id = readInt();
+                        case TYPE -> type = readString();
+                        case NAME_KEY -> name = readNullableString();
+                        case DESCRIPTION -> description = readNullableString();
+                        case STATUS -> status = readString();
+                        case EPIC_ID -> epicId = readInt();
+                        case SUBTASK_IDS -> subtaskIds = readIntArray();
+                        default -> skipValue();
+                    }
+                } while (tryConsume(','));
+                expect('}');
+            }
+            skipWhitespace();
+            if (position != line.length() || id == null || type == null || status == null) {
+                throw malformed();
+            }
+
+            Status parsedStatus = Status.valueOf(status);
+            if (type.equals(Task.class.getSimpleName())) {
+                return new Task.Builder()
+                        .setId(id)
+                        .setName(name)
+                        .setDescription(description)
+                        .setStatus(parsedStatus)
+                        .build();
+            }
+            if (type.equals(Subtask.class.getSimpleName())) {
+                if (epicId == null) {
+                    throw malformed();
+                }
+                return new Subtask.Builder()
+                        .setId(id)
+                        .setName(name)
+                        .setDescription(description)
+                        .setStatus(parsedStatus)
+                        .setEpicId(epicId)
+                        .build();
+            }
+            if (type.equals(Epic.class.getSimpleName())) {
+                return new Epic.Builder()
+                        .setId(id)
+                        .setName(name)
+                        .setDescription(description)
+                        .setStatus(parsedStatus)
+                        .setSubtaskIds(subtaskIds == null ? new ArrayList<>() : subtaskIds)
+                        .build();
+            }
+            throw new IllegalArgumentException("Unknown task type: " + type);
+        }
+
+        private String readNullableString() {
+            skipWhitespace();
+            if (line.startsWith("null", position)) {
+                position += 4;
+                return null;
+            }
+            return readString();
+        }
+
+        private String readString() {
+            expect('"');
+            text.setLength(0);
+
+            while (position < line.length()) {
+                char c = line.charAt(position++);
+                if (c == '"') {
+                    return text.toString();
+                }
+                if (c != '\\') {
+                    text.append(c);
+                    continue;
+                }
+                if (position >= line.length()) {
+                    break;
+                }
+                char escaped = line.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> text.append(escaped);
+                    case 'b' -> text.append('\b');
+                    case 'f' -> text.append('\f');
+                    case 'n' -> text.append('\n');
+                    case 'r' -> text.append('\r');
+                    case 't' -> text.append('\t');
+                    case 'u' -> {
+                        if (position + 4 > line.length()) {
+                            throw malformed();
+                        }
+                        text.append((char) Integer.parseInt(line, position, position + 4, 16));
+                        position += 4;
+                    }
+                    default -> throw malformed();
+                }
+            }
+            throw malformed();
+        }
+
+        private int readInt() {
+            skipWhitespace();
+            int start = position;
+            if (position < line.length() && line.charAt(position) == '-') {
+                position++;
+            }
+            while (position < line.length() && Character.isDigit(line.charAt(position))) {
+                position++;
+            }
+            return Integer.parseInt(line, start, position, 10);
+        }
+
+        private List<Integer> readIntArray() {
+            expect('[');
+            List<Integer> values = new ArrayList<>();
+            if (tryConsume(']')) {
+                return values;
+            }
+            do {
+                values.add(readInt());
+            } while (tryConsume(','));
+            expect(']');
+            return values;
+        }
+
+        private void skipValue() {
+            skipWhitespace();
+            if (position >= line.length()) {
+                throw malformed();
+            }
+
+            char c = line.charAt(position);
+            if (c == '"') {
+                readString();
+            } else if (c == '[') {
+                position++;
+                if (!tryConsume(']')) {
+                    do {
+                        skipValue();
+                    } while (tryConsume(','));
+                    expect(']');
+                }
+            } else {
+                while (position < line.length() && ",}]".indexOf(line.charAt(position)) < 0) {
+                    position++;
+                }
+            }
+        }
+
+        private void expect(char expected) {
+            if (!tryConsume(expected)) {
+                throw malformed();
+            }
+        }
+
+        private boolean tryConsume(char expected) {
+            skipWhitespace();
+            if (position < line.length() && line.charAt(position) == expected) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException malformed() {
+            return new IllegalArgumentException("Malformed task record: " + line);
+        }
+    }
+}
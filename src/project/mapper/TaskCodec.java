@@ -0,0 +1,37 @@
+package project.mapper;
+
+import project.model.AbstractTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+/**
+ * File format of task snapshots.
+ * <p>
+ * Implementations are discovered with {@link java.util.ServiceLoader}, see {@link TaskCodecs}. A codec must be
+ * stateless, the same instance is shared by every thread.
+ */
+public interface TaskCodec {
+
+    /**
+     * Name used to select the codec in the persistence settings.
+     */
+    String getName();
+
+    /**
+     * @return whether a file starting with the given bytes is written in this format
+     */
+    boolean canRead(byte[] header, int length);
+
+    /**
+     * Writes a whole snapshot. The stream is flushed, but not closed.
+     */
+    void write(OutputStream out, Iterable<? extends AbstractTask> tasks) throws IOException;
+
+    /**
+     * Reads a whole snapshot, pushing every task to {@code consumer} as soon as it is decoded.
+     */
+    void read(InputStream in, Consumer<? super AbstractTask> consumer) throws IOException;
+}
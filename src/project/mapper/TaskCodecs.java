@@ -0,0 +1,83 @@
+package project.mapper;
+
+import project.enums.SnapshotFormat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Registry of the {@link TaskCodec}s found by {@link ServiceLoader}. The built-in codecs are always available,
+ * a discovered codec with the same name replaces the built-in one. Providers of the built-in codecs are not
+ * instantiated a second time.
+ */
+public class TaskCodecs {
+    public static final int HEADER_PROBE_LENGTH = 64;
+
+    private static final Map<String, TaskCodec> codecs = discover();
+
+    private TaskCodecs() {
+    }
+
+    public static Collection<TaskCodec> getCodecs() {
+        return Collections.unmodifiableCollection(codecs.values());
+    }
+
+    public static boolean contains(String name) {
+        return codecs.containsKey(name);
+    }
+
+    public static TaskCodec forName(String name) {
+        TaskCodec codec = codecs.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown task codec: " + name);
+        }
+        return codec;
+    }
+
+    public static TaskCodec forFormat(SnapshotFormat format) {
+        return forName(format.getCodecName());
+    }
+
+    /**
+     * Picks the codec by the first bytes of a file. Files nobody recognizes are treated as CSV, which then reports
+     * the missing header.
+     */
+    public static TaskCodec detect(byte[] header, int length) {
+        for (TaskCodec codec : codecs.values()) {
+            if (codec.canRead(header, length)) {
+                return codec;
+            }
+        }
+        return forName(CsvTaskCodec.NAME);
+    }
+
+    private static Map<String, TaskCodec> discover() {
+        Map<String, TaskCodec> discovered = new LinkedHashMap<>();
+        register(discovered, new BinaryTaskCodec());
+        register(discovered, new JsonLinesTaskCodec());
+        register(discovered, new CsvTaskCodec());
+
+        for (ServiceLoader.Provider<TaskCodec> provider : ServiceLoader.load(TaskCodec.class).stream().toList()) {
+            if (!isRegistered(discovered, provider.type())) {
+                register(discovered, provider.get());
+            }
+        }
+        return discovered;
+    }
+
+    private static void register(Map<String, TaskCodec> discovered, TaskCodec codec) {
+        discovered.put(codec.getName(), codec);
+    }
+
+    private static boolean isRegistered(Map<String, TaskCodec> discovered, Class<? extends TaskCodec> type) {
+        for (TaskCodec codec : discovered.values()) {
+            if (codec.getClass() == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +1,14 @@
 package project.model;
 
 import project.util.AbstractTaskBuilder;
+import project.util.PersistentIntSet;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
+import static project.exception.TaskExceptionMessage.EPIC_HAS_INVALID_SUBTASK;
+
 public class Epic extends AbstractTask {
-    private final List<Integer> subtaskIds;
+    private final PersistentIntSet subtaskIds;
 
     private Epic(Builder builder) {
         super(builder);
@@ -15,7 +16,11 @@ public class Epic extends AbstractTask {
     }
 
     public List<Integer> getSubtaskIds() {
-        return Collections.unmodifiableList(subtaskIds);
+        return subtaskIds.asList();
+    }
+
+    public boolean hasSubtask(int subtaskId) {
+        return subtaskIds.contains(subtaskId);
     }
 
     @Override
@@ -30,25 +35,42 @@ public class Epic extends AbstractTask {
     }
 
     public static class Builder extends AbstractTaskBuilder<Epic, Builder> {
-        private List<Integer> subtaskIds;
+        private PersistentIntSet subtaskIds;
+        private boolean repeatedSubtaskIds;
 
+        /**
+         * Shares the subtask ids of {@code epic}, adding or removing one later copies only O(log n) of them.
+         */
         public Builder fromEpic(Epic epic) {
             copyFromAbstractTask(epic);
-            this.subtaskIds = new ArrayList<>(epic.getSubtaskIds());
+            this.subtaskIds = epic.subtaskIds;
+            this.repeatedSubtaskIds = false;
             return self();
         }
 
+        /**
+         * A subtask listed twice is an error reported by {@link #build()}, the set would hide it otherwise.
+         */
         public Builder setSubtaskIds(List<Integer> subtaskIds) {
-            this.subtaskIds = subtaskIds;
+            this.subtaskIds = PersistentIntSet.of(subtaskIds);
+            this.repeatedSubtaskIds = this.subtaskIds.size() != subtaskIds.size();
+            return self();
+        }
+
+        public Builder addSubtaskId(int subtaskId) {
+            this.subtaskIds = currentSubtaskIds().with(subtaskId);
+            return self();
+        }
+
+        public Builder removeSubtaskId(int subtaskId) {
+            this.subtaskIds = currentSubtaskIds().without(subtaskId);
             return self();
         }
 
         @Override
         public Epic build() {
             validate();
-            if (subtaskIds == null) {
-                subtaskIds = new ArrayList<>();
-            }
+            subtaskIds = currentSubtaskIds();
             return new Epic(this);
         }
 
@@ -56,5 +78,17 @@ public class Epic extends AbstractTask {
         protected Builder self() {
             return this;
         }
+
+        @Override
+        protected void validate() {
+            super.validate();
+            if (repeatedSubtaskIds) {
+                throw new IllegalStateException(EPIC_HAS_INVALID_SUBTASK + getId());
+            }
+        }
+
+        private PersistentIntSet currentSubtaskIds() {
+            return subtaskIds == null ? PersistentIntSet.EMPTY : subtaskIds;
+        }
     }
 }
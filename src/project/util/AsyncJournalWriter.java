@@ -0,0 +1,252 @@
+package project.util;
+
+import project.exception.ManagerSaveException;
+import project.model.AbstractTask;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static project.exception.TaskExceptionMessage.ERROR_WRITING_JOURNAL;
+
+/**
+ * Group-commit front end of a {@link TaskJournal}.
+ * <p>
+ * Callers hand over the entries of one operation and return immediately. A dedicated writer thread collects
+ * requests until the batch reaches {@code maxBatchSize} entries or the first request of the batch has waited
+ * {@code maxDelayMillis}, then appends the whole batch with a single flush. When the queue is full callers block
+ * until the writer catches up, without holding the lock that orders requests, and fail as soon as the writer has
+ * failed.
+ */
+public class AsyncJournalWriter implements Closeable {
+    private static final long FAILURE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final TaskJournal journal;
+    private final BlockingQueue<WriteRequest> queue;
+    private final Semaphore freeSlots;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Thread writerThread;
+    private final Object durabilityMonitor = new Object();
+    private long submittedSequence;
+    private long durableSequence;
+    private volatile Throwable failure;
+    private volatile boolean closed;
+
+    public AsyncJournalWriter(TaskJournal journal, PersistenceSettings settings) {
+        this.journal = journal;
+        // one extra place for the stop request of close()
+        this.queue = new ArrayBlockingQueue<>(settings.getQueueCapacity() + 1);
+        this.freeSlots = new Semaphore(settings.getQueueCapacity());
+        this.maxBatchSize = settings.getMaxBatchSize();
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(settings.getMaxDelayMillis());
+        this.writerThread = Thread.ofPlatform()
+                .daemon()
+                .name("task-journal-writer")
+                .start(this::writeLoop);
+    }
+
+    /**
+     * Queues the entries of one operation, blocking while the queue is full.
+     *
+     * @return sequence number to pass to {@link #awaitDurable(long)}
+     */
+    public long submit(List<JournalEntry> entries) {
+        return enqueue(new WriteRequest(entries, null, false, false));
+    }
+
+    /**
+     * Queues a compaction of the journal into {@code state}, which must reflect every entry submitted so far and
+     * must not change afterwards.
+     */
+    public void compact(Iterable<? extends AbstractTask> state) {
+        enqueue(new WriteRequest(List.of(), state, false, false));
+    }
+
+    /**
+     * Commits everything submitted so far without waiting for the batch delay and waits until it is written.
+     */
+    public void flush() {
+        awaitDurable(enqueue(new WriteRequest(List.of(), null, true, false)));
+    }
+
+    /**
+     * Waits until everything submitted so far is written.
+     */
+    public void awaitDurable() {
+        long sequence;
+        synchronized (this) {
+            sequence = submittedSequence;
+        }
+        awaitDurable(sequence);
+    }
+
+    public void awaitDurable(long sequence) {
+        synchronized (durabilityMonitor) {
+            while (durableSequence < sequence) {
+                throwIfFailed();
+                try {
+                    durabilityMonitor.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new ManagerSaveException(ERROR_WRITING_JOURNAL, e);
+                }
+            }
+        }
+    }
+
+    public int getPendingRequests() {
+        return queue.size();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(new WriteRequest(List.of(), null, true, true));
+        }
+
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException(ERROR_WRITING_JOURNAL, e);
+        } finally {
+            journal.close();
+        }
+        synchronized (durabilityMonitor) {
+            throwIfFailed();
+        }
+    }
+
+    /**
+     * Waits for a free place in the queue without holding the monitor, then numbers and queues the request under
+     * it, so that sequence numbers follow the queue order.
+     */
+    private long enqueue(WriteRequest request) {
+        throwIfClosedOrFailed();
+        try {
+            while (!freeSlots.tryAcquire(FAILURE_CHECK_NANOS, TimeUnit.NANOSECONDS)) {
+                throwIfClosedOrFailed();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException(ERROR_WRITING_JOURNAL, e);
+        }
+
+        synchronized (this) {
+            try {
+                throwIfClosedOrFailed();
+            } catch (RuntimeException e) {
+                freeSlots.release();
+                throw e;
+            }
+            request.sequence = ++submittedSequence;
+            queue.add(request);
+            return request.sequence;
+        }
+    }
+
+    private void writeLoop() {
+        List<JournalEntry> batch = new ArrayList<>(maxBatchSize);
+        boolean stopped = false;
+
+        while (!stopped) {
+            try {
+                WriteRequest request = take(queue.take());
+                long deadline = System.nanoTime() + maxDelayNanos;
+                long lastSequence;
+
+                while (true) {
+                    lastSequence = request.sequence;
+                    batch.addAll(request.entries);
+
+                    if (request.compactionState != null) {
+                        journal.append(batch);
+                        batch.clear();
+                        journal.compact(request.compactionState);
+                    }
+                    if (request.endsBatch || batch.size() >= maxBatchSize) {
+                        stopped = request.stops;
+                        break;
+                    }
+
+                    request = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (request == null) {
+                        break;
+                    }
+                    take(request);
+                }
+
+                journal.append(batch);
+                batch.clear();
+                markDurable(lastSequence);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(e);
+                return;
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+        }
+    }
+
+    private WriteRequest take(WriteRequest request) {
+        if (!request.stops) {
+            freeSlots.release();
+        }
+        return request;
+    }
+
+    private void markDurable(long sequence) {
+        synchronized (durabilityMonitor) {
+            durableSequence = Math.max(durableSequence, sequence);
+            durabilityMonitor.notifyAll();
+        }
+    }
+
+    private void fail(Throwable cause) {
+        synchronized (durabilityMonitor) {
+            failure = cause;
+            durabilityMonitor.notifyAll();
+        }
+    }
+
+    private void throwIfFailed() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new ManagerSaveException(ERROR_WRITING_JOURNAL, cause);
+        }
+    }
+
+    private void throwIfClosedOrFailed() {
+        if (closed) {
+            throw new IllegalStateException("Journal writer is closed");
+        }
+        throwIfFailed();
+    }
+
+    private static class WriteRequest {
+        private final List<JournalEntry> entries;
+        private final Iterable<? extends AbstractTask> compactionState;
+        private final boolean endsBatch;
+        private final boolean stops;
+        private long sequence;
+
+        WriteRequest(List<JournalEntry> entries, Iterable<? extends AbstractTask> compactionState,
+                     boolean endsBatch, boolean stops) {
+            this.entries = entries;
+            this.compactionState = compactionState;
+            this.endsBatch = endsBatch;
+            this.stops = stops;
+        }
+    }
+}
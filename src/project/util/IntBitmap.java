@@ -0,0 +1,401 @@
+package project.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Compressed set of {@code int} values in the style of Roaring bitmaps.
+ * <p>
+ * Values are split by their upper 16 bits into chunks of up to 65536 values. A sparse chunk is a sorted
+ * {@code char[]} of the lower 16 bits, a dense one, with more than {@value #ARRAY_LIMIT} values, is a fixed 8 KiB
+ * bitmap, so a chunk never takes more than about two bytes per value. Intersections and unions work chunk by chunk.
+ * Values are visited in unsigned order. Not thread-safe.
+ */
+public class IntBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1 << 16 >>> 6;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int chunkCount;
+
+    public boolean contains(int value) {
+        int index = indexOfChunk(high(value));
+        return index >= 0 && containers[index].contains(low(value));
+    }
+
+    /**
+     * @return whether the value was absent
+     */
+    public boolean add(int value) {
+        char high = high(value);
+        int index = indexOfChunk(high);
+        if (index < 0) {
+            insertChunk(-index - 1, high, new ArrayContainer().add(low(value)));
+            return true;
+        }
+
+        Container container = containers[index];
+        int cardinality = container.cardinality();
+        containers[index] = container.add(low(value));
+        return containers[index].cardinality() != cardinality;
+    }
+
+    /**
+     * @return whether the value was present
+     */
+    public boolean remove(int value) {
+        int index = indexOfChunk(high(value));
+        if (index < 0) {
+            return false;
+        }
+
+        Container container = containers[index];
+        int cardinality = container.cardinality();
+        Container updated = container.remove(low(value));
+        if (updated.cardinality() == 0) {
+            removeChunk(index);
+        } else {
+            containers[index] = updated;
+        }
+        return updated.cardinality() != cardinality;
+    }
+
+    public int cardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return chunkCount == 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < chunkCount; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[cardinality()];
+        int[] position = {0};
+        forEach(value -> values[position[0]++] = value);
+        return values;
+    }
+
+    public static IntBitmap and(IntBitmap first, IntBitmap second) {
+        IntBitmap result = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < first.chunkCount && j < second.chunkCount) {
+            if (first.keys[i] < second.keys[j]) {
+                i++;
+            } else if (first.keys[i] > second.keys[j]) {
+                j++;
+            } else {
+                Container intersection = first.containers[i].and(second.containers[j]);
+                if (intersection.cardinality() > 0) {
+                    result.insertChunk(result.chunkCount, first.keys[i], intersection);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    public static IntBitmap or(IntBitmap first, IntBitmap second) {
+        IntBitmap result = new IntBitmap();
+        int i = 0;
+        int j = 0;
+        while (i < first.chunkCount || j < second.chunkCount) {
+            if (j == second.chunkCount || i < first.chunkCount && first.keys[i] < second.keys[j]) {
+                result.insertChunk(result.chunkCount, first.keys[i], first.containers[i].copy());
+                i++;
+            } else if (i == first.chunkCount || first.keys[i] > second.keys[j]) {
+                result.insertChunk(result.chunkCount, second.keys[j], second.containers[j].copy());
+                j++;
+            } else {
+                result.insertChunk(result.chunkCount, first.keys[i], first.containers[i].or(second.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    private int indexOfChunk(char high) {
+        // ids mostly grow, so the last chunk is the usual target
+        if (chunkCount > 0 && keys[chunkCount - 1] == high) {
+            return chunkCount - 1;
+        }
+        return Arrays.binarySearch(keys, 0, chunkCount, high);
+    }
+
+    private void insertChunk(int index, char high, Container container) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, chunkCount * 2);
+            containers = Arrays.copyOf(containers, chunkCount * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, chunkCount - index);
+        System.arraycopy(containers, index, containers, index + 1, chunkCount - index);
+        keys[index] = high;
+        containers[index] = container;
+        chunkCount++;
+    }
+
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, chunkCount - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, chunkCount - index - 1);
+        containers[--chunkCount] = null;
+    }
+
+    private static char high(int value) {
+        return (char) (value >>> 16);
+    }
+
+    private static char low(int value) {
+        return (char) value;
+    }
+
+    private interface Container {
+        int cardinality();
+
+        boolean contains(char value);
+
+        Container add(char value);
+
+        Container remove(char value);
+
+        Container and(Container other);
+
+        Container or(Container other);
+
+        Container copy();
+
+        void forEach(int base, IntConsumer action);
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values;
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        public Container add(char value) {
+            int index = size > 0 && value > values[size - 1] ? -size - 1 : Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (size == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_LIMIT));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        public Container and(Container other) {
+            char[] result = new char[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+
+            ArrayContainer array = (ArrayContainer) other;
+            char[] result = new char[size + array.size];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < array.size) {
+                if (j == array.size || i < size && values[i] < array.values[j]) {
+                    result[count++] = values[i++];
+                } else if (i == size || values[i] > array.values[j]) {
+                    result[count++] = array.values[j++];
+                } else {
+                    result[count++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer union = new ArrayContainer(result, count);
+            return count > ARRAY_LIMIT ? union.toBitmap() : union;
+        }
+
+        @Override
+        public Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < size; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[BITMAP_WORDS], 0);
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & 1L << value) != 0;
+        }
+
+        @Override
+        public Container add(char value) {
+            long word = words[value >>> 6];
+            long updated = word | 1L << value;
+            if (updated != word) {
+                words[value >>> 6] = updated;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long word = words[value >>> 6];
+            long updated = word & ~(1L << value);
+            if (updated == word) {
+                return this;
+            }
+            words[value >>> 6] = updated;
+            cardinality--;
+            return cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        public Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[BITMAP_WORDS];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                result[i] = words[i] & otherWords[i];
+                count += Long.bitCount(result[i]);
+            }
+            BitmapContainer intersection = new BitmapContainer(result, count);
+            return count <= ARRAY_LIMIT ? intersection.toArray() : intersection;
+        }
+
+        @Override
+        public Container or(Container other) {
+            BitmapContainer union = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer array) {
+                for (int i = 0; i < array.size; i++) {
+                    union.add(array.values[i]);
+                }
+                return union;
+            }
+
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                union.words[i] |= otherWords[i];
+                count += Long.bitCount(union.words[i]);
+            }
+            union.cardinality = count;
+            return union;
+        }
+
+        @Override
+        public Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        public void forEach(int base, IntConsumer action) {
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    action.accept(base | i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
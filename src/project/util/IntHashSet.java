@@ -0,0 +1,55 @@
+package project.util;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Set of primitive {@code int} values, the keys of an {@link IntIntHashMap} whose values are unused. Not
+ * thread-safe.
+ */
+public class IntHashSet {
+    private static final int PRESENT = 0;
+
+    private final IntIntHashMap map;
+
+    public IntHashSet() {
+        map = new IntIntHashMap();
+    }
+
+    public IntHashSet(int expectedSize) {
+        map = new IntIntHashMap(expectedSize);
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    public boolean contains(int value) {
+        return map.containsKey(value);
+    }
+
+    /**
+     * @return whether the value was absent
+     */
+    public boolean add(int value) {
+        return map.put(value, PRESENT) == IntIntHashMap.NONE;
+    }
+
+    /**
+     * @return whether the value was present
+     */
+    public boolean remove(int value) {
+        return map.remove(value) != IntIntHashMap.NONE;
+    }
+
+    public void forEach(IntConsumer action) {
+        map.forEach((value, unused) -> action.accept(value));
+    }
+
+    public void clear() {
+        map.clear();
+    }
+}
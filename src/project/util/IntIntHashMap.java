@@ -0,0 +1,190 @@
+package project.util;
+
+import java.util.Arrays;
+
+/**
+ * Map from primitive {@code int} keys to non-negative {@code int} values, the one open-addressing table the other
+ * int-keyed structures are built on.
+ * <p>
+ * Keys and values are kept in two parallel arrays probed linearly, a value is stored plus one so that zero marks a
+ * free slot and any key, zero included, can be stored. Removal shifts the following entries of the probe sequence
+ * back, so there are no tombstones and lookups never slow down after many removals. The table doubles once it is
+ * half full. Not thread-safe.
+ */
+public class IntIntHashMap {
+    /**
+     * Returned for an absent key, values themselves are never negative.
+     */
+    public static final int NONE = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    public IntIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntIntHashMap(int expectedSize) {
+        allocate(tableSizeFor(Math.max(expectedSize, DEFAULT_CAPACITY)));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the number of slots of the table, each of them two {@code int}s
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != NONE;
+    }
+
+    /**
+     * @return the value, or {@link #NONE} if the key is absent
+     */
+    public int get(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                return values[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the previous value, or {@link #NONE} if the key was absent
+     */
+    public int put(int key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value: " + value);
+        }
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                int previous = values[slot] - 1;
+                values[slot] = value + 1;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value + 1;
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return NONE;
+    }
+
+    /**
+     * @return the removed value, or {@link #NONE} if the key was absent
+     */
+    public int remove(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != 0) {
+            if (keys[slot] == key) {
+                int removed = values[slot] - 1;
+                deleteSlot(slot);
+                size--;
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NONE;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0);
+        size = 0;
+    }
+
+    /**
+     * Visits the entries in table order, which is unrelated to the order they were put in.
+     */
+    public void forEach(EntryConsumer action) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != 0) {
+                action.accept(keys[slot], values[slot] - 1);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, int value);
+    }
+
+    /**
+     * Backward-shift deletion, keeps every probe sequence free of gaps without tombstones.
+     */
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int gap = slot;
+        int next = slot;
+
+        while (true) {
+            next = (next + 1) & mask;
+            if (values[next] == 0) {
+                break;
+            }
+            int home = hash(keys[next]) & mask;
+            boolean movable = gap <= next
+                    ? home <= gap || home > next
+                    : home <= gap && home > next;
+            if (movable) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = 0;
+    }
+
+    private void resize(int tableSize) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(tableSize);
+
+        int mask = tableSize - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (values[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        values = new int[tableSize];
+    }
+
+    private static int hash(int key) {
+        int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        return Integer.highestOneBit(expectedSize * 2 - 1) << 1;
+    }
+}
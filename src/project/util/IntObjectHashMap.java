@@ -0,0 +1,313 @@
+package project.util;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Map from primitive {@code int} keys to non-null values.
+ * <p>
+ * Entries are kept in two dense arrays in insertion order, and an {@link IntIntHashMap} maps a key to its position
+ * there. Nothing is boxed and there is no node per entry: an entry costs an {@code int} key, a value reference and
+ * about two key and position pairs of the table. Iteration follows insertion order, replacing the
+ * value of an existing key keeps its place. Removed entries leave a hole in the dense arrays until the next growth
+ * compacts them. While keys are added in ascending order, as generated ids are, the dense arrays are also sorted
+ * by key, which makes range reads cheap. Once a smaller key is added, the first range read sorts the positions of
+ * the entries by key into a separate array, which is then kept sorted by every insertion and carried over by growth,
+ * until a growth finds the compacted keys in order again or the map is emptied. Not thread-safe.
+ */
+public class IntObjectHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private IntIntHashMap positions;
+    private int end;
+    private int size;
+    private int modCount;
+    private boolean keysAscending = true;
+    private int[] sortedPositions;
+
+    public IntObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public IntObjectHashMap(int expectedSize) {
+        allocate(Math.max(expectedSize, DEFAULT_CAPACITY));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    /**
+     * @return the previous value, or {@code null} if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value);
+
+        int index = indexOf(key);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        if (end == keys.length) {
+            resize(size * 2 < keys.length ? keys.length : keys.length * 2);
+        }
+        // a removed entry keeps its key in the dense arrays, so the new key may repeat the last one
+        keysAscending &= end == 0 || key >= keys[end - 1];
+        keys[end] = key;
+        values[end] = value;
+        positions.put(key, end);
+        if (sortedPositions != null) {
+            int position = firstPositionAfter(key);
+            System.arraycopy(sortedPositions, position, sortedPositions, position + 1, end - position);
+            sortedPositions[position] = end;
+        }
+        end++;
+        size++;
+        modCount++;
+        return null;
+    }
+
+    /**
+     * @return the removed value, or {@code null} if the key was absent
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int index = positions.remove(key);
+        if (index == IntIntHashMap.NONE) {
+            return null;
+        }
+
+        V removed = (V) values[index];
+        values[index] = null;
+        size--;
+        modCount++;
+        if (size == 0) {
+            end = 0;
+            keysAscending = true;
+            sortedPositions = null;
+        }
+        return removed;
+    }
+
+    public void clear() {
+        positions.clear();
+        Arrays.fill(values, 0, end, null);
+        end = 0;
+        size = 0;
+        modCount++;
+        keysAscending = true;
+        sortedPositions = null;
+    }
+
+    /**
+     * Up to {@code limit} values whose keys are greater than {@code key}, in ascending key order. Takes
+     * O(log n + limit), except for the first read after keys stopped being added in ascending order, which sorts the
+     * entries in O(n log n).
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> valuesAfter(int key, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Negative limit: " + limit);
+        }
+
+        List<V> page = new ArrayList<>(Math.min(limit, size));
+        if (keysAscending) {
+            for (int i = firstIndexAfter(key); i < end && page.size() < limit; i++) {
+                if (values[i] != null) {
+                    page.add((V) values[i]);
+                }
+            }
+            return page;
+        }
+
+        if (sortedPositions == null) {
+            sortPositions();
+        }
+        for (int i = firstPositionAfter(key); i < end && page.size() < limit; i++) {
+            Object value = values[sortedPositions[i]];
+            if (value != null) {
+                page.add((V) value);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Live read-only view of the values in insertion order.
+     */
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new ValueIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Binary search over the dense arrays, holes keep their keys, so they do not break the order.
+     */
+    private int firstIndexAfter(int key) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Same as {@link #firstIndexAfter}, over the positions sorted by key.
+     */
+    private int firstPositionAfter(int key) {
+        int low = 0;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[sortedPositions[middle]] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Sorts (key, position) pairs packed into longs, positions are non-negative, so pairs sort by key first.
+     */
+    private void sortPositions() {
+        long[] pairs = new long[end];
+        for (int i = 0; i < end; i++) {
+            pairs[i] = (long) keys[i] << Integer.SIZE | i;
+        }
+        Arrays.sort(pairs);
+
+        sortedPositions = new int[keys.length];
+        for (int i = 0; i < end; i++) {
+            sortedPositions[i] = (int) pairs[i];
+        }
+    }
+
+    private int indexOf(int key) {
+        return positions.get(key);
+    }
+
+    /**
+     * Compaction keeps the relative order of the entries, so sorted positions only have to be renumbered. Once the
+     * removed entries that broke the key order are dropped, the dense arrays are sorted again and the positions are
+     * not needed.
+     */
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        int oldEnd = end;
+        int[] newPositions = sortedPositions == null ? null : new int[oldEnd];
+
+        allocate(capacity);
+        keysAscending = true;
+        for (int i = 0; i < oldEnd; i++) {
+            if (oldValues[i] != null) {
+                keysAscending &= end == 0 || oldKeys[i] >= keys[end - 1];
+                keys[end] = oldKeys[i];
+                values[end] = oldValues[i];
+                positions.put(oldKeys[i], end);
+                if (newPositions != null) {
+                    newPositions[i] = end;
+                }
+                end++;
+            } else if (newPositions != null) {
+                newPositions[i] = -1;
+            }
+        }
+
+        if (keysAscending) {
+            sortedPositions = null;
+        } else if (newPositions != null) {
+            int[] oldSortedPositions = sortedPositions;
+            sortedPositions = new int[capacity];
+            int count = 0;
+            for (int i = 0; i < oldEnd; i++) {
+                int position = newPositions[oldSortedPositions[i]];
+                if (position >= 0) {
+                    sortedPositions[count++] = position;
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        positions = new IntIntHashMap(capacity);
+        end = 0;
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[next];
+            next = advance(next + 1);
+            return value;
+        }
+
+        private int advance(int from) {
+            int index = from;
+            while (index < end && values[index] == null) {
+                index++;
+            }
+            return index;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package project.util;
+
+import project.enums.JournalOperation;
+import project.model.AbstractTask;
+
+public class JournalEntry {
+    private final JournalOperation operation;
+    private final AbstractTask task;
+    private final int id;
+    private final Class<? extends AbstractTask> type;
+
+    private JournalEntry(JournalOperation operation, AbstractTask task, int id, Class<? extends AbstractTask> type) {
+        this.operation = operation;
+        this.task = task;
+        this.id = id;
+        this.type = type;
+    }
+
+    public static JournalEntry put(AbstractTask task) {
+        return new JournalEntry(JournalOperation.PUT, task, task.getId(), task.getClass());
+    }
+
+    public static JournalEntry delete(int id) {
+        return new JournalEntry(JournalOperation.DELETE, null, id, null);
+    }
+
+    public static JournalEntry clear(Class<? extends AbstractTask> type) {
+        return new JournalEntry(JournalOperation.CLEAR, null, AbstractTaskBuilder.DEFAULT_ID, type);
+    }
+
+    public JournalOperation getOperation() {
+        return operation;
+    }
+
+    public AbstractTask getTask() {
+        return task;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Class<? extends AbstractTask> getType() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalEntry{" +
+                "operation=" + operation +
+                ", id=" + id +
+                ", type=" + (type == null ? null : type.getSimpleName()) +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package project.util;
+
+public class LoadStatistics {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    private final long records;
+    private final long bytes;
+    private final long elapsedNanos;
+
+    public LoadStatistics(long records, long bytes, long elapsedNanos) {
+        this.records = records;
+        this.bytes = bytes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getRecordsPerSecond() {
+        return elapsedNanos == 0 ? 0 : records * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    public double getMegabytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes / BYTES_PER_MEGABYTE * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LoadStatistics{records=%d, bytes=%d, elapsedMillis=%.1f, records/s=%.0f, MB/s=%.1f}",
+                records, bytes, elapsedNanos / 1_000_000.0, getRecordsPerSecond(), getMegabytesPerSecond());
+    }
+}
@@ -1,6 +1,9 @@
 package project.util;
 
+import project.manager.BoundedHistoryManager;
+import project.manager.ConcurrentTaskManager;
 import project.manager.HistoryManager;
+import project.manager.IdHistoryManager;
 import project.manager.InMemoryHistoryManager;
 import project.manager.InMemoryTaskManager;
 import project.manager.TaskManager;
@@ -15,7 +18,25 @@ public class Managers {
         return new InMemoryTaskManager(validator, getDefaultHistoryManager());
     }
 
+    public static TaskManager getConcurrentTaskManager() {
+        return new ConcurrentTaskManager(validator, getDefaultHistoryManager());
+    }
+
     public static HistoryManager getDefaultHistoryManager() {
         return new InMemoryHistoryManager();
     }
+
+    /**
+     * History that keeps only the {@code capacity} most recent views, for long-running processes.
+     */
+    public static HistoryManager getBoundedHistoryManager(int capacity) {
+        return new BoundedHistoryManager(capacity);
+    }
+
+    /**
+     * History that keeps only entity ids and reads the current entities from its task manager.
+     */
+    public static HistoryManager getIdHistoryManager() {
+        return new IdHistoryManager();
+    }
 }
@@ -0,0 +1,103 @@
+package project.util;
+
+import project.enums.LoadStrategy;
+import project.exception.ManagerSaveException;
+import project.mapper.ByteBufferTaskDecoder;
+import project.mapper.CsvTaskCodec;
+import project.model.AbstractTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static project.exception.TaskExceptionMessage.ERROR_READING_FILE;
+import static project.exception.TaskExceptionMessage.FILE_SHOULD_START_WITH;
+
+/**
+ * Loads CSV task files through memory-mapped windows of the file instead of a {@code BufferedReader}.
+ * Records are located and decoded directly in the mapped memory, see {@link ByteBufferTaskDecoder}.
+ */
+public class MappedTaskFileReader {
+    private static final long WINDOW_SIZE = 1L << 30;
+
+    private MappedTaskFileReader() {
+    }
+
+    /**
+     * Collects the tasks and reports how fast the file was read.
+     */
+    public static TaskLoadResult load(File file) {
+        long startedAt = System.nanoTime();
+        List<AbstractTask> tasks = new ArrayList<>();
+        readTasks(file, tasks::add);
+
+        return new TaskLoadResult(tasks,
+                new LoadStatistics(tasks.size(), file.length(), System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Pushes every task to {@code consumer} right after it is decoded from the mapping.
+     */
+    public static void readTasks(File file, Consumer<? super AbstractTask> consumer) {
+        if (!TaskFileRepository.isCsv(file)) {
+            TaskFileRepository.readTasks(file, LoadStrategy.READER, consumer);
+            return;
+        }
+        readCsv(file, consumer);
+    }
+
+    private static void readCsv(File file, Consumer<? super AbstractTask> consumer) {
+        ByteBufferTaskDecoder decoder = new ByteBufferTaskDecoder();
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long windowStart = 0;
+            boolean headerRead = false;
+            boolean finished = false;
+
+            while (!finished && windowStart < size) {
+                int windowLength = (int) Math.min(WINDOW_SIZE, size - windowStart);
+                boolean lastWindow = windowStart + windowLength == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+
+                int offset = 0;
+                if (!headerRead) {
+                    offset = CsvTaskCodec.readHeader(buffer, windowLength);
+                    headerRead = true;
+                }
+
+                while (offset < windowLength) {
+                    int lineEnd = ByteBufferTaskDecoder.findLineEnd(buffer, offset, windowLength);
+                    if (lineEnd == windowLength && !lastWindow) {
+                        break;
+                    }
+
+                    int recordEnd = ByteBufferTaskDecoder.trimLineEnd(buffer, offset, lineEnd);
+                    if (recordEnd == offset) {
+                        finished = true;
+                        break;
+                    }
+
+                    consumer.accept(decoder.decode(buffer, offset, recordEnd));
+                    offset = lineEnd + 1;
+                }
+
+                if (offset == 0 && !finished && !lastWindow) {
+                    throw new ManagerSaveException(ERROR_READING_FILE + ": record is larger than the mapping window");
+                }
+                windowStart += offset;
+            }
+
+            if (!headerRead) {
+                throw new ManagerSaveException(FILE_SHOULD_START_WITH + CsvTaskCodec.HEADER);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_READING_FILE, e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package project.util;
+
+import project.enums.LoadStrategy;
+import project.exception.ManagerSaveException;
+import project.mapper.ByteBufferTaskDecoder;
+import project.mapper.CsvTaskCodec;
+import project.model.AbstractTask;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static project.exception.TaskExceptionMessage.ERROR_READING_FILE;
+import static project.exception.TaskExceptionMessage.FILE_SHOULD_START_WITH;
+import static project.exception.TaskExceptionMessage.TASKS_CANT_HAVE_SAME_ID;
+
+/**
+ * Loads CSV task files on a {@link ForkJoinPool}.
+ * <p>
+ * The mapped file is split in halves at record boundaries until the pieces are small enough, every piece is decoded
+ * on its own worker and the results are joined back in file order. Duplicate ids and the greatest id are found while
+ * joining: every piece returns its sorted ids and the join merges them, so no separate pass is needed. The result
+ * is marked as checked, so a task manager loading it does not look for duplicates again.
+ */
+public class ParallelTaskFileLoader {
+    private static final long WINDOW_SIZE = 1L << 30;
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private ParallelTaskFileLoader() {
+    }
+
+    public static TaskLoadResult load(File file) {
+        return load(file, ForkJoinPool.commonPool());
+    }
+
+    public static TaskLoadResult load(File file, ForkJoinPool pool) {
+        long startedAt = System.nanoTime();
+        if (!TaskFileRepository.isCsv(file)) {
+            List<AbstractTask> tasks = new ArrayList<>();
+            TaskFileRepository.readTasks(file, LoadStrategy.READER, tasks::add);
+            int[] ids = sortedUniqueIds(tasks);
+            return new TaskLoadResult(tasks, ids.length == 0 ? 0 : ids[ids.length - 1], true,
+                    new LoadStatistics(tasks.size(), file.length(), System.nanoTime() - startedAt));
+        }
+
+        Chunk result = null;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long windowStart = 0;
+            boolean headerRead = false;
+
+            while (windowStart < size && (result == null || !result.terminated)) {
+                int windowLength = (int) Math.min(WINDOW_SIZE, size - windowStart);
+                boolean lastWindow = windowStart + windowLength == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+
+                int from = 0;
+                if (!headerRead) {
+                    from = CsvTaskCodec.readHeader(buffer, windowLength);
+                    headerRead = true;
+                }
+                int to = lastWindow ? windowLength : lastRecordEnd(buffer, from, windowLength);
+                if (to <= from && !lastWindow) {
+                    throw new ManagerSaveException(ERROR_READING_FILE + ": record is larger than the mapping window");
+                }
+
+                Chunk chunk = invoke(pool, new ChunkTask(buffer, from, to));
+                result = result == null ? chunk : Chunk.join(result, chunk);
+                windowStart += to;
+            }
+
+            if (!headerRead) {
+                throw new ManagerSaveException(FILE_SHOULD_START_WITH + CsvTaskCodec.HEADER);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_READING_FILE, e);
+        }
+
+        List<AbstractTask> tasks = result == null ? new ArrayList<>() : result.flatten();
+        return new TaskLoadResult(tasks, result == null ? 0 : result.maxId(), true,
+                new LoadStatistics(tasks.size(), file.length(), System.nanoTime() - startedAt));
+    }
+
+    /**
+     * A worker failure is rethrown by the pool as a copy wrapping the original, which is rethrown instead so that
+     * every load strategy reports the same exception.
+     */
+    private static Chunk invoke(ForkJoinPool pool, ChunkTask task) {
+        try {
+            return pool.invoke(task);
+        } catch (RuntimeException e) {
+            if (e.getCause() instanceof RuntimeException cause && cause.getClass() == e.getClass()) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static int lastRecordEnd(MappedByteBuffer buffer, int from, int limit) {
+        for (int i = limit - 1; i >= from; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return from;
+    }
+
+    private static int[] sortedUniqueIds(List<AbstractTask> tasks) {
+        int[] ids = new int[tasks.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = tasks.get(i).getId();
+        }
+        Arrays.sort(ids);
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i] == ids[i - 1]) {
+                throw new IllegalStateException(TASKS_CANT_HAVE_SAME_ID);
+            }
+        }
+        return ids;
+    }
+
+    private static class ChunkTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        // tasks are never serialized, the mapping cannot be
+        private final transient MappedByteBuffer buffer;
+        private final int from;
+        private final int to;
+
+        ChunkTask(MappedByteBuffer buffer, int from, int to) {
+            this.buffer = buffer;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from > CHUNK_SIZE) {
+                int split = ByteBufferTaskDecoder.findLineEnd(buffer, from + (to - from) / 2, to) + 1;
+                if (split < to) {
+                    ChunkTask right = new ChunkTask(buffer, split, to);
+                    right.fork();
+                    Chunk left = new ChunkTask(buffer, from, split).compute();
+                    if (left.terminated) {
+                        // records after the empty line are ignored, and so are their errors
+                        right.quietlyJoin();
+                        return left;
+                    }
+                    return Chunk.join(left, right.join());
+                }
+            }
+            return decode();
+        }
+
+        private Chunk decode() {
+            ByteBufferTaskDecoder decoder = new ByteBufferTaskDecoder();
+            List<AbstractTask> tasks = new ArrayList<>();
+            boolean terminated = false;
+
+            int offset = from;
+            while (offset < to) {
+                int lineEnd = ByteBufferTaskDecoder.findLineEnd(buffer, offset, to);
+                int recordEnd = ByteBufferTaskDecoder.trimLineEnd(buffer, offset, lineEnd);
+                if (recordEnd == offset) {
+                    terminated = true;
+                    break;
+                }
+                tasks.add(decoder.decode(buffer, offset, recordEnd));
+                offset = lineEnd + 1;
+            }
+
+            List<List<AbstractTask>> parts = new ArrayList<>();
+            parts.add(tasks);
+            return new Chunk(parts, sortedUniqueIds(tasks), terminated);
+        }
+    }
+
+    private static class Chunk {
+        private final List<List<AbstractTask>> parts;
+        private final int[] sortedIds;
+        private final boolean terminated;
+
+        Chunk(List<List<AbstractTask>> parts, int[] sortedIds, boolean terminated) {
+            this.parts = parts;
+            this.sortedIds = sortedIds;
+            this.terminated = terminated;
+        }
+
+        /**
+         * Everything after an empty line is ignored, the same way the reader path stops at it.
+         */
+        static Chunk join(Chunk left, Chunk right) {
+            if (left.terminated) {
+                return left;
+            }
+
+            List<List<AbstractTask>> parts = new ArrayList<>(left.parts.size() + right.parts.size());
+            parts.addAll(left.parts);
+            parts.addAll(right.parts);
+            return new Chunk(parts, mergeUnique(left.sortedIds, right.sortedIds), right.terminated);
+        }
+
+        int maxId() {
+            return sortedIds.length == 0 ? 0 : sortedIds[sortedIds.length - 1];
+        }
+
+        List<AbstractTask> flatten() {
+            List<AbstractTask> tasks = new ArrayList<>(sortedIds.length);
+            for (List<AbstractTask> part : parts) {
+                tasks.addAll(part);
+            }
+            return tasks;
+        }
+
+        private static int[] mergeUnique(int[] left, int[] right) {
+            int[] merged = new int[left.length + right.length];
+            int i = 0;
+            int j = 0;
+            int k = 0;
+
+            while (i < left.length && j < right.length) {
+                if (left[i] == right[j]) {
+                    throw new IllegalStateException(TASKS_CANT_HAVE_SAME_ID);
+                }
+                merged[k++] = left[i] < right[j] ? left[i++] : right[j++];
+            }
+            while (i < left.length) {
+                merged[k++] = left[i++];
+            }
+            while (j < right.length) {
+                merged[k++] = right[j++];
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package project.util;
+
+import project.enums.LoadStrategy;
+import project.enums.PersistenceMode;
+import project.enums.SnapshotFormat;
+import project.mapper.TaskCodec;
+import project.mapper.TaskCodecs;
+
+public class PersistenceSettings {
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 4_096;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 20;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16_384;
+
+    private final PersistenceMode mode;
+    private final TaskCodec snapshotCodec;
+    private final LoadStrategy loadStrategy;
+    private final int compactionThreshold;
+    private final boolean durableWrites;
+    private final boolean asynchronous;
+    private final int maxBatchSize;
+    private final long maxDelayMillis;
+    private final int queueCapacity;
+
+    private PersistenceSettings(Builder builder) {
+        this.mode = builder.mode;
+        this.snapshotCodec = TaskCodecs.forName(builder.codecName);
+        this.loadStrategy = builder.loadStrategy;
+        this.compactionThreshold = builder.compactionThreshold;
+        this.durableWrites = builder.durableWrites;
+        this.asynchronous = builder.asynchronous;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxDelayMillis = builder.maxDelayMillis;
+        this.queueCapacity = builder.queueCapacity;
+    }
+
+    public static PersistenceSettings defaults() {
+        return new Builder().build();
+    }
+
+    public PersistenceMode getMode() {
+        return mode;
+    }
+
+    public TaskCodec getSnapshotCodec() {
+        return snapshotCodec;
+    }
+
+    public LoadStrategy getLoadStrategy() {
+        return loadStrategy;
+    }
+
+    public int getCompactionThreshold() {
+        return compactionThreshold;
+    }
+
+    public boolean isDurableWrites() {
+        return durableWrites;
+    }
+
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public static class Builder {
+        private PersistenceMode mode = PersistenceMode.SNAPSHOT;
+        private String codecName = SnapshotFormat.CSV.getCodecName();
+        private LoadStrategy loadStrategy = LoadStrategy.READER;
+        private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+        private boolean durableWrites;
+        private boolean asynchronous;
+        private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+        private long maxDelayMillis = DEFAULT_MAX_DELAY_MILLIS;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+        public Builder setMode(PersistenceMode mode) {
+            this.mode = mode;
+            return this;
+        }
+
+        public Builder setSnapshotFormat(SnapshotFormat snapshotFormat) {
+            this.codecName = snapshotFormat == null ? null : snapshotFormat.getCodecName();
+            return this;
+        }
+
+        /**
+         * Selects the snapshot codec by {@link TaskCodec#getName()}, including codecs added through the service
+         * loader.
+         */
+        public Builder setSnapshotCodec(String codecName) {
+            this.codecName = codecName;
+            return this;
+        }
+
+        public Builder setLoadStrategy(LoadStrategy loadStrategy) {
+            this.loadStrategy = loadStrategy;
+            return this;
+        }
+
+        public Builder setCompactionThreshold(int compactionThreshold) {
+            this.compactionThreshold = compactionThreshold;
+            return this;
+        }
+
+        /**
+         * Forces journal writes to the storage device instead of leaving them in the OS cache.
+         */
+        public Builder setDurableWrites(boolean durableWrites) {
+            this.durableWrites = durableWrites;
+            return this;
+        }
+
+        /**
+         * Moves journal writes to a dedicated writer thread that commits changes in groups.
+         */
+        public Builder setAsynchronous(boolean asynchronous) {
+            this.asynchronous = asynchronous;
+            return this;
+        }
+
+        public Builder setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        public Builder setMaxDelayMillis(long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        public Builder setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public PersistenceSettings build() {
+            if (mode == null || codecName == null || loadStrategy == null) {
+                throw new IllegalStateException("Persistence mode, snapshot codec and load strategy are required");
+            }
+            if (!TaskCodecs.contains(codecName)) {
+                throw new IllegalStateException("Unknown snapshot codec: " + codecName);
+            }
+            if (compactionThreshold <= 0) {
+                throw new IllegalStateException("Compaction threshold should be positive");
+            }
+            if (asynchronous && mode != PersistenceMode.JOURNAL) {
+                throw new IllegalStateException("Asynchronous persistence requires journal mode");
+            }
+            if (maxBatchSize <= 0 || maxDelayMillis < 0 || queueCapacity <= 0) {
+                throw new IllegalStateException("Batch size and queue capacity should be positive");
+            }
+            return new PersistenceSettings(this);
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package project.util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+
+/**
+ * Immutable map from {@code int} keys to non-null values, sorted by key.
+ * <p>
+ * Entries are kept in a persistent AVL tree: adding or removing an entry copies only the O(log n) nodes on its path
+ * and shares the rest with the original map, which never changes. All fields are final, so a map can be handed to
+ * other threads without synchronization. {@link PersistentIntSet} is built on two of these maps.
+ */
+public final class PersistentIntMap<V> {
+    private static final PersistentIntMap<?> EMPTY = new PersistentIntMap<>(null);
+
+    private final Node<V> root;
+
+    private PersistentIntMap(Node<V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> empty() {
+        return (PersistentIntMap<V>) EMPTY;
+    }
+
+    /**
+     * Map of the given values under the keys computed from them, built in O(n) if the values come in ascending key
+     * order and in O(n log n) otherwise. Keys must be distinct.
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentIntMap<V> of(Collection<? extends V> values, ToIntFunction<? super V> keyOf) {
+        Object[] sortedValues = values.toArray();
+        int[] keys = new int[sortedValues.length];
+        boolean ascending = true;
+        for (int i = 0; i < sortedValues.length; i++) {
+            keys[i] = keyOf.applyAsInt((V) Objects.requireNonNull(sortedValues[i]));
+            ascending &= i == 0 || keys[i] > keys[i - 1];
+        }
+
+        if (!ascending) {
+            long[] keyIndexPairs = new long[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                keyIndexPairs[i] = (long) keys[i] << Integer.SIZE | i;
+            }
+            Arrays.sort(keyIndexPairs);
+
+            Object[] unsortedValues = sortedValues;
+            sortedValues = new Object[unsortedValues.length];
+            for (int i = 0; i < keyIndexPairs.length; i++) {
+                keys[i] = (int) (keyIndexPairs[i] >> Integer.SIZE);
+                sortedValues[i] = unsortedValues[(int) keyIndexPairs[i]];
+            }
+        }
+        return ofSorted(keys, sortedValues, keys.length);
+    }
+
+    /**
+     * Map of the first {@code count} keys, which must be distinct and ascending, and their values, built in O(n).
+     */
+    static <V> PersistentIntMap<V> ofSorted(int[] keys, Object[] values, int count) {
+        return count == 0 ? empty() : new PersistentIntMap<>(build(keys, values, 0, count));
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    public V get(int key) {
+        Node<V> current = root;
+        while (current != null && current.key != key) {
+            current = key < current.key ? current.left : current.right;
+        }
+        return current == null ? null : current.value;
+    }
+
+    /**
+     * @return a map where the key is mapped to the value
+     */
+    public PersistentIntMap<V> with(int key, V value) {
+        return new PersistentIntMap<>(put(root, key, Objects.requireNonNull(value)));
+    }
+
+    /**
+     * @return a map without the key, or this map if the key is absent
+     */
+    public PersistentIntMap<V> without(int key) {
+        if (!containsKey(key)) {
+            return this;
+        }
+        Node<V> updated = remove(root, key);
+        return updated == null ? empty() : new PersistentIntMap<>(updated);
+    }
+
+    /**
+     * Read-only list view of the values in ascending key order, {@code get} takes O(log n).
+     */
+    public List<V> values() {
+        return new AbstractList<>() {
+            @Override
+            public V get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return valueAt(root, index);
+            }
+
+            @Override
+            public int size() {
+                return PersistentIntMap.this.size();
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                return new InOrderIterator<>(root);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return values().toString();
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static <V> V valueAt(Node<V> node, int index) {
+        Node<V> current = node;
+        int remaining = index;
+        while (true) {
+            int leftSize = size(current.left);
+            if (remaining < leftSize) {
+                current = current.left;
+            } else if (remaining == leftSize) {
+                return current.value;
+            } else {
+                remaining -= leftSize + 1;
+                current = current.right;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Node<V> build(int[] keys, Object[] values, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        return new Node<>(keys[middle], (V) values[middle],
+                build(keys, values, from, middle),
+                build(keys, values, middle + 1, to));
+    }
+
+    private static <V> Node<V> put(Node<V> node, int key, V value) {
+        if (node == null) {
+            return new Node<>(key, value, null, null);
+        }
+        if (key < node.key) {
+            return balance(node.key, node.value, put(node.left, key, value), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, put(node.right, key, value));
+        }
+        return new Node<>(key, value, node.left, node.right);
+    }
+
+    private static <V> Node<V> remove(Node<V> node, int key) {
+        if (key < node.key) {
+            return balance(node.key, node.value, remove(node.left, key), node.right);
+        }
+        if (key > node.key) {
+            return balance(node.key, node.value, node.left, remove(node.right, key));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+
+        Node<V> min = node.right;
+        while (min.left != null) {
+            min = min.left;
+        }
+        return balance(min.key, min.value, node.left, remove(node.right, min.key));
+    }
+
+    private static <V> Node<V> balance(int key, V value, Node<V> left, Node<V> right) {
+        int difference = height(left) - height(right);
+
+        if (difference > 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.key, left.value, left.left, new Node<>(key, value, left.right, right));
+            }
+            Node<V> pivot = left.right;
+            return new Node<>(pivot.key, pivot.value,
+                    new Node<>(left.key, left.value, left.left, pivot.left),
+                    new Node<>(key, value, pivot.right, right));
+        }
+        if (difference < -1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.key, right.value, new Node<>(key, value, left, right.left), right.right);
+            }
+            Node<V> pivot = right.left;
+            return new Node<>(pivot.key, pivot.value,
+                    new Node<>(key, value, left, pivot.left),
+                    new Node<>(right.key, right.value, pivot.right, right.right));
+        }
+        return new Node<>(key, value, left, right);
+    }
+
+    private static final class Node<V> {
+        private final int key;
+        private final V value;
+        private final Node<V> left;
+        private final Node<V> right;
+        private final int height;
+        private final int size;
+
+        Node(int key, V value, Node<V> left, Node<V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = Math.max(height(left), height(right)) + 1;
+            this.size = size(left) + size(right) + 1;
+        }
+    }
+
+    private static final class InOrderIterator<V> implements Iterator<V> {
+        private final Object[] stack;
+        private int depth;
+
+        InOrderIterator(Node<V> root) {
+            stack = new Object[height(root)];
+            pushLeft(root);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return depth > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (depth == 0) {
+                throw new NoSuchElementException();
+            }
+            Node<V> node = (Node<V>) stack[--depth];
+            pushLeft(node.right);
+            return node.value;
+        }
+
+        private void pushLeft(Node<V> node) {
+            for (Node<V> current = node; current != null; current = current.left) {
+                stack[depth++] = current;
+            }
+        }
+    }
+}
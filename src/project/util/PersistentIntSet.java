@@ -0,0 +1,139 @@
+package project.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable set of {@code int} values that iterates in insertion order.
+ * <p>
+ * Values are kept in two {@link PersistentIntMap}s: one orders them by a sequence number given on insertion, the
+ * other maps every value to its sequence number. Adding or removing a value copies only the O(log n) nodes on its
+ * paths and shares the rest of both trees with the original set, so derived sets are cheap and the original never
+ * changes.
+ */
+public final class PersistentIntSet {
+    public static final PersistentIntSet EMPTY =
+            new PersistentIntSet(PersistentIntMap.empty(), PersistentIntMap.empty(), 0);
+
+    private final PersistentIntMap<Integer> bySequence;
+    private final PersistentIntMap<Integer> byValue;
+    private final int nextSequence;
+
+    private PersistentIntSet(PersistentIntMap<Integer> bySequence, PersistentIntMap<Integer> byValue,
+                             int nextSequence) {
+        this.bySequence = bySequence;
+        this.byValue = byValue;
+        this.nextSequence = nextSequence;
+    }
+
+    /**
+     * Set of the given values in their order; repeated values are kept once, at their first position.
+     */
+    public static PersistentIntSet of(Collection<Integer> values) {
+        if (values.isEmpty()) {
+            return EMPTY;
+        }
+
+        IntHashSet seen = new IntHashSet(values.size());
+        int[] distinct = new int[values.size()];
+        int count = 0;
+        for (int value : values) {
+            if (seen.add(value)) {
+                distinct[count++] = value;
+            }
+        }
+
+        int[] sequences = new int[count];
+        Integer[] distinctValues = new Integer[count];
+        long[] valueSequencePairs = new long[count];
+        for (int i = 0; i < count; i++) {
+            sequences[i] = i;
+            distinctValues[i] = distinct[i];
+            valueSequencePairs[i] = (long) distinct[i] << Integer.SIZE | i;
+        }
+        Arrays.sort(valueSequencePairs);
+
+        int[] sortedValues = new int[count];
+        Integer[] sortedSequences = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sortedValues[i] = (int) (valueSequencePairs[i] >> Integer.SIZE);
+            sortedSequences[i] = (int) valueSequencePairs[i];
+        }
+
+        return new PersistentIntSet(
+                PersistentIntMap.ofSorted(sequences, distinctValues, count),
+                PersistentIntMap.ofSorted(sortedValues, sortedSequences, count),
+                count);
+    }
+
+    public int size() {
+        return bySequence.size();
+    }
+
+    public boolean isEmpty() {
+        return bySequence.isEmpty();
+    }
+
+    public boolean contains(int value) {
+        return byValue.containsKey(value);
+    }
+
+    /**
+     * @return a set with the value appended, or this set if the value is already present
+     */
+    public PersistentIntSet with(int value) {
+        if (contains(value)) {
+            return this;
+        }
+        return new PersistentIntSet(
+                bySequence.with(nextSequence, value),
+                byValue.with(value, nextSequence),
+                nextSequence + 1);
+    }
+
+    /**
+     * @return a set without the value, or this set if the value is absent
+     */
+    public PersistentIntSet without(int value) {
+        Integer sequence = byValue.get(value);
+        if (sequence == null) {
+            return this;
+        }
+        if (size() == 1) {
+            return EMPTY;
+        }
+        return new PersistentIntSet(
+                bySequence.without(sequence),
+                byValue.without(value),
+                nextSequence);
+    }
+
+    /**
+     * Read-only list view in insertion order, {@code get} takes O(log n).
+     */
+    public List<Integer> asList() {
+        return bySequence.values();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PersistentIntSet other)) {
+            return false;
+        }
+        return asList().equals(other.asList());
+    }
+
+    @Override
+    public int hashCode() {
+        return asList().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+}
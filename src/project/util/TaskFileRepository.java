@@ -1,67 +1,73 @@
 package project.util;
 
+import project.enums.LoadStrategy;
 import project.exception.ManagerSaveException;
-import project.mapper.AbstractTaskSerializer;
+import project.mapper.CsvTaskCodec;
+import project.mapper.TaskCodec;
+import project.mapper.TaskCodecs;
 import project.model.AbstractTask;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.StandardOpenOption;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Consumer;
 
 import static project.exception.TaskExceptionMessage.ERROR_READING_FILE;
 import static project.exception.TaskExceptionMessage.ERROR_SAVING_DATA;
-import static project.exception.TaskExceptionMessage.FILE_SHOULD_START_WITH;
 
 public class TaskFileRepository {
-    public static final String CSV_HEADER = "id,type,name,status,description,additional";
-
     private TaskFileRepository() {
     }
 
-    public static void saveTasks(File file, List<List<AbstractTask>> taskList) {
-        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8,
+    /**
+     * Writes tasks one by one as the iterable yields them, so a live view of the storage can be written without
+     * copying it first.
+     */
+    public static void writeTasks(File file, Iterable<? extends AbstractTask> tasks, TaskCodec codec) {
+        try (OutputStream out = Files.newOutputStream(file.toPath(),
                 StandardOpenOption.CREATE,
                 StandardOpenOption.TRUNCATE_EXISTING)) {
-
-            writer.write(CSV_HEADER);
-
-            for (List<AbstractTask> list : taskList) {
-                for (AbstractTask task : list) {
-                    String serializedTask = AbstractTaskSerializer.serialize(task);
-                    writer.newLine();
-                    writer.write(serializedTask);
-                }
-            }
-
+            codec.write(out, tasks);
         } catch (IOException e) {
             throw new ManagerSaveException(ERROR_SAVING_DATA, e);
         }
     }
 
-    public static List<AbstractTask> getTasks(File file) {
-        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
-            List<AbstractTask> list = new ArrayList<>();
-
-            String line = reader.readLine();
+    /**
+     * Pushes every task of the file to {@code consumer} as soon as it is decoded instead of collecting them.
+     * The reader strategy recognizes the format by its header, the mapped and parallel ones decode CSV themselves.
+     * The parallel strategy decodes the whole file before the first task is pushed.
+     */
+    public static void readTasks(File file, LoadStrategy strategy, Consumer<? super AbstractTask> consumer) {
+        switch (strategy) {
+            case READER -> read(file, detectCodec(file), consumer);
+            case MAPPED -> MappedTaskFileReader.readTasks(file, consumer);
+            case PARALLEL -> ParallelTaskFileLoader.load(file).getTasks().forEach(consumer);
+        }
+    }
 
-            if (line != null && line.trim().equals(CSV_HEADER)) {
-                line = reader.readLine();
-            } else {
-                throw new ManagerSaveException(FILE_SHOULD_START_WITH + CSV_HEADER);
-            }
+    public static TaskCodec detectCodec(File file) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            byte[] header = in.readNBytes(TaskCodecs.HEADER_PROBE_LENGTH);
+            return TaskCodecs.detect(header, header.length);
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_READING_FILE, e);
+        }
+    }
 
-            while (line != null && !line.isEmpty()) {
-                list.add(AbstractTaskSerializer.deserialize(line));
-                line = reader.readLine();
-            }
+    /**
+     * The mapped and parallel loaders only understand CSV and hand other formats over to the codec.
+     */
+    public static boolean isCsv(File file) {
+        return detectCodec(file).getName().equals(CsvTaskCodec.NAME);
+    }
 
-            return list;
+    private static void read(File file, TaskCodec codec, Consumer<? super AbstractTask> consumer) {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            codec.read(in, consumer);
         } catch (IOException e) {
             throw new ManagerSaveException(ERROR_READING_FILE, e);
         }
@@ -0,0 +1,307 @@
+package project.util;
+
+import project.exception.ManagerSaveException;
+import project.mapper.JournalEntrySerializer;
+import project.mapper.TaskCodec;
+import project.model.AbstractTask;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import static project.exception.TaskExceptionMessage.ERROR_COMPACTING_JOURNAL;
+import static project.exception.TaskExceptionMessage.ERROR_READING_FILE;
+import static project.exception.TaskExceptionMessage.ERROR_WRITING_JOURNAL;
+
+/**
+ * Append-only log of changes made on top of a snapshot file.
+ * <p>
+ * The journal lives next to the snapshot ({@code tasks.csv.journal}). When it grows past a threshold it is rotated
+ * to {@code tasks.csv.journal.prev} and a fresh snapshot is written in the background; the rotated part is removed
+ * once the new snapshot is in place. Replaying a journal part twice is harmless, so a crash at any point of the
+ * compaction leaves a loadable state.
+ */
+public class TaskJournal implements Closeable {
+    public static final String JOURNAL_EXTENSION = ".journal";
+    public static final String ROTATED_JOURNAL_EXTENSION = ".journal.prev";
+    private static final String SNAPSHOT_TMP_EXTENSION = ".tmp";
+
+    private final Path snapshotPath;
+    private final Path journalPath;
+    private final Path rotatedJournalPath;
+    private final TaskCodec snapshotCodec;
+    private final boolean durableWrites;
+    private final ExecutorService compactor;
+    private FileOutputStream output;
+    private BufferedWriter writer;
+    private int recordCount;
+    private Future<?> compaction = CompletableFuture.completedFuture(null);
+
+    public TaskJournal(File snapshotFile, PersistenceSettings settings) {
+        this.snapshotCodec = settings.getSnapshotCodec();
+        this.durableWrites = settings.isDurableWrites();
+        this.snapshotPath = snapshotFile.toPath();
+        this.journalPath = Path.of(snapshotFile.getPath() + JOURNAL_EXTENSION);
+        this.rotatedJournalPath = Path.of(snapshotFile.getPath() + ROTATED_JOURNAL_EXTENSION);
+        this.compactor = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().daemon().name("task-journal-compactor").factory());
+    }
+
+    /**
+     * Streams every journal record, oldest first, without building the state. Reading the snapshot before and
+     * applying the entries on top of it is up to the caller.
+     */
+    public static void replay(File snapshotFile, Consumer<? super JournalEntry> entryConsumer) {
+        replayJournal(Path.of(snapshotFile.getPath() + ROTATED_JOURNAL_EXTENSION), entryConsumer);
+        replayJournal(Path.of(snapshotFile.getPath() + JOURNAL_EXTENSION), entryConsumer);
+    }
+
+    public static boolean exists(File snapshotFile) {
+        return Files.exists(Path.of(snapshotFile.getPath() + JOURNAL_EXTENSION))
+                || Files.exists(Path.of(snapshotFile.getPath() + ROTATED_JOURNAL_EXTENSION));
+    }
+
+    /**
+     * Writes {@code state} as the new snapshot and drops the journal that led to it.
+     */
+    public static void fold(File snapshotFile, Iterable<? extends AbstractTask> state, TaskCodec codec) {
+        try {
+            writeSnapshot(snapshotFile.toPath(), state, codec);
+            Files.deleteIfExists(Path.of(snapshotFile.getPath() + ROTATED_JOURNAL_EXTENSION));
+            Files.deleteIfExists(Path.of(snapshotFile.getPath() + JOURNAL_EXTENSION));
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_WRITING_JOURNAL, e);
+        }
+    }
+
+    /**
+     * Continues an existing journal, e.g. right after {@link #replay(File, Consumer)}. A torn last record, which
+     * replay has skipped, is cut off first, so the next record does not get glued to it.
+     */
+    public void open() {
+        try {
+            if (Files.exists(journalPath)) {
+                try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE)) {
+                    channel.truncate(endOfLastRecord(channel));
+                }
+            }
+            recordCount = countRecords(journalPath);
+            output = new FileOutputStream(journalPath.toFile(), true);
+            writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_WRITING_JOURNAL, e);
+        }
+    }
+
+    /**
+     * Discards whatever is on disk and starts a new journal on top of a snapshot of the given state.
+     */
+    public void reset(Iterable<? extends AbstractTask> state) {
+        awaitCompaction();
+        closeWriter();
+        fold(snapshotPath.toFile(), state, snapshotCodec);
+        open();
+    }
+
+    public void append(List<JournalEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (JournalEntry entry : entries) {
+                JournalEntrySerializer.serialize(entry, writer);
+                writer.newLine();
+            }
+            writer.flush();
+            if (durableWrites) {
+                output.getChannel().force(false);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_WRITING_JOURNAL, e);
+        }
+        recordCount += entries.size();
+    }
+
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Rotates the journal and folds it into a new snapshot of {@code state} on the background thread.
+     * The state must be the one produced by every entry appended so far and must not change afterwards, since it is
+     * read on the background thread. Does nothing while the previous compaction is still running.
+     */
+    public void compact(Iterable<? extends AbstractTask> state) {
+        if (isCompacting()) {
+            return;
+        }
+
+        closeWriter();
+        try {
+            if (Files.exists(rotatedJournalPath)) {
+                // previous compaction has failed, keep its part of the journal until a snapshot succeeds
+                try (InputStream journal = Files.newInputStream(journalPath)) {
+                    Files.write(rotatedJournalPath, journal.readAllBytes(), StandardOpenOption.APPEND);
+                }
+                Files.deleteIfExists(journalPath);
+            } else if (Files.exists(journalPath)) {
+                Files.move(journalPath, rotatedJournalPath, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_COMPACTING_JOURNAL, e);
+        }
+        open();
+
+        compaction = compactor.submit(() -> {
+            try {
+                writeSnapshot(snapshotPath, state, snapshotCodec);
+                Files.deleteIfExists(rotatedJournalPath);
+            } catch (IOException e) {
+                throw new ManagerSaveException(ERROR_COMPACTING_JOURNAL, e);
+            }
+        });
+    }
+
+    public void awaitCompaction() {
+        try {
+            compaction.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ManagerSaveException(ERROR_COMPACTING_JOURNAL, e);
+        } catch (ExecutionException e) {
+            throw new ManagerSaveException(ERROR_COMPACTING_JOURNAL, e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            awaitCompaction();
+        } finally {
+            compactor.shutdown();
+            closeWriter();
+        }
+    }
+
+    private boolean isCompacting() {
+        return !compaction.isDone();
+    }
+
+    private static void writeSnapshot(Path snapshotPath, Iterable<? extends AbstractTask> state,
+                                      TaskCodec codec) throws IOException {
+        Path tmpPath = Path.of(snapshotPath + SNAPSHOT_TMP_EXTENSION);
+        TaskFileRepository.writeTasks(tmpPath.toFile(), state, codec);
+        Files.move(tmpPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void closeWriter() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_WRITING_JOURNAL, e);
+        } finally {
+            writer = null;
+            output = null;
+        }
+    }
+
+    private static void replayJournal(Path path, Consumer<? super JournalEntry> entryConsumer) {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            boolean tornTail;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                tornTail = endOfLastRecord(channel) < channel.size();
+            }
+            String line = reader.readLine();
+
+            while (line != null) {
+                String next = reader.readLine();
+                if (next == null && tornTail) {
+                    // torn write of the last record, the change was never acknowledged
+                    break;
+                }
+                if (!line.isEmpty()) {
+                    entryConsumer.accept(JournalEntrySerializer.deserialize(line));
+                }
+                line = next;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(ERROR_READING_FILE, e);
+        }
+    }
+
+    /**
+     * Every record is written with its line break, so whatever follows the last one is a torn record.
+     *
+     * @return the offset right after the last line break, or 0 if there is none
+     */
+    private static long endOfLastRecord(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = channel.size();
+
+        while (end > 0) {
+            long start = Math.max(0, end - buffer.capacity());
+            buffer.clear().limit((int) (end - start));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new EOFException();
+                }
+            }
+            for (int i = buffer.limit() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private static int countRecords(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        int count = 0;
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,53 @@
+package project.util;
+
+import project.model.AbstractTask;
+
+import java.util.List;
+
+public class TaskLoadResult {
+    private final List<AbstractTask> tasks;
+    private final int maxId;
+    private final boolean uniqueIds;
+    private final LoadStatistics statistics;
+
+    public TaskLoadResult(List<AbstractTask> tasks, LoadStatistics statistics) {
+        this(tasks, findMaxId(tasks), false, statistics);
+    }
+
+    /**
+     * @param uniqueIds whether the loader has already checked that no two tasks share an id
+     */
+    public TaskLoadResult(List<AbstractTask> tasks, int maxId, boolean uniqueIds, LoadStatistics statistics) {
+        this.tasks = tasks;
+        this.maxId = maxId;
+        this.uniqueIds = uniqueIds;
+        this.statistics = statistics;
+    }
+
+    public List<AbstractTask> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * @return the greatest id among the loaded tasks, 0 if nothing was loaded
+     */
+    public int getMaxId() {
+        return maxId;
+    }
+
+    public boolean hasUniqueIds() {
+        return uniqueIds;
+    }
+
+    public LoadStatistics getStatistics() {
+        return statistics;
+    }
+
+    private static int findMaxId(List<AbstractTask> tasks) {
+        int maxId = 0;
+        for (AbstractTask task : tasks) {
+            maxId = Math.max(maxId, task.getId());
+        }
+        return maxId;
+    }
+}
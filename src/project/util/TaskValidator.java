@@ -1,6 +1,7 @@
 package project.util;
 
 import project.exception.EntityAlreadyExistsException;
+import project.model.AbstractTask;
 import project.model.Epic;
 import project.model.Subtask;
 import project.model.Task;
@@ -11,6 +12,7 @@ import static project.exception.TaskExceptionMessage.ID_SHOULD_BE_DEFAULT;
 import static project.exception.TaskExceptionMessage.NEW_EPIC_SHOULD_BE_EMPTY;
 import static project.exception.TaskExceptionMessage.NEW_EPIC_SHOULD_HAVE_DEFAULT_STATUS;
 import static project.exception.TaskExceptionMessage.SUBTASK_SHOULD_HAVE_EQUAL_EPICS;
+import static project.exception.TaskExceptionMessage.TEXT_SHOULD_NOT_CONTAIN_LINE_BREAKS;
 import static project.util.AbstractTaskBuilder.DEFAULT_ID;
 import static project.util.AbstractTaskBuilder.DEFAULT_STATUS;
 
@@ -18,15 +20,18 @@ public class TaskValidator {
 
     public void validateNewTask(Task task) {
         validateId(task.getId());
+        validateText(task);
     }
 
     public void validateNewSubTask(Subtask subtask) {
         validateId(subtask.getId());
         validateId(subtask.getEpicId());
+        validateText(subtask);
     }
 
     public void validateNewEpic(Epic epic) {
         validateId(epic.getId());
+        validateText(epic);
 
         if (!epic.getSubtaskIds().isEmpty()) {
             throw new InvalidParameterException(NEW_EPIC_SHOULD_BE_EMPTY);
@@ -42,6 +47,20 @@ public class TaskValidator {
         }
     }
 
+    /**
+     * Every file format keeps one entity per line, so a line break in the name or description would make the file
+     * unreadable.
+     */
+    public void validateText(AbstractTask task) {
+        if (hasLineBreak(task.getName()) || hasLineBreak(task.getDescription())) {
+            throw new InvalidParameterException(TEXT_SHOULD_NOT_CONTAIN_LINE_BREAKS + task.getId());
+        }
+    }
+
+    private static boolean hasLineBreak(String text) {
+        return text != null && (text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0);
+    }
+
     private void validateId(int id) {
         if (id != DEFAULT_ID) {
             throw new EntityAlreadyExistsException(ID_SHOULD_BE_DEFAULT + id);
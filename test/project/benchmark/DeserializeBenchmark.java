@@ -0,0 +1,51 @@
+package project.benchmark;
+
+import project.mapper.AbstractTaskSerializer;
+import project.model.AbstractTask;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Measures time and heap allocated per record by {@link AbstractTaskSerializer#deserialize(String)}.
+ * Allocation is read from the HotSpot thread allocation counter, the strings and the entity itself are the expected
+ * part of it.
+ * <p>
+ * Run with e.g. {@code java project.benchmark.DeserializeBenchmark 1000000}.
+ */
+public class DeserializeBenchmark {
+    private static final int WARMUP_ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<String> records = InitializeBenchmark.createBoard(size).stream()
+                .map(AbstractTaskSerializer::serialize)
+                .toList();
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            deserialize(records);
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        long checksum = deserialize(records);
+        long elapsedNanos = System.nanoTime() - startedAt;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%,d records: %6.1f ns/record, %6.1f bytes/record (checksum %d)%n",
+                records.size(), (double) elapsedNanos / records.size(), (double) allocated / records.size(), checksum);
+    }
+
+    private static long deserialize(List<String> records) {
+        long checksum = 0;
+        for (String record : records) {
+            AbstractTask task = AbstractTaskSerializer.deserialize(record);
+            checksum += task.getId();
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,85 @@
+package project.benchmark;
+
+import project.enums.Status;
+import project.manager.InMemoryHistoryManager;
+import project.manager.InMemoryTaskManager;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.TaskValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures how long {@link InMemoryTaskManager} takes to take over a loaded board of growing size.
+ * Time per entity should stay flat when loading is linear.
+ * <p>
+ * Run with a large heap, e.g. {@code java -Xmx8g project.benchmark.InitializeBenchmark 10000000}.
+ */
+public class InitializeBenchmark {
+    private static final int SUBTASKS_PER_EPIC = 9;
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int maxSize = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            load(createBoard(100_000));
+        }
+
+        for (int size = 10_000; size <= maxSize; size *= 10) {
+            List<AbstractTask> board = createBoard(size);
+            long elapsedNanos = load(board);
+            System.out.printf("%,12d entities: %,10.1f ms, %6.1f ns/entity%n",
+                    board.size(), elapsedNanos / 1_000_000.0, (double) elapsedNanos / board.size());
+        }
+    }
+
+    private static long load(List<AbstractTask> board) {
+        long startedAt = System.nanoTime();
+        InMemoryTaskManager manager = new InMemoryTaskManager(new TaskValidator(), new InMemoryHistoryManager(),
+                board);
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        if (manager.getEpics().isEmpty()) {
+            throw new IllegalStateException("Board was not loaded");
+        }
+        return elapsedNanos;
+    }
+
+    static List<AbstractTask> createBoard(int size) {
+        List<AbstractTask> board = new ArrayList<>(size);
+        int id = 1;
+
+        while (board.size() + SUBTASKS_PER_EPIC + 2 <= size) {
+            board.add(new Task.Builder()
+                    .setId(id++)
+                    .setName("Task " + id)
+                    .setDescription("Task description")
+                    .setStatus(Status.values()[id % 3])
+                    .build());
+
+            int epicId = id++;
+            List<Integer> subtaskIds = new ArrayList<>(SUBTASKS_PER_EPIC);
+            for (int i = 0; i < SUBTASKS_PER_EPIC; i++) {
+                int subtaskId = id++;
+                subtaskIds.add(subtaskId);
+                board.add(new Subtask.Builder()
+                        .setId(subtaskId)
+                        .setName("Subtask " + subtaskId)
+                        .setDescription("Subtask description")
+                        .setEpicId(epicId)
+                        .build());
+            }
+            board.add(new Epic.Builder()
+                    .setId(epicId)
+                    .setName("Epic " + epicId)
+                    .setDescription("Epic description")
+                    .setSubtaskIds(subtaskIds)
+                    .build());
+        }
+        return board;
+    }
+}
@@ -0,0 +1,110 @@
+package project.benchmark;
+
+import project.util.IntObjectHashMap;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * Compares {@link IntObjectHashMap} with {@code HashMap<Integer, V>} as storage keyed by task id: retained heap per
+ * entry and random lookup throughput. All entries share one value, so only the map structure itself is measured.
+ * Retained heap is the difference of used heap after full collections, which is close to what JOL reports for the
+ * object graph of the map when nothing else allocates in between.
+ * <p>
+ * Run with a fixed heap, e.g. {@code java -Xms4g -Xmx4g project.benchmark.IntMapBenchmark 10000000}.
+ */
+public class IntMapBenchmark {
+    private static final Object VALUE = new Object();
+    private static final int LOOKUPS = 20_000_000;
+    private static final int WARMUP_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+
+        System.out.printf("%,d entries%n", size);
+        measure("HashMap<Integer, V>", size, IntMapBenchmark::fillHashMap, IntMapBenchmark::lookUpHashMap);
+        measure("IntObjectHashMap<V>", size, IntMapBenchmark::fillIntMap, IntMapBenchmark::lookUpIntMap);
+    }
+
+    private static <M> void measure(String name, int size, IntFunction<M> fill, Lookup<M> lookup) {
+        long usedBefore = usedHeapAfterGc();
+        M map = fill.apply(size);
+        long retainedBytes = usedHeapAfterGc() - usedBefore;
+
+        int[] keys = randomKeys(size);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            lookup.run(map, keys);
+        }
+        long startedAt = System.nanoTime();
+        int found = lookup.run(map, keys);
+        long elapsedNanos = System.nanoTime() - startedAt;
+
+        if (found != keys.length) {
+            throw new IllegalStateException("Lost entries in " + name);
+        }
+        System.out.printf("%-20s %8.1f bytes/entry, %6.1f ns/lookup%n",
+                name, (double) retainedBytes / size, (double) elapsedNanos / keys.length);
+    }
+
+    private static Map<Integer, Object> fillHashMap(int size) {
+        Map<Integer, Object> map = new HashMap<>();
+        for (int id = 1; id <= size; id++) {
+            map.put(id, VALUE);
+        }
+        return map;
+    }
+
+    private static IntObjectHashMap<Object> fillIntMap(int size) {
+        IntObjectHashMap<Object> map = new IntObjectHashMap<>();
+        for (int id = 1; id <= size; id++) {
+            map.put(id, VALUE);
+        }
+        return map;
+    }
+
+    private static int lookUpHashMap(Map<Integer, Object> map, int[] keys) {
+        int found = 0;
+        for (int key : keys) {
+            if (map.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static int lookUpIntMap(IntObjectHashMap<Object> map, int[] keys) {
+        int found = 0;
+        for (int key : keys) {
+            if (map.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static int[] randomKeys(int size) {
+        Random random = new Random(42);
+        int[] keys = new int[LOOKUPS];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = 1 + random.nextInt(size);
+        }
+        return keys;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @FunctionalInterface
+    private interface Lookup<M> {
+        int run(M map, int[] keys);
+    }
+}
@@ -0,0 +1,128 @@
+package project.benchmark;
+
+import project.manager.InMemoryHistoryManager;
+import project.manager.InMemoryTaskManager;
+import project.model.AbstractTask;
+import project.model.Task;
+import project.util.TaskValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Measures {@link InMemoryTaskManager#search(String)} on a board of generated tasks against a scan with
+ * {@code String.contains} over {@code getTasks()}, which is what clients did before the index. Words are drawn
+ * from a skewed vocabulary, so queries hit both frequent and rare posting lists.
+ * <p>
+ * Run with a large heap, e.g. {@code java -Xmx4g project.benchmark.SearchBenchmark 1000000}.
+ */
+public class SearchBenchmark {
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int NAME_WORDS = 4;
+    private static final int DESCRIPTION_WORDS = 12;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] vocabulary = createVocabulary();
+
+        List<AbstractTask> board = createBoard(size, vocabulary);
+        long startedAt = System.nanoTime();
+        InMemoryTaskManager manager = new InMemoryTaskManager(new TaskValidator(), new InMemoryHistoryManager(),
+                board);
+        System.out.printf("%,d entities loaded and indexed in %,.0f ms%n",
+                size, (System.nanoTime() - startedAt) / 1_000_000.0);
+
+        String frequent = vocabulary[0];
+        String rare = vocabulary[VOCABULARY_SIZE / 2];
+        measure(manager, "frequent term", frequent);
+        measure(manager, "rare term", rare);
+        measure(manager, "two terms (AND)", frequent + " " + vocabulary[1]);
+        measure(manager, "prefix", frequent.substring(0, 3) + "*");
+        measureScan(manager, "contains scan", rare);
+    }
+
+    private static void measure(InMemoryTaskManager manager, String label, String query) {
+        int found = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            found = manager.search(query).size();
+        }
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            found = manager.search(query).size();
+        }
+        report(label, query, found, System.nanoTime() - startedAt);
+    }
+
+    private static void measureScan(InMemoryTaskManager manager, String label, String word) {
+        int found = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            found = scan(manager, word);
+        }
+
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            found = scan(manager, word);
+        }
+        report(label, word, found, System.nanoTime() - startedAt);
+    }
+
+    private static int scan(InMemoryTaskManager manager, String word) {
+        int found = 0;
+        for (Task task : manager.getTasks()) {
+            if (task.getName().toLowerCase(Locale.ROOT).contains(word)
+                    || task.getDescription().toLowerCase(Locale.ROOT).contains(word)) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static void report(String label, String query, int found, long elapsedNanos) {
+        System.out.printf("%-16s %-22s %,9d hits %,10.3f ms/query%n",
+                label, '"' + query + '"', found, elapsedNanos / 1_000_000.0 / MEASURED_ROUNDS);
+    }
+
+    private static List<AbstractTask> createBoard(int size, String[] vocabulary) {
+        Random random = new Random(17);
+        List<AbstractTask> board = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            board.add(new Task.Builder()
+                    .setId(id)
+                    .setName(randomText(random, vocabulary, NAME_WORDS))
+                    .setDescription(randomText(random, vocabulary, DESCRIPTION_WORDS))
+                    .build());
+        }
+        return board;
+    }
+
+    /**
+     * Zipf-like choice: the word at rank r is picked roughly in proportion to 1 / r.
+     */
+    private static String randomText(Random random, String[] vocabulary, int wordCount) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            int rank = (int) Math.pow(VOCABULARY_SIZE, random.nextDouble()) - 1;
+            text.append(i == 0 ? "" : " ").append(vocabulary[rank]);
+        }
+        return text.toString();
+    }
+
+    private static String[] createVocabulary() {
+        Random random = new Random(1);
+        String[] vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < vocabulary.length; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            vocabulary[i] = word.toString();
+        }
+        return vocabulary;
+    }
+}
@@ -0,0 +1,86 @@
+package project.benchmark;
+
+import project.manager.InMemoryHistoryManager;
+import project.manager.UserHistoryService;
+import project.model.AbstractTask;
+import project.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Retained heap per user of one {@link InMemoryHistoryManager} per user against a shared {@link UserHistoryService},
+ * with every user viewing {@value #VIEWS_PER_USER} random tasks of a board. Task objects are shared by all
+ * histories and created before the first measurement, so only the history structures are counted. Managers are
+ * measured as the difference of used heap after full collections, the service reports its own footprint, which is
+ * exact. The service is measured twice: with every user resident, and with a quarter of them resident and the rest
+ * spilled to disk.
+ * <p>
+ * Run with a fixed heap, e.g. {@code java -Xms2g -Xmx2g project.benchmark.UserHistoryBenchmark 100000}.
+ */
+public class UserHistoryBenchmark {
+    private static final int CAPACITY = 10;
+    private static final int VIEWS_PER_USER = 10;
+    private static final int BOARD_SIZE = 100_000;
+
+    public static void main(String[] args) throws IOException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        AbstractTask[] board = new AbstractTask[BOARD_SIZE];
+        for (int i = 0; i < board.length; i++) {
+            board[i] = new Task.Builder().setId(i + 1).setName("Task").build();
+        }
+        System.out.printf("%,d users, %d views each%n", users, VIEWS_PER_USER);
+
+        long usedBefore = usedHeapAfterGc();
+        Map<Integer, InMemoryHistoryManager> managers = new HashMap<>();
+        long startedAt = System.nanoTime();
+        Random random = new Random(29);
+        for (int userId = 0; userId < users; userId++) {
+            InMemoryHistoryManager manager = new InMemoryHistoryManager();
+            for (int i = 0; i < VIEWS_PER_USER; i++) {
+                manager.add(board[random.nextInt(BOARD_SIZE)]);
+            }
+            managers.put(userId, manager);
+        }
+        report("manager per user", users, usedHeapAfterGc() - usedBefore, System.nanoTime() - startedAt, 0);
+        managers.clear();
+
+        measureService("shared service", users, users);
+        measureService("service, 25% resident", users, users / 4);
+    }
+
+    private static void measureService(String label, int users, int residentUsers) throws IOException {
+        File spillFile = File.createTempFile("user_history_benchmark", ".spill");
+        spillFile.deleteOnExit();
+
+        long startedAt = System.nanoTime();
+        try (UserHistoryService service = new UserHistoryService(CAPACITY, residentUsers, spillFile.toPath())) {
+            Random random = new Random(29);
+            for (int userId = 0; userId < users; userId++) {
+                for (int i = 0; i < VIEWS_PER_USER; i++) {
+                    service.add(userId, random.nextInt(BOARD_SIZE) + 1);
+                }
+            }
+            long elapsedNanos = System.nanoTime() - startedAt;
+            report(label, users, service.getMemoryFootprint(), elapsedNanos, service.getSpillFileSize());
+        }
+    }
+
+    private static void report(String label, int users, long retainedBytes, long elapsedNanos, long spilledBytes) {
+        System.out.printf("%-22s %7.1f bytes/user in heap, %6.1f ns/view, %,d bytes spilled%n",
+                label, (double) retainedBytes / users, (double) elapsedNanos / users / VIEWS_PER_USER, spilledBytes);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,66 @@
+package project.manager;
+
+import org.junit.jupiter.api.Test;
+import project.model.AbstractTask;
+import project.model.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedHistoryManagerTest {
+
+    @Test
+    void oldestEntriesShouldBeEvictedWhenCapacityIsReached() {
+        BoundedHistoryManager historyManager = new BoundedHistoryManager(3);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            tasks.add(new Task.Builder().setId(i).setName("Task " + i).build());
+        }
+
+        historyManager.add(tasks.get(0));
+        historyManager.add(tasks.get(1));
+        historyManager.add(tasks.get(2));
+        historyManager.add(tasks.get(0));
+        historyManager.add(tasks.get(3));
+
+        assertEquals(List.of(tasks.get(2), tasks.get(0), tasks.get(3)), historyManager.getDefaultHistory());
+
+        historyManager.remove(1);
+        historyManager.add(tasks.get(4));
+        historyManager.add(tasks.get(1));
+        assertEquals(List.of(tasks.get(3), tasks.get(4), tasks.get(1)), historyManager.getDefaultHistory());
+        assertEquals(List.of(tasks.get(1)), historyManager.getHistoryPage(5, 10));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedHistoryManager(0));
+    }
+
+    @Test
+    void historyShouldMatchUnboundedHistoryCutToCapacity() {
+        Random random = new Random(19);
+        BoundedHistoryManager historyManager = new BoundedHistoryManager(64);
+        Map<Integer, AbstractTask> expected = new LinkedHashMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            int id = random.nextInt(300) + 1;
+            if (random.nextInt(4) == 0) {
+                historyManager.remove(id);
+                expected.remove(id);
+            } else {
+                Task task = new Task.Builder().setId(id).setName("Task " + i).build();
+                historyManager.add(task);
+                expected.remove(id);
+                expected.put(id, task);
+                if (expected.size() > 64) {
+                    expected.remove(expected.keySet().iterator().next());
+                }
+            }
+        }
+
+        assertEquals(new ArrayList<>(expected.values()), historyManager.getDefaultHistory());
+    }
+}
@@ -0,0 +1,294 @@
+package project.manager;
+
+import org.junit.jupiter.api.Test;
+import project.enums.Status;
+import project.exception.NonexistentEntityException;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.Managers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentTaskManagerTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 5_000;
+    private static final int SHARED_EPICS = 4;
+
+    @Test
+    void concurrentChangesShouldKeepEpicsAndSubtasksConsistent() throws Exception {
+        TaskManager manager = Managers.getConcurrentTaskManager();
+        List<Integer> sharedEpicIds = new ArrayList<>();
+        for (int i = 0; i < SHARED_EPICS; i++) {
+            sharedEpicIds.add(manager.addEpic(newEpic("Shared epic " + i)).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return runRandomOperations(manager, sharedEpicIds);
+            }));
+        }
+        start.countDown();
+
+        int addedTasks = 0;
+        for (Future<Integer> result : results) {
+            addedTasks += result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(addedTasks, manager.getTasks().size(), "Every added task should be stored exactly once");
+        assertEquals(Set.copyOf(manager.getTasks()), Set.copyOf(manager.search("task")),
+                "Text index should follow concurrent changes");
+        assertConsistent(manager);
+    }
+
+    @Test
+    void idsShouldBeUniqueAcrossThreads() throws Exception {
+        TaskManager manager = Managers.getConcurrentTaskManager();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+
+        for (int thread = 0; thread < THREADS; thread++) {
+            results.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    manager.addTask(newTask("Task " + i));
+                }
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Set<Integer> ids = new HashSet<>();
+        manager.getTasks().forEach(task -> ids.add(task.getId()));
+        assertEquals(THREADS * 1_000, ids.size());
+    }
+
+    @Test
+    void historyShouldKeepViewOrderOfEachThreadAndForgetDeletedTasks() throws Exception {
+        TaskManager manager = Managers.getConcurrentTaskManager();
+        List<List<Task>> viewedByThread = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                tasks.add(manager.addTask(newTask("Task " + thread + "/" + i)));
+            }
+            viewedByThread.add(tasks);
+        }
+        List<Task> deleted = List.copyOf(viewedByThread.getFirst());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (List<Task> tasks : viewedByThread) {
+            results.add(executor.submit(() -> {
+                start.await();
+                for (Task task : tasks) {
+                    try {
+                        manager.getTaskWithNotification(task.getId());
+                    } catch (NonexistentEntityException e) {
+                        // deleted by the other thread
+                    }
+                }
+                return null;
+            }));
+        }
+        results.add(executor.submit(() -> {
+            start.await();
+            deleted.forEach(task -> manager.deleteTask(task.getId()));
+            return null;
+        }));
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        List<Integer> historyIds = manager.getHistory().stream().map(AbstractTask::getId).toList();
+        assertEquals(historyIds.size(), new HashSet<>(historyIds).size(), "History should not repeat entities");
+        for (Task task : deleted) {
+            assertFalse(historyIds.contains(task.getId()), "Deleted task is in history: " + task.getId());
+        }
+        for (List<Task> tasks : viewedByThread.subList(1, THREADS)) {
+            List<Integer> ids = tasks.stream().map(Task::getId).toList();
+            List<Integer> seen = historyIds.stream().filter(ids::contains).toList();
+            assertEquals(ids.stream().filter(seen::contains).toList(), seen, "Views of a thread lost their order");
+        }
+    }
+
+    @Test
+    void rollbackShouldKeepChangesOfOtherWriters() throws Exception {
+        TaskManager manager = Managers.getConcurrentTaskManager();
+        Task kept = manager.addTask(newTask("Kept"));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<Future<Task>> added = new ArrayList<>();
+
+        assertThrows(IllegalStateException.class, () -> manager.inTransaction(tx -> {
+            tx.addTask(newTask("Undone"));
+            tx.updateTask(new Task.Builder().fromTask(kept).setName("Renamed").build());
+            // waits for the transaction to release the stripes
+            added.add(executor.submit(() -> manager.addTask(newTask("Other writer"))));
+            tx.addTask(newTask("Also undone"));
+            throw new IllegalStateException("Abort");
+        }));
+        Task other = added.getFirst().get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(List.of("Kept", "Other writer"), manager.getTasks().stream().map(Task::getName).toList());
+        assertEquals(other, manager.getTaskWithNotification(other.getId()));
+        assertEquals(List.of(kept), manager.search("kept"));
+        assertTrue(manager.search("undone").isEmpty());
+        assertTrue(manager.search("renamed").isEmpty());
+    }
+
+    @Test
+    void rollbackShouldKeepViewsOfConcurrentReaders() throws Exception {
+        TaskManager manager = Managers.getConcurrentTaskManager();
+        Task read = manager.addTask(newTask("Read"));
+        Task viewedInTransaction = manager.addTask(newTask("Viewed in transaction"));
+        manager.getTaskWithNotification(viewedInTransaction.getId());
+        manager.getTaskWithNotification(viewedInTransaction.getId());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        assertThrows(IllegalStateException.class, () -> manager.inTransaction(tx -> {
+            tx.getTaskWithNotification(viewedInTransaction.getId());
+            tx.getTaskWithNotification(viewedInTransaction.getId());
+            tx.deleteTask(viewedInTransaction.getId());
+            try {
+                // reads do not lock, so the view is recorded while the transaction runs
+                executor.submit(() -> manager.getTaskWithNotification(read.getId())).get(60, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+            throw new IllegalStateException("Abort");
+        }));
+        executor.shutdown();
+
+        assertEquals(List.of(viewedInTransaction, read), manager.getHistory());
+        assertEquals(Set.of(viewedInTransaction, read), new HashSet<>(manager.getHottestTasks(5)));
+        assertEquals(viewedInTransaction, manager.getHottestTasks(1).getFirst());
+    }
+
+    private int runRandomOperations(TaskManager manager, List<Integer> sharedEpicIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int ownEpicId = manager.addEpic(newEpic("Own epic")).getId();
+        List<Integer> ownTaskIds = new ArrayList<>();
+        int addedTasks = 0;
+
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+            int epicId = random.nextBoolean() ? ownEpicId : sharedEpicIds.get(random.nextInt(sharedEpicIds.size()));
+
+            try {
+                switch (random.nextInt(6)) {
+                    case 0 -> manager.addSubtask(newSubtask(Status.values()[random.nextInt(3)]), epicId);
+                    case 1 -> {
+                        List<Integer> subtaskIds = manager.getEpicWithNotification(epicId).getSubtaskIds();
+                        if (!subtaskIds.isEmpty()) {
+                            Subtask subtask = manager.getSubtaskWithNotification(
+                                    subtaskIds.get(random.nextInt(subtaskIds.size())));
+                            manager.updateSubtask(new Subtask.Builder()
+                                    .fromSubtask(subtask)
+                                    .setStatus(Status.values()[random.nextInt(3)])
+                                    .build());
+                        }
+                    }
+                    case 2 -> {
+                        List<Integer> subtaskIds = manager.getEpicWithNotification(epicId).getSubtaskIds();
+                        if (!subtaskIds.isEmpty()) {
+                            manager.deleteSubtask(subtaskIds.get(random.nextInt(subtaskIds.size())));
+                        }
+                    }
+                    case 3 -> {
+                        ownTaskIds.add(manager.addTask(newTask("Task " + i)).getId());
+                        addedTasks++;
+                    }
+                    case 4 -> {
+                        if (!ownTaskIds.isEmpty()) {
+                            manager.deleteTask(ownTaskIds.removeLast());
+                            addedTasks--;
+                        }
+                    }
+                    default -> manager.getEpicSubtasks(epicId);
+                }
+            } catch (NonexistentEntityException e) {
+                // another thread removed the subtask between the read and the change
+            }
+        }
+        return addedTasks;
+    }
+
+    private void assertConsistent(TaskManager manager) {
+        Map<Integer, Subtask> subtasks = manager.getSubtasks().stream()
+                .collect(Collectors.toMap(Subtask::getId, Function.identity()));
+        Set<Integer> listedSubtaskIds = new HashSet<>();
+
+        for (Epic epic : manager.getEpics()) {
+            boolean hasNew = false;
+            boolean hasInProgress = false;
+            boolean hasDone = false;
+
+            for (int subtaskId : epic.getSubtaskIds()) {
+                Subtask subtask = subtasks.get(subtaskId);
+                assertNotNull(subtask, "Epic " + epic.getId() + " lists missing subtask " + subtaskId);
+                assertEquals(epic.getId(), subtask.getEpicId());
+                assertTrue(listedSubtaskIds.add(subtaskId), "Subtask listed twice: " + subtaskId);
+
+                hasNew |= subtask.getStatus() == Status.NEW;
+                hasInProgress |= subtask.getStatus() == Status.IN_PROGRESS;
+                hasDone |= subtask.getStatus() == Status.DONE;
+            }
+
+            Status expected = hasInProgress || (hasNew && hasDone) ? Status.IN_PROGRESS
+                    : hasDone ? Status.DONE : Status.NEW;
+            assertEquals(expected, epic.getStatus(), "Stale status of epic " + epic.getId());
+        }
+        assertEquals(subtasks.keySet(), listedSubtaskIds, "Every subtask should be listed by its epic");
+    }
+
+    private static Task newTask(String name) {
+        return new Task.Builder()
+                .setName(name)
+                .setDescription("Task description")
+                .build();
+    }
+
+    private static Epic newEpic(String name) {
+        return new Epic.Builder()
+                .setName(name)
+                .setDescription("Epic description")
+                .build();
+    }
+
+    private static Subtask newSubtask(Status status) {
+        return new Subtask.Builder()
+                .setName("Subtask")
+                .setDescription("Subtask description")
+                .setStatus(status)
+                .build();
+    }
+}
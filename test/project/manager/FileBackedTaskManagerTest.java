@@ -1,24 +1,32 @@
 package project.manager;
 
 import org.junit.jupiter.api.Test;
+import project.enums.LoadStrategy;
+import project.enums.PersistenceMode;
+import project.enums.SnapshotFormat;
 import project.enums.Status;
 import project.exception.ManagerSaveException;
+import project.mapper.CsvTaskCodec;
 import project.model.Epic;
 import project.model.Subtask;
 import project.model.Task;
+import project.util.PersistenceSettings;
+import project.util.TaskJournal;
 import project.util.TaskValidator;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static project.util.TaskFileRepository.CSV_HEADER;
+import static project.exception.TaskExceptionMessage.EPIC_HAS_INVALID_SUBTASK;
 
 class FileBackedTaskManagerTest {
 
@@ -86,7 +94,7 @@ class FileBackedTaskManagerTest {
 
         assertThrows(ManagerSaveException.class, () ->
                 FileBackedTaskManager.loadFromFile(tempFile), "Exception expected caused by wrong header");
-        Files.writeString(tempFile.toPath(), CSV_HEADER);
+        Files.writeString(tempFile.toPath(), CsvTaskCodec.HEADER);
 
         FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile);
 
@@ -119,7 +127,375 @@ class FileBackedTaskManagerTest {
         try (Stream<String> lines = Files.lines(tempFile.toPath())) {
             List<String> list = lines.toList();
             assertEquals(1, list.size(), "File should contain only one line (the header)");
-            assertEquals(CSV_HEADER, list.getFirst(), "File header should match the expected CSV header");
+            assertEquals(CsvTaskCodec.HEADER, list.getFirst(), "File header should match the expected CSV header");
+        }
+    }
+
+    @Test
+    void journalModeShouldReplaySnapshotAndJournalTail() throws IOException {
+        File tempFile = File.createTempFile("journal_tasks", ".csv");
+        tempFile.deleteOnExit();
+        PersistenceSettings settings = new PersistenceSettings.Builder()
+                .setMode(PersistenceMode.JOURNAL)
+                .build();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                new InMemoryHistoryManager(), tempFile, settings)) {
+            Epic epic = manager.addEpic(new Epic.Builder()
+                    .setName("Epic")
+                    .setDescription("Epic description")
+                    .build());
+            Subtask subtask = manager.addSubtask(new Subtask.Builder()
+                    .setName("Subtask")
+                    .setDescription("Subtask description")
+                    .build(), epic.getId());
+            manager.updateSubtask(new Subtask.Builder()
+                    .fromSubtask(subtask)
+                    .setStatus(Status.DONE)
+                    .build());
+            Task task = manager.addTask(new Task.Builder()
+                    .setName("Task")
+                    .setDescription("Task description")
+                    .build());
+            manager.addTask(new Task.Builder()
+                    .setName("Second task")
+                    .setDescription("Second task description")
+                    .build());
+            manager.deleteTask(task.getId());
+        }
+
+        try (Stream<String> lines = Files.lines(tempFile.toPath())) {
+            assertEquals(List.of(CsvTaskCodec.HEADER), lines.toList(),
+                    "Snapshot should not be rewritten on every change");
+        }
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+
+        assertEquals(1, loadedManager.getTasks().size(), "Deleted task should not be restored");
+        assertEquals("Second task", loadedManager.getTasks().getFirst().getName());
+        assertEquals(Status.DONE, loadedManager.getSubtasks().getFirst().getStatus(), "Last subtask version expected");
+        assertEquals(Status.DONE, loadedManager.getEpics().getFirst().getStatus(), "Last epic version expected");
+        assertEquals(List.of(2), loadedManager.getEpics().getFirst().getSubtaskIds());
+
+        Task addedAfterLoad = loadedManager.addTask(new Task.Builder()
+                .setName("Third task")
+                .setDescription("Third task description")
+                .build());
+        assertEquals(5, addedAfterLoad.getId(), "Ids should continue after replayed entities");
+        loadedManager.close();
+    }
+
+    @Test
+    void loadFromFileShouldApplyJournalClearsOnTopOfSnapshot() throws IOException {
+        File tempFile = File.createTempFile("cleared_tasks", ".csv");
+        tempFile.deleteOnExit();
+        PersistenceSettings settings = new PersistenceSettings.Builder()
+                .setMode(PersistenceMode.JOURNAL)
+                .setCompactionThreshold(4)
+                .build();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                new InMemoryHistoryManager(), tempFile, settings)) {
+            manager.addTask(new Task.Builder()
+                    .setName("Task")
+                    .setDescription("Task description")
+                    .build());
+            Epic epic = manager.addEpic(new Epic.Builder()
+                    .setName("Epic")
+                    .setDescription("Epic description")
+                    .build());
+            manager.addSubtask(new Subtask.Builder()
+                    .setName("Subtask")
+                    .setDescription("Subtask description")
+                    .setStatus(Status.DONE)
+                    .build(), epic.getId());
+            manager.deleteTasks();
+            manager.deleteSubtasks();
+        }
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+
+        assertEquals(0, loadedManager.getTasks().size(), "Cleared tasks should not be restored");
+        assertEquals(0, loadedManager.getSubtasks().size(), "Cleared subtasks should not be restored");
+        assertEquals(List.of(), loadedManager.getEpics().getFirst().getSubtaskIds());
+        assertEquals(Status.NEW, loadedManager.getEpics().getFirst().getStatus());
+
+        Task addedAfterLoad = loadedManager.addTask(new Task.Builder()
+                .setName("Second task")
+                .setDescription("Second task description")
+                .build());
+        assertEquals(4, addedAfterLoad.getId(), "Ids of replayed entities should not be reused");
+        loadedManager.close();
+    }
+
+    @Test
+    void journalModeShouldRejectDuplicateIdsInSnapshot() throws IOException {
+        File tempFile = File.createTempFile("duplicate_journal_tasks", ".csv");
+        tempFile.deleteOnExit();
+        Files.writeString(tempFile.toPath(),
+                CsvTaskCodec.HEADER + "\n1,Task,first,first,NEW\n1,Task,second,second,NEW\n");
+        File journalFile = new File(tempFile.getPath() + TaskJournal.JOURNAL_EXTENSION);
+        journalFile.deleteOnExit();
+        Files.writeString(journalFile.toPath(), "");
+        PersistenceSettings settings = new PersistenceSettings.Builder()
+                .setMode(PersistenceMode.JOURNAL)
+                .build();
+
+        assertThrows(IllegalStateException.class, () -> FileBackedTaskManager.loadFromFile(tempFile, settings));
+        assertThrows(IllegalStateException.class, () -> FileBackedTaskManager.loadFromFile(tempFile));
+    }
+
+    @Test
+    void loadFromFileShouldRejectSubtaskListedTwiceByItsEpic() throws IOException {
+        File tempFile = File.createTempFile("repeated_subtask", ".csv");
+        tempFile.deleteOnExit();
+        Files.writeString(tempFile.toPath(), CsvTaskCodec.HEADER
+                + "\n2,Epic,Epic,Epic description,NEW,3,3"
+                + "\n3,Subtask,Subtask,Subtask description,NEW,2\n");
+
+        for (LoadStrategy strategy : LoadStrategy.values()) {
+            PersistenceSettings settings = new PersistenceSettings.Builder()
+                    .setLoadStrategy(strategy)
+                    .build();
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> FileBackedTaskManager.loadFromFile(tempFile, settings));
+            assertEquals(EPIC_HAS_INVALID_SUBTASK + 2, e.getMessage(), strategy.name());
+        }
+    }
+
+    @Test
+    void journalShouldBeFoldedIntoSnapshotByCompaction() throws IOException {
+        File tempFile = File.createTempFile("compacted_tasks", ".csv");
+        tempFile.deleteOnExit();
+        PersistenceSettings settings = new PersistenceSettings.Builder()
+                .setMode(PersistenceMode.JOURNAL)
+                .setCompactionThreshold(5)
+                .build();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                new InMemoryHistoryManager(), tempFile, settings)) {
+            for (int i = 0; i < 12; i++) {
+                manager.addTask(new Task.Builder()
+                        .setName("Task " + i)
+                        .setDescription("Description " + i)
+                        .build());
+            }
+        }
+
+        try (Stream<String> lines = Files.lines(tempFile.toPath())) {
+            assertTrue(lines.count() > 1, "Compaction should have written a snapshot");
+        }
+        assertFalse(new File(tempFile.getPath() + TaskJournal.ROTATED_JOURNAL_EXTENSION).exists(),
+                "Rotated journal should be removed after compaction");
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+        assertEquals(12, loadedManager.getTasks().size(), "All tasks should survive compaction");
+        loadedManager.close();
+    }
+
+    @Test
+    void snapshotModeShouldFoldLeftoverJournal() throws IOException {
+        File tempFile = File.createTempFile("leftover_journal", ".csv");
+        tempFile.deleteOnExit();
+        PersistenceSettings journalSettings = new PersistenceSettings.Builder()
+                .setMode(PersistenceMode.JOURNAL)
+                .build();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                new InMemoryHistoryManager(), tempFile, journalSettings)) {
+            manager.addTask(new Task.Builder()
+                    .setName("Task")
+                    .setDescription("Task description")
+                    .build());
+        }
+        Files.writeString(new File(tempFile.getPath() + TaskJournal.JOURNAL_EXTENSION).toPath(), "PUT,2,Task,torn",
+                StandardOpenOption.APPEND);
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+
+        assertEquals(1, loadedManager.getTasks().size(), "Torn last record should be skipped");
+        assertFalse(TaskJournal.exists(tempFile), "Journal should be folded into the snapshot");
+        try (Stream<String> lines = Files.lines(tempFile.toPath())) {
+            assertEquals(2, lines.count(), "Snapshot should contain the header and the replayed task");
+        }
+    }
+
+    @Test
+    void journalModeShouldCutTornRecordBeforeAppending() throws IOException {
+        for (boolean asynchronous : List.of(false, true)) {
+            File tempFile = File.createTempFile("torn_journal", ".csv");
+            tempFile.deleteOnExit();
+            PersistenceSettings settings = new PersistenceSettings.Builder()
+                    .setMode(PersistenceMode.JOURNAL)
+                    .setAsynchronous(asynchronous)
+                    .build();
+
+            try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                    new InMemoryHistoryManager(), tempFile, settings)) {
+                manager.addTask(new Task.Builder().setName("A").setDescription("a").build());
+            }
+            Files.writeString(new File(tempFile.getPath() + TaskJournal.JOURNAL_EXTENSION).toPath(), "PUT,2,Task,to",
+                    StandardOpenOption.APPEND);
+
+            try (FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings)) {
+                assertEquals(1, loadedManager.getTasks().size(), "Torn last record should be skipped");
+                loadedManager.addTask(new Task.Builder().setName("B").setDescription("b").build());
+                loadedManager.addTask(new Task.Builder().setName("C").setDescription("c").build());
+            }
+
+            try (FileBackedTaskManager reloadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings)) {
+                assertEquals(List.of("A", "B", "C"),
+                        reloadedManager.getTasks().stream().map(Task::getName).toList(),
+                        "Records appended after a torn one should be readable");
+            }
+        }
+    }
+
+    @Test
+    void asynchronousJournalShouldPersistEverythingAfterFlush() throws IOException {
+        File tempFile = File.createTempFile("async_tasks", ".csv");
+        tempFile.deleteOnExit();
+        PersistenceSettings settings = new PersistenceSettings.Builder()
+                .setMode(PersistenceMode.JOURNAL)
+                .setAsynchronous(true)
+                .setMaxDelayMillis(60_000)
+                .setMaxBatchSize(100_000)
+                .setQueueCapacity(16)
+                .build();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                new InMemoryHistoryManager(), tempFile, settings)) {
+            for (int i = 0; i < 1_000; i++) {
+                manager.addTask(new Task.Builder()
+                        .setName("Task " + i)
+                        .setDescription("Description " + i)
+                        .build());
+            }
+            manager.flush();
+
+            FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+            assertEquals(1_000, loadedManager.getTasks().size(), "Flushed tasks should be readable");
+            loadedManager.close();
+
+            manager.deleteTask(1);
+        }
+
+        FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile);
+        assertEquals(999, loadedManager.getTasks().size(), "Close should write out queued changes");
+    }
+
+    @Test
+    void batchChangesShouldBePersistedInEveryMode() throws IOException {
+        for (PersistenceMode mode : PersistenceMode.values()) {
+            File tempFile = File.createTempFile("batch_tasks", ".csv");
+            tempFile.deleteOnExit();
+            PersistenceSettings settings = new PersistenceSettings.Builder()
+                    .setMode(mode)
+                    .build();
+
+            try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                    new InMemoryHistoryManager(), tempFile, settings)) {
+                Epic epic = manager.addEpic(new Epic.Builder()
+                        .setName("Epic")
+                        .setDescription("Epic description")
+                        .build());
+                List<Subtask> subtasks = Stream.generate(() -> new Subtask.Builder()
+                                .setName("Subtask")
+                                .setDescription("Subtask description")
+                                .build())
+                        .limit(1_000)
+                        .toList();
+                List<Subtask> added = manager.addSubtasks(epic.getId(), subtasks);
+                manager.updateSubtasks(added.stream()
+                        .map(subtask -> new Subtask.Builder()
+                                .fromSubtask(subtask)
+                                .setStatus(Status.DONE)
+                                .build())
+                        .toList());
+                manager.addTasks(List.of(new Task.Builder()
+                        .setName("Task")
+                        .setDescription("Task description")
+                        .build()));
+            }
+
+            FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+            assertEquals(1_000, loadedManager.getEpics().getFirst().getSubtaskIds().size(), mode.name());
+            assertEquals(Status.DONE, loadedManager.getEpics().getFirst().getStatus(), mode.name());
+            assertEquals(1, loadedManager.getTasks().size(), mode.name());
+            loadedManager.close();
+        }
+    }
+
+    @Test
+    void transactionShouldBePersistedOnlyOnCommit() throws IOException {
+        for (PersistenceMode mode : PersistenceMode.values()) {
+            File tempFile = File.createTempFile("transaction_tasks", ".csv");
+            tempFile.deleteOnExit();
+            PersistenceSettings settings = new PersistenceSettings.Builder()
+                    .setMode(mode)
+                    .build();
+
+            try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                    new InMemoryHistoryManager(), tempFile, settings)) {
+                Task task = manager.addTask(new Task.Builder()
+                        .setName("Kept")
+                        .setDescription("Kept description")
+                        .build());
+                long sizeBefore = tempFile.length();
+
+                manager.inTransaction(tx -> {
+                    tx.addTask(new Task.Builder()
+                            .setName("Committed")
+                            .setDescription("Committed description")
+                            .build());
+                    assertEquals(sizeBefore, tempFile.length(), "Nothing should be written before commit");
+                });
+                assertThrows(IllegalStateException.class, () -> manager.inTransaction(tx -> {
+                    tx.deleteTask(task.getId());
+                    throw new IllegalStateException("Abort");
+                }));
+            }
+
+            FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+            assertEquals(List.of("Kept", "Committed"),
+                    loadedManager.getTasks().stream().map(Task::getName).toList(), mode.name());
+            loadedManager.close();
+        }
+    }
+
+    @Test
+    void asynchronousPersistenceShouldRequireJournalMode() {
+        assertThrows(IllegalStateException.class, () -> new PersistenceSettings.Builder()
+                .setAsynchronous(true)
+                .build());
+    }
+
+    @Test
+    void binarySnapshotShouldBeDetectedOnLoad() throws IOException {
+        File tempFile = File.createTempFile("binary_tasks", ".bin");
+        tempFile.deleteOnExit();
+        PersistenceSettings settings = new PersistenceSettings.Builder()
+                .setSnapshotFormat(SnapshotFormat.BINARY)
+                .build();
+
+        try (FileBackedTaskManager manager = new FileBackedTaskManager(new TaskValidator(),
+                new InMemoryHistoryManager(), tempFile, settings)) {
+            Epic epic = manager.addEpic(new Epic.Builder()
+                    .setName("Epic")
+                    .setDescription("Epic description")
+                    .build());
+            manager.addSubtask(new Subtask.Builder()
+                    .setName("Subtask")
+                    .setDescription("Subtask description")
+                    .setStatus(Status.DONE)
+                    .build(), epic.getId());
+        }
+
+        try (FileBackedTaskManager loadedManager = FileBackedTaskManager.loadFromFile(tempFile)) {
+            assertEquals(1, loadedManager.getEpics().size());
+            assertEquals(Status.DONE, loadedManager.getEpics().getFirst().getStatus());
+            assertEquals(List.of(2), loadedManager.getEpics().getFirst().getSubtaskIds());
+            assertEquals(1, loadedManager.getSubtasks().size());
         }
     }
 }
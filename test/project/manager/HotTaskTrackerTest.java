@@ -0,0 +1,127 @@
+package project.manager;
+
+import org.junit.jupiter.api.Test;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.Managers;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotTaskTrackerTest {
+
+    @Test
+    void hottestShouldFindSkewedIdsAmongManyColdOnesAndFollowChanges() {
+        HotTaskTracker tracker = new HotTaskTracker(1024, 16);
+        Random random = new Random(25);
+
+        for (int i = 0; i < 200_000; i++) {
+            // ids 1..5 get half of all views, the rest is spread over 100 000 ids
+            int id = random.nextBoolean() ? random.nextInt(5) + 1 : random.nextInt(100_000) + 100;
+            tracker.record(id);
+        }
+        assertEquals(Set.of(1, 2, 3, 4, 5), idSet(tracker.hottest(5)));
+        assertTrue(tracker.estimate(1) >= tracker.estimate(150));
+
+        tracker.remove(3);
+        assertEquals(4, tracker.hottest(4).length);
+        assertTrue(Arrays.stream(tracker.hottest(16)).noneMatch(id -> id == 3));
+
+        // the counters age, so new hot ids take over within a few samples
+        for (int i = 0; i < 200_000; i++) {
+            tracker.record(random.nextBoolean() ? random.nextInt(5) + 50 : random.nextInt(100_000) + 100);
+        }
+        assertEquals(Set.of(50, 51, 52, 53, 54), idSet(tracker.hottest(5)));
+        assertEquals(16, tracker.hottest(100).length);
+        assertArrayEquals(new int[0], tracker.hottest(0));
+        assertThrows(IllegalArgumentException.class, () -> tracker.hottest(-1));
+        assertThrows(IllegalArgumentException.class, () -> new HotTaskTracker(1000, 16));
+    }
+
+    @Test
+    void managersShouldReportMostViewedEntitiesThatStillExist() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            Task cold = manager.addTask(new Task.Builder().setName("Cold").setDescription("Cold").build());
+            Task warm = manager.addTask(new Task.Builder().setName("Warm").setDescription("Warm").build());
+            Task hot = manager.addTask(new Task.Builder().setName("Hot").setDescription("Hot").build());
+
+            for (int i = 0; i < 30; i++) {
+                manager.getTaskWithNotification(hot.getId());
+                if (i % 3 == 0) {
+                    manager.getTaskWithNotification(warm.getId());
+                }
+            }
+            manager.getTaskWithNotification(cold.getId());
+
+            assertEquals(List.of(hot, warm, cold), manager.getHottestTasks(5));
+            assertEquals(List.of(hot), manager.getHottestTasks(1));
+
+            manager.deleteTask(warm.getId());
+            assertEquals(List.of(hot, cold), manager.getHottestTasks(5));
+        }
+    }
+
+    @Test
+    void bulkDeletesShouldStopReportingRemovedEntities() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            Task task = manager.addTask(new Task.Builder().setName("Task").setDescription("Task").build());
+            Epic epic = manager.addEpic(new Epic.Builder().setName("Epic").setDescription("Epic").build());
+            Subtask subtask = manager.addSubtask(
+                    new Subtask.Builder().setName("Subtask").setDescription("Subtask").build(), epic.getId());
+            Epic otherEpic = manager.addEpic(new Epic.Builder().setName("Other").setDescription("Other").build());
+
+            for (int i = 0; i < 3; i++) {
+                manager.getTaskWithNotification(task.getId());
+                manager.getSubtaskWithNotification(subtask.getId());
+            }
+            manager.getEpicWithNotification(otherEpic.getId());
+
+            manager.deleteTasks();
+            manager.deleteSubtasks();
+            assertEquals(List.of("Other"), names(manager.getHottestTasks(1)));
+
+            manager.deleteEpics();
+            assertEquals(List.of(), manager.getHottestTasks(5));
+        }
+    }
+
+    @Test
+    void rolledBackTransactionShouldNotChangeHottestEntities() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            Task hot = manager.addTask(new Task.Builder().setName("Hot").setDescription("Hot").build());
+            Task cold = manager.addTask(new Task.Builder().setName("Cold").setDescription("Cold").build());
+            for (int i = 0; i < 3; i++) {
+                manager.getTaskWithNotification(hot.getId());
+            }
+            manager.getTaskWithNotification(cold.getId());
+
+            assertThrows(IllegalStateException.class, () -> manager.inTransaction(transaction -> {
+                for (int i = 0; i < 10; i++) {
+                    transaction.getTaskWithNotification(cold.getId());
+                }
+                transaction.deleteTasks();
+                throw new IllegalStateException("Rollback");
+            }));
+
+            assertEquals(List.of("Hot", "Cold"), names(manager.getHottestTasks(5)));
+        }
+    }
+
+    private static List<String> names(List<AbstractTask> tasks) {
+        return tasks.stream().map(AbstractTask::getName).toList();
+    }
+
+    private static Set<Integer> idSet(int[] ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,89 @@
+package project.manager;
+
+import org.junit.jupiter.api.Test;
+import project.exception.NonexistentEntityException;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.Managers;
+import project.util.TaskValidator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdHistoryManagerTest {
+
+    @Test
+    void historyShouldShowCurrentVersionsAndSkipDeletedEntities() {
+        for (TaskManager manager : List.of(
+                new InMemoryTaskManager(new TaskValidator(), Managers.getIdHistoryManager()),
+                new ConcurrentTaskManager(new TaskValidator(), Managers.getIdHistoryManager()))) {
+            Task task = manager.addTask(new Task.Builder().setName("Task").setDescription("Task").build());
+            Epic epic = manager.addEpic(new Epic.Builder().setName("Epic").setDescription("Epic").build());
+            Subtask subtask = manager.addSubtask(
+                    new Subtask.Builder().setName("Subtask").setDescription("Subtask").build(), epic.getId());
+
+            manager.getSubtaskWithNotification(subtask.getId());
+            manager.getTaskWithNotification(task.getId());
+            manager.getEpicWithNotification(epic.getId());
+            manager.updateTask(new Task.Builder()
+                    .setId(task.getId())
+                    .setName("Renamed task")
+                    .setDescription("Task")
+                    .build());
+
+            assertEquals(List.of("Subtask", "Renamed task", "Epic"), names(manager.getHistory()));
+
+            manager.deleteTasks();
+            assertEquals(List.of("Subtask", "Epic"), names(manager.getHistory()));
+            assertEquals(List.of("Epic"), names(manager.getHistoryPage(subtask.getId(), 10)));
+        }
+    }
+
+    @Test
+    void pagesShouldSpanSeveralResolveBatchesAndDropIdsThatDoNotResolve() {
+        IdHistoryManager historyManager = new IdHistoryManager();
+        List<int[]> batches = new ArrayList<>();
+        int hidden = 7;
+        historyManager.attach((ids, count) -> {
+            batches.add(new int[]{ids[0], count});
+            AbstractTask[] resolved = new AbstractTask[count];
+            for (int i = 0; i < count; i++) {
+                if (ids[i] % hidden != 0) {
+                    resolved[i] = new Task.Builder().setId(ids[i]).setName("Task " + ids[i]).build();
+                }
+            }
+            return resolved;
+        });
+
+        int total = IdHistoryManager.RESOLVE_BATCH * 3;
+        for (int id = 1; id <= total; id++) {
+            historyManager.add(new Task.Builder().setId(id).build());
+        }
+
+        List<AbstractTask> page = historyManager.getHistoryPage(0, 10);
+        assertEquals(List.of(1, 2, 3, 4, 5, 6, 8, 9, 10, 11), page.stream().map(AbstractTask::getId).toList());
+        assertEquals(2, batches.size());
+        assertEquals(10, batches.get(0)[1]);
+        assertEquals(1, batches.get(1)[1]);
+
+        List<AbstractTask> history = historyManager.getDefaultHistory();
+        assertEquals(total - total / hidden, history.size());
+        assertThrows(NonexistentEntityException.class, () -> historyManager.getHistoryPage(14, 10));
+        assertEquals(history, historyManager.getDefaultHistory());
+
+        historyManager.add(new Task.Builder().setId(1).build());
+        assertEquals(1, historyManager.getDefaultHistory().getLast().getId());
+        assertThrows(IllegalStateException.class, () -> historyManager.attach((ids, count) -> null));
+        assertThrows(IllegalStateException.class, () -> new IdHistoryManager().getDefaultHistory());
+    }
+
+    private static List<String> names(List<AbstractTask> tasks) {
+        return tasks.stream().map(AbstractTask::getName).collect(Collectors.toList());
+    }
+}
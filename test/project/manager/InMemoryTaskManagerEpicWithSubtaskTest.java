@@ -62,6 +62,40 @@ class InMemoryTaskManagerEpicWithSubtaskTest {
 
     }
 
+    @Test
+    void batchChangesShouldBeValidatedFirstAndRecalculateEpicOnce() {
+        Subtask subtaskWithWrongId = new Subtask.Builder()
+                .fromSubtask(oneFirstSubtask)
+                .setId(5)
+                .build();
+        int epicId = firstEpic.getId();
+        assertThrows(EntityAlreadyExistsException.class,
+                () -> taskManager.addSubtasks(epicId, List.of(oneFirstSubtask, subtaskWithWrongId)));
+        assertEquals(0, taskManager.getSubtasks().size(), "Invalid batch should not add anything");
+
+        Subtask newSubtask = new Subtask.Builder()
+                .fromSubtask(oneFirstSubtask)
+                .setStatus(Status.NEW)
+                .build();
+        List<Subtask> addedSubtasks = taskManager.addSubtasks(epicId, List.of(oneFirstSubtask, newSubtask));
+        assertEquals(List.of(2, 3), taskManager.getEpicWithNotification(epicId).getSubtaskIds());
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicWithNotification(epicId).getStatus());
+
+        Subtask missingSubtask = new Subtask.Builder()
+                .fromSubtask(addedSubtasks.get(1))
+                .setId(42)
+                .build();
+        assertThrows(NonexistentEntityException.class,
+                () -> taskManager.updateSubtasks(List.of(addedSubtasks.get(1), missingSubtask)));
+
+        Subtask doneSubtask = new Subtask.Builder()
+                .fromSubtask(addedSubtasks.get(1))
+                .setStatus(Status.DONE)
+                .build();
+        taskManager.updateSubtasks(List.of(doneSubtask));
+        assertEquals(Status.DONE, taskManager.getEpicWithNotification(epicId).getStatus());
+    }
+
     @Test
     void addSubtaskWithNotDefaultIdAndAssignedEpicId() {
         Subtask subtaskWithWrongId = new Subtask.Builder()
@@ -3,19 +3,25 @@ package project.manager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import project.enums.Status;
+import project.exception.NonexistentEntityException;
 import project.model.AbstractTask;
 import project.model.Epic;
 import project.model.Subtask;
 import project.model.Task;
 import project.util.Managers;
+import project.util.TaskValidator;
 
+import java.security.InvalidParameterException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class InMemoryTaskManagerGeneralTest {
@@ -278,5 +284,410 @@ class InMemoryTaskManagerGeneralTest {
         List<AbstractTask> uniqueTasks = history.stream().distinct().toList();
         assertEquals(uniqueTasks.size(), history.size());
     }
-}
 
+    @Test
+    void initializeShouldContinueIdsAfterGreatestLoadedId() {
+        Epic epic = new Epic.Builder()
+                .setId(7)
+                .setName("Epic")
+                .setDescription("Epic description")
+                .setSubtaskIds(List.of(40))
+                .build();
+        Subtask subtask = new Subtask.Builder()
+                .setId(40)
+                .setName("Subtask")
+                .setDescription("Subtask description")
+                .setEpicId(7)
+                .build();
+        Task task = new Task.Builder()
+                .setId(3)
+                .setName("Task")
+                .setDescription("Task description")
+                .build();
+
+        TaskManager manager = new InMemoryTaskManager(new TaskValidator(), Managers.getDefaultHistoryManager(),
+                List.of(subtask, task, epic));
+
+        assertEquals(1, manager.getTasks().size());
+        assertEquals(List.of(subtask), manager.getEpicSubtasks(7));
+        assertEquals(41, manager.addTask(new Task.Builder()
+                .setName("New task")
+                .setDescription("New task description")
+                .build()).getId());
+    }
+
+    @Test
+    void initializeShouldRejectDuplicateIdsAndBrokenReferences() {
+        Task task = new Task.Builder().setId(1).setName("Task").setDescription("Task").build();
+        Epic epicWithSameId = new Epic.Builder().setId(1).setName("Epic").setDescription("Epic").build();
+        assertThrows(IllegalStateException.class, () -> new InMemoryTaskManager(new TaskValidator(),
+                Managers.getDefaultHistoryManager(), List.of(task, epicWithSameId)));
+
+        Epic epic = new Epic.Builder()
+                .setId(2)
+                .setName("Epic")
+                .setDescription("Epic")
+                .setSubtaskIds(List.of(3))
+                .build();
+        Subtask foreignSubtask = new Subtask.Builder()
+                .setId(3)
+                .setName("Subtask")
+                .setDescription("Subtask")
+                .setEpicId(5)
+                .build();
+        assertThrows(IllegalStateException.class, () -> new InMemoryTaskManager(new TaskValidator(),
+                Managers.getDefaultHistoryManager(), List.of(epic, foreignSubtask)));
+
+        Epic emptyEpic = new Epic.Builder().setId(2).setName("Epic").setDescription("Epic").build();
+        Subtask unlistedSubtask = new Subtask.Builder()
+                .setId(3)
+                .setName("Subtask")
+                .setDescription("Subtask")
+                .setEpicId(2)
+                .build();
+        assertThrows(IllegalStateException.class, () -> new InMemoryTaskManager(new TaskValidator(),
+                Managers.getDefaultHistoryManager(), List.of(emptyEpic, unlistedSubtask)));
+    }
+
+    @Test
+    void epicStatusShouldFollowSubtaskChangesAndBeRepairedByRebuild() {
+        Epic staleEpic = new Epic.Builder()
+                .setId(1)
+                .setName("Epic")
+                .setDescription("Epic description")
+                .setStatus(Status.DONE)
+                .setSubtaskIds(List.of(2, 3))
+                .build();
+        Subtask first = new Subtask.Builder()
+                .setId(2)
+                .setName("First")
+                .setDescription("First description")
+                .setEpicId(1)
+                .build();
+        Subtask second = new Subtask.Builder()
+                .setId(3)
+                .setName("Second")
+                .setDescription("Second description")
+                .setEpicId(1)
+                .build();
+        InMemoryTaskManager manager = new InMemoryTaskManager(new TaskValidator(),
+                Managers.getDefaultHistoryManager(), List.of(staleEpic, first, second));
+
+        assertFalse(manager.rebuildStatusCounters(), "Loaded status does not match the subtasks");
+        assertEquals(Status.NEW, manager.getEpics().getFirst().getStatus());
+        assertTrue(manager.rebuildStatusCounters());
+
+        manager.updateSubtask(new Subtask.Builder().fromSubtask(first).setStatus(Status.DONE).build());
+        assertEquals(Status.IN_PROGRESS, manager.getEpics().getFirst().getStatus());
+        manager.updateSubtask(new Subtask.Builder().fromSubtask(second).setStatus(Status.DONE).build());
+        assertEquals(Status.DONE, manager.getEpics().getFirst().getStatus());
+        manager.deleteSubtask(3);
+        assertEquals(Status.DONE, manager.getEpics().getFirst().getStatus());
+        manager.addSubtask(new Subtask.Builder()
+                .setName("Third")
+                .setDescription("Third description")
+                .build(), 1);
+        assertEquals(Status.IN_PROGRESS, manager.getEpics().getFirst().getStatus());
+        manager.deleteSubtasks();
+        assertEquals(Status.NEW, manager.getEpics().getFirst().getStatus());
+        assertTrue(manager.rebuildStatusCounters());
+    }
+
+    @Test
+    void transactionShouldUndoEveryChangeWhenWorkFails() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            Task task = manager.addTask(new Task.Builder()
+                    .setName("Task")
+                    .setDescription("Task description")
+                    .build());
+            Epic epic = manager.addEpic(new Epic.Builder()
+                    .setName("Epic")
+                    .setDescription("Epic description")
+                    .build());
+            List<Subtask> subtasks = manager.addSubtasks(epic.getId(), List.of(
+                    new Subtask.Builder().setName("New").setDescription("New").build(),
+                    new Subtask.Builder().setName("Done").setDescription("Done").setStatus(Status.DONE).build()));
+            manager.getTaskWithNotification(task.getId());
+
+            String before = List.of(manager.getTasks(), manager.getEpics(), manager.getSubtasks(),
+                    manager.getHistory()).toString();
+
+            assertThrows(IllegalStateException.class, () -> manager.inTransaction(tx -> {
+                tx.updateSubtask(new Subtask.Builder()
+                        .fromSubtask(subtasks.getFirst())
+                        .setStatus(Status.DONE)
+                        .build());
+                tx.deleteTask(task.getId());
+                tx.deleteSubtask(subtasks.getLast().getId());
+                assertEquals(Status.DONE, tx.getEpicWithNotification(epic.getId()).getStatus());
+                tx.addSubtask(new Subtask.Builder().setName("Added").setDescription("Added").build(), epic.getId());
+                tx.inTransaction(nested -> nested.addTask(new Task.Builder()
+                        .setName("Nested")
+                        .setDescription("Nested")
+                        .build()));
+                throw new IllegalStateException("Abort");
+            }));
+
+            assertEquals(before, List.of(manager.getTasks(), manager.getEpics(), manager.getSubtasks(),
+                    manager.getHistory()).toString());
+            assertEquals(Status.IN_PROGRESS, manager.getEpicWithNotification(epic.getId()).getStatus());
+
+            manager.inTransaction(tx -> tx.updateSubtask(new Subtask.Builder()
+                    .fromSubtask(subtasks.getFirst())
+                    .setStatus(Status.DONE)
+                    .build()));
+            assertEquals(Status.DONE, manager.getEpicWithNotification(epic.getId()).getStatus());
+        }
+    }
+
+    @Test
+    void failedNestedTransactionShouldUndoOuterOneEvenIfCaught() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            Task kept = manager.addTask(new Task.Builder().setName("Kept").setDescription("Kept").build());
+
+            assertThrows(IllegalStateException.class, () -> manager.inTransaction(tx -> {
+                tx.addTask(new Task.Builder().setName("Outer").setDescription("Outer").build());
+                try {
+                    tx.inTransaction(nested -> {
+                        nested.addTask(new Task.Builder().setName("Inner").setDescription("Inner").build());
+                        throw new IllegalArgumentException("Abort");
+                    });
+                } catch (IllegalArgumentException e) {
+                    // the outer work goes on, but cannot commit anymore
+                }
+            }));
+            assertEquals(List.of(kept), manager.getTasks());
+
+            manager.inTransaction(tx -> tx.inTransaction(nested -> nested.addTask(new Task.Builder()
+                    .setName("Committed")
+                    .setDescription("Committed")
+                    .build())));
+            assertEquals(List.of("Kept", "Committed"), manager.getTasks().stream().map(Task::getName).toList());
+        }
+    }
+
+    @Test
+    void lineBreaksInNameOrDescriptionShouldBeRejected() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            Task task = manager.addTask(new Task.Builder().setName("Task").setDescription("Task").build());
+            Epic epic = manager.addEpic(new Epic.Builder().setName("Epic").setDescription("Epic").build());
+
+            assertThrows(InvalidParameterException.class, () -> manager.addTask(new Task.Builder()
+                    .setName("line1\nline2")
+                    .setDescription("Task")
+                    .build()));
+            assertThrows(InvalidParameterException.class, () -> manager.addSubtask(new Subtask.Builder()
+                    .setName("Subtask")
+                    .setDescription("line1\r\nline2")
+                    .build(), epic.getId()));
+            assertThrows(InvalidParameterException.class, () -> manager.updateTask(new Task.Builder()
+                    .fromTask(task)
+                    .setDescription("line1\nline2")
+                    .build()));
+            assertThrows(InvalidParameterException.class, () -> manager.updateEpic(new Epic.Builder()
+                    .fromEpic(epic)
+                    .setName("line1\rline2")
+                    .build()));
+
+            assertEquals(List.of(task), manager.getTasks());
+            assertEquals(List.of(epic), manager.getEpics());
+            assertTrue(manager.getSubtasks().isEmpty());
+        }
+    }
+
+    @Test
+    void statusIndexShouldFollowEveryChange() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            List<Task> tasks = manager.addTasks(List.of(
+                    new Task.Builder().setName("First").setDescription("First").build(),
+                    new Task.Builder().setName("Second").setDescription("Second").setStatus(Status.DONE).build()));
+            Epic epic = manager.addEpic(new Epic.Builder()
+                    .setName("Epic")
+                    .setDescription("Epic description")
+                    .build());
+            Subtask subtask = manager.addSubtask(new Subtask.Builder()
+                    .setName("Subtask")
+                    .setDescription("Subtask description")
+                    .setStatus(Status.DONE)
+                    .build(), epic.getId());
+
+            assertEquals(List.of(tasks.getFirst()), manager.getTasksByStatus(Status.NEW));
+            assertEquals(1, manager.countByStatus(Task.class, Status.DONE));
+            assertEquals(1, manager.countByStatus(Epic.class, Status.DONE));
+            assertEquals(0, manager.countByStatus(Epic.class, Status.NEW));
+
+            manager.updateTask(new Task.Builder().fromTask(tasks.getFirst()).setStatus(Status.IN_PROGRESS).build());
+            manager.deleteTask(tasks.getLast().getId());
+            assertEquals(0, manager.countByStatus(Task.class, Status.NEW));
+            assertEquals(0, manager.countByStatus(Task.class, Status.DONE));
+            assertEquals(List.of("First"), manager.getTasksByStatus(Status.IN_PROGRESS).stream()
+                    .map(Task::getName)
+                    .toList());
+
+            assertThrows(IllegalStateException.class, () -> manager.inTransaction(tx -> {
+                tx.deleteSubtask(subtask.getId());
+                throw new IllegalStateException("Abort");
+            }));
+            assertEquals(List.of(subtask), manager.getSubtasksByStatus(Status.DONE));
+
+            manager.deleteSubtasks();
+            assertEquals(0, manager.countByStatus(Subtask.class, Status.DONE));
+            assertEquals(List.of(epic.getId()), manager.getEpicsByStatus(Status.NEW).stream()
+                    .map(Epic::getId)
+                    .toList());
+            assertThrows(IllegalArgumentException.class, () -> manager.countByStatus(AbstractTask.class, Status.NEW));
+        }
+    }
+
+    @Test
+    void searchShouldRankMatchesAndFollowChanges() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            Task release = manager.addTask(new Task.Builder()
+                    .setName("Release notes")
+                    .setDescription("Write notes for the release")
+                    .build());
+            Task backup = manager.addTask(new Task.Builder()
+                    .setName("Backup")
+                    .setDescription("Check the release backup, then relax")
+                    .build());
+            Epic epic = manager.addEpic(new Epic.Builder()
+                    .setName("Переезд")
+                    .setDescription("Release-день")
+                    .build());
+
+            assertEquals(List.of(release, backup, epic), manager.search("RELEASE"));
+            assertEquals(List.of(backup), manager.search("release backup"));
+            assertEquals(List.of(release), manager.search("rel* not*"));
+            assertEquals(List.of(release, backup), manager.search("rel* th*"));
+            assertEquals(List.of(epic), manager.search("переезд день"));
+            assertTrue(manager.search("release missing").isEmpty());
+            assertTrue(manager.search("   ").isEmpty());
+
+            Task changelog = manager.updateTask(new Task.Builder().fromTask(release).setName("Changelog").build());
+            assertEquals(List.of(changelog, backup, epic), manager.search("release"));
+            assertEquals(List.of(changelog), manager.search("changelog"));
+            manager.deleteTask(backup.getId());
+            assertTrue(manager.search("backup").isEmpty());
+            manager.deleteEpics();
+            assertTrue(manager.search("переезд").isEmpty());
+        }
+    }
+
+    @Test
+    void pagesShouldWalkEntitiesByIdWhileTheyChange() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            List<Task> newTasks = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                newTasks.add(new Task.Builder().setName("Task " + i).setDescription("Description " + i).build());
+            }
+            List<Task> tasks = manager.addTasks(newTasks);
+
+            List<Task> firstPage = manager.getTasksPage(0, 4);
+            assertEquals(tasks.subList(0, 4), firstPage);
+            manager.deleteTask(tasks.get(4).getId());
+            manager.deleteTask(tasks.get(1).getId());
+            Task added = manager.addTask(new Task.Builder().setName("Added").setDescription("Added").build());
+            assertEquals(List.of(tasks.get(5), tasks.get(6)), manager.getTasksPage(firstPage.getLast().getId(), 2));
+
+            // rollback puts the deleted task back behind newer ones, pages must stay ordered by id
+            assertThrows(IllegalStateException.class, () -> manager.inTransaction(tx -> {
+                tx.deleteTask(tasks.get(2).getId());
+                throw new IllegalStateException("Abort");
+            }));
+            List<Task> expected = new ArrayList<>(tasks);
+            expected.remove(4);
+            expected.remove(1);
+            expected.add(added);
+            assertEquals(expected, manager.streamTasks().toList());
+            assertEquals(expected.subList(1, 4), manager.getTasksPage(tasks.get(0).getId(), 3));
+            assertTrue(manager.getTasksPage(added.getId(), 5).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> manager.getTasksPage(0, -1));
+
+            manager.getTaskWithNotification(tasks.get(3).getId());
+            manager.getTaskWithNotification(tasks.get(0).getId());
+            manager.getTaskWithNotification(added.getId());
+            assertEquals(List.of(tasks.get(3), tasks.get(0)), manager.getHistoryPage(0, 2));
+            assertEquals(List.of(added), manager.getHistoryPage(tasks.get(0).getId(), 2));
+            assertEquals(manager.getHistory(), manager.streamHistory().toList());
+            assertTrue(manager.streamEpics().findAny().isEmpty());
+        }
+    }
+
+    @Test
+    void historyWalkShouldFailWhenItsCursorLeavesHistory() {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            List<Task> newTasks = new ArrayList<>();
+            for (int i = 0; i < KeysetPages.STREAM_PAGE_SIZE + 10; i++) {
+                newTasks.add(new Task.Builder().setName("Task " + i).setDescription("Description " + i).build());
+            }
+            List<Task> tasks = manager.addTasks(newTasks);
+            tasks.forEach(task -> manager.getTaskWithNotification(task.getId()));
+
+            Iterator<AbstractTask> walk = manager.streamHistory().iterator();
+            AbstractTask cursor = null;
+            for (int i = 0; i < KeysetPages.STREAM_PAGE_SIZE; i++) {
+                cursor = walk.next();
+            }
+            int cursorId = cursor.getId();
+            manager.deleteTask(cursorId);
+
+            assertThrows(NonexistentEntityException.class, walk::next);
+            assertThrows(NonexistentEntityException.class, () -> manager.getHistoryPage(cursorId, 1));
+        }
+    }
+
+    @Test
+    void snapshotShouldKeepBoardAsItWasWhileManagerChanges() throws InterruptedException {
+        for (TaskManager manager : List.of(Managers.getDefaultTaskManager(), Managers.getConcurrentTaskManager())) {
+            Task task = manager.addTask(new Task.Builder().setName("Task").setDescription("Task").build());
+            Epic epic = manager.addEpic(new Epic.Builder().setName("Epic").setDescription("Epic").build());
+            Subtask subtask = manager.addSubtask(new Subtask.Builder()
+                    .setName("Subtask")
+                    .setDescription("Subtask")
+                    .setStatus(Status.DONE)
+                    .build(), epic.getId());
+
+            TaskSnapshot snapshot = manager.snapshot();
+            Epic doneEpic = snapshot.getEpic(epic.getId());
+            manager.updateTask(new Task.Builder().fromTask(task).setName("Renamed").build());
+            manager.addSubtask(new Subtask.Builder().setName("New").setDescription("New").build(), epic.getId());
+            manager.deleteTasks();
+
+            assertEquals(List.of(task), snapshot.getTasks());
+            assertEquals("Task", snapshot.getTask(task.getId()).getName());
+            assertEquals(Status.DONE, doneEpic.getStatus());
+            assertEquals(List.of(subtask), snapshot.getEpicSubtasks(epic.getId()));
+            assertEquals(Status.IN_PROGRESS, manager.snapshot().getEpic(epic.getId()).getStatus());
+            assertTrue(manager.snapshot().getTasks().isEmpty());
+            assertThrows(NonexistentEntityException.class, () -> manager.snapshot().getTask(task.getId()));
+
+            // a reader thread walks a snapshot while the owner keeps adding tasks
+            for (int i = 0; i < 1_000; i++) {
+                manager.addTask(new Task.Builder().setName("Task " + i).setDescription("Task").build());
+            }
+            TaskSnapshot board = manager.snapshot();
+            List<Integer> seenIds = new ArrayList<>();
+            Thread reader = new Thread(() -> board.getTasks().forEach(seen -> seenIds.add(seen.getId())));
+            reader.start();
+            for (int i = 0; i < 1_000; i++) {
+                manager.addTask(new Task.Builder().setName("Later " + i).setDescription("Task").build());
+            }
+            reader.join();
+            assertEquals(board.getTasks().stream().map(Task::getId).toList(), seenIds);
+            assertEquals(1_000, seenIds.size());
+        }
+    }
+
+    @Test
+    void snapshotShouldReachOtherThreadsOnceChangesAreCommitted() {
+        TaskManager manager = Managers.getDefaultTaskManager();
+        Task task = manager.addTask(new Task.Builder().setName("Task").setDescription("Task").build());
+        assertEquals(List.of(task), CompletableFuture.supplyAsync(manager::snapshot).join().getTasks());
+
+        manager.inTransaction(tx -> {
+            tx.deleteTask(task.getId());
+            assertEquals(List.of(task), CompletableFuture.supplyAsync(manager::snapshot).join().getTasks());
+        });
+        assertTrue(CompletableFuture.supplyAsync(manager::snapshot).join().getTasks().isEmpty());
+    }
+}
@@ -0,0 +1,98 @@
+package project.manager;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserHistoryServiceTest {
+    private static final int CAPACITY = 8;
+
+    @Test
+    void historiesShouldSurviveSpillingAndCompaction() throws IOException {
+        File spillFile = File.createTempFile("user_history", ".spill");
+        spillFile.deleteOnExit();
+        Random random = new Random(23);
+        Map<Integer, List<Integer>> expected = new HashMap<>();
+
+        try (UserHistoryService service = new UserHistoryService(CAPACITY, 50, spillFile.toPath())) {
+            for (int i = 0; i < 200_000; i++) {
+                int userId = random.nextInt(500) - 100;
+                int taskId = random.nextInt(20);
+                List<Integer> history = expected.computeIfAbsent(userId, id -> new ArrayList<>());
+                switch (random.nextInt(10)) {
+                    case 0 -> {
+                        service.remove(userId, taskId);
+                        history.remove((Integer) taskId);
+                    }
+                    case 1 -> assertHistory(history, service.getHistory(userId));
+                    case 2 -> {
+                        service.removeUser(userId);
+                        history.clear();
+                    }
+                    case 3 -> {
+                        if (random.nextInt(1_000) == 0) {
+                            service.evictIdleUsers();
+                        }
+                    }
+                    default -> {
+                        service.add(userId, taskId);
+                        history.remove((Integer) taskId);
+                        history.add(taskId);
+                        if (history.size() > CAPACITY) {
+                            history.removeFirst();
+                        }
+                    }
+                }
+            }
+
+            for (Map.Entry<Integer, List<Integer>> entry : expected.entrySet()) {
+                assertHistory(entry.getValue(), service.getHistory(entry.getKey()));
+            }
+            assertTrue(service.getResidentUsers() <= 50);
+            assertTrue(service.getSpilledUsers() > 0);
+            assertTrue(service.getSpillFileSize() < 1 << 22, "Spill file should have been compacted");
+        }
+        assertFalse(spillFile.exists());
+    }
+
+    @Test
+    void idleUsersShouldBeSpilledOnEviction() throws IOException {
+        File spillFile = File.createTempFile("user_history_idle", ".spill");
+        spillFile.deleteOnExit();
+
+        try (UserHistoryService service = new UserHistoryService(CAPACITY, 10, spillFile.toPath())) {
+            for (int userId = 1; userId <= 5; userId++) {
+                service.add(userId, userId * 10);
+            }
+            long footprint = service.getMemoryFootprint();
+
+            assertEquals(0, service.evictIdleUsers());
+            service.add(1, 11);
+            assertEquals(4, service.evictIdleUsers());
+            assertEquals(1, service.getResidentUsers());
+            assertEquals(4, service.getSpilledUsers());
+            assertEquals(footprint, service.getMemoryFootprint());
+
+            assertArrayEquals(new int[]{30}, service.getHistory(3));
+            assertArrayEquals(new int[]{10, 11}, service.getHistory(1));
+            assertEquals(2, service.getResidentUsers());
+            assertArrayEquals(new int[0], service.getHistory(42));
+        }
+    }
+
+    private static void assertHistory(List<Integer> expected, int[] actual) {
+        assertEquals(expected, Arrays.stream(actual).boxed().toList());
+    }
+}
@@ -7,10 +7,12 @@ import project.model.Epic;
 import project.model.Subtask;
 import project.model.Task;
 
+import java.io.IOException;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class AbstractTaskSerializerTest {
 
@@ -128,4 +130,60 @@ class AbstractTaskSerializerTest {
         assertEquals(1, subtask.getEpicId());
     }
 
-}
\ No newline at end of file
+    @Test
+    void serializeAndDeserializeShouldQuoteDelimitersAndQuotes() {
+        Task task = new Task.Builder()
+                .setId(7)
+                .setName("buy milk, bread")
+                .setDescription("the \"usual\" shop")
+                .setStatus(Status.NEW)
+                .build();
+
+        String serialized = AbstractTaskSerializer.serialize(task);
+        assertEquals("7,Task,\"buy milk, bread\",\"the \"\"usual\"\" shop\",NEW", serialized);
+
+        Task deserialized = assertInstanceOf(Task.class, AbstractTaskSerializer.deserialize(serialized));
+        assertEquals(task.getName(), deserialized.getName());
+        assertEquals(task.getDescription(), deserialized.getDescription());
+    }
+
+    @Test
+    void deserializeShouldRejectMalformedRecords() {
+        assertThrows(IllegalArgumentException.class,
+                () -> AbstractTaskSerializer.deserialize("1,Task,\"unterminated,description,NEW"));
+        assertThrows(IllegalArgumentException.class,
+                () -> AbstractTaskSerializer.deserialize("1,Story,name,description,NEW"));
+        assertThrows(IllegalArgumentException.class,
+                () -> AbstractTaskSerializer.deserialize("1,Task,name,description,UNKNOWN"));
+        assertThrows(IllegalArgumentException.class,
+                () -> AbstractTaskSerializer.deserialize("1,Subtask,name,description,NEW"));
+        assertThrows(NumberFormatException.class,
+                () -> AbstractTaskSerializer.deserialize("x,Task,name,description,NEW"));
+    }
+
+    @Test
+    void serializeShouldAppendToExistingOutput() throws IOException {
+        Epic epic = new Epic.Builder()
+                .setId(1_000_000)
+                .setName("epic")
+                .setDescription("a \"b\"")
+                .setStatus(Status.DONE)
+                .setSubtaskIds(List.of(0, 9, 10, Integer.MAX_VALUE))
+                .build();
+        StringBuilder out = new StringBuilder("prefix;");
+
+        AbstractTaskSerializer.serialize(epic, out);
+
+        assertEquals("prefix;1000000,Epic,epic,\"a \"\"b\"\"\",DONE,0,9,10,2147483647", out.toString());
+        assertEquals(AbstractTaskSerializer.serialize(epic), out.substring("prefix;".length()));
+    }
+
+    @Test
+    void serializeShouldRejectLineBreaks() {
+        assertThrows(IllegalArgumentException.class, () -> AbstractTaskSerializer.serialize(new Task.Builder()
+                .setId(1)
+                .setName("line1\nline2")
+                .setDescription("description")
+                .build()));
+    }
+}
@@ -0,0 +1,102 @@
+package project.mapper;
+
+import org.junit.jupiter.api.Test;
+import project.enums.Status;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryTaskSerializerTest {
+
+    @Test
+    void writeAndReadShouldPreserveAllFields() throws IOException {
+        Task task = new Task.Builder()
+                .setId(300)
+                .setName("Задача, с запятой")
+                .setStatus(Status.IN_PROGRESS)
+                .build();
+        Epic epic = new Epic.Builder()
+                .setId(1)
+                .setName("epic name")
+                .setDescription("epic description")
+                .setStatus(Status.DONE)
+                .setSubtaskIds(List.of(10, 200_000, 30))
+                .build();
+        Subtask subtask = new Subtask.Builder()
+                .setId(10)
+                .setName("subtask name")
+                .setDescription("subtask description")
+                .setEpicId(1)
+                .build();
+
+        List<AbstractTask> read = roundTrip(List.of(task, epic, subtask));
+
+        assertEquals(3, read.size());
+
+        Task readTask = assertInstanceOf(Task.class, read.get(0));
+        assertEquals(300, readTask.getId());
+        assertEquals("Задача, с запятой", readTask.getName());
+        assertNull(readTask.getDescription());
+        assertEquals(Status.IN_PROGRESS, readTask.getStatus());
+
+        Epic readEpic = assertInstanceOf(Epic.class, read.get(1));
+        assertEquals(1, readEpic.getId());
+        assertEquals("epic name", readEpic.getName());
+        assertEquals("epic description", readEpic.getDescription());
+        assertEquals(Status.DONE, readEpic.getStatus());
+        assertEquals(List.of(10, 200_000, 30), readEpic.getSubtaskIds());
+
+        Subtask readSubtask = assertInstanceOf(Subtask.class, read.get(2));
+        assertEquals(10, readSubtask.getId());
+        assertEquals(Status.NEW, readSubtask.getStatus());
+        assertEquals(1, readSubtask.getEpicId());
+    }
+
+    @Test
+    void writeShouldStartWithMagicHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTaskSerializer.write(out, List.of());
+        byte[] bytes = out.toByteArray();
+
+        assertTrue(BinaryTaskSerializer.hasMagic(bytes, bytes.length));
+        assertEquals(BinaryTaskSerializer.VERSION, bytes[BinaryTaskSerializer.headerLength() - 1]);
+        assertEquals(0, BinaryTaskSerializer.read(new ByteArrayInputStream(bytes)).size());
+    }
+
+    @Test
+    void readShouldRejectUnknownVersionAndTruncatedData() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTaskSerializer.write(out, List.of(new Task.Builder()
+                .setId(1)
+                .setName("name")
+                .setDescription("description")
+                .build()));
+        byte[] bytes = out.toByteArray();
+
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[BinaryTaskSerializer.headerLength() - 1] = 99;
+        assertThrows(IOException.class, () -> BinaryTaskSerializer.read(new ByteArrayInputStream(wrongVersion)));
+
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThrows(IOException.class, () -> BinaryTaskSerializer.read(new ByteArrayInputStream(truncated)));
+    }
+
+    private List<AbstractTask> roundTrip(List<AbstractTask> tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTaskSerializer.write(out, tasks);
+        return BinaryTaskSerializer.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
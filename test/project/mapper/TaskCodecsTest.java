@@ -0,0 +1,123 @@
+package project.mapper;
+
+import org.junit.jupiter.api.Test;
+import project.enums.LoadStrategy;
+import project.enums.SnapshotFormat;
+import project.enums.Status;
+import project.exception.ManagerSaveException;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+import project.util.TaskFileRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static project.exception.TaskExceptionMessage.FILE_SHOULD_START_WITH;
+
+class TaskCodecsTest {
+
+    @Test
+    void everySnapshotFormatShouldHaveDiscoveredCodec() {
+        for (SnapshotFormat format : SnapshotFormat.values()) {
+            assertEquals(format.getCodecName(), TaskCodecs.forFormat(format).getName());
+        }
+        assertThrows(IllegalArgumentException.class, () -> TaskCodecs.forName("xml"));
+    }
+
+    @Test
+    void everyCodecShouldRoundTripAndBeDetectedByHeader() throws IOException {
+        List<AbstractTask> tasks = List.of(
+                new Task.Builder()
+                        .setId(1)
+                        .setName("name, with \"quotes\" and \\ slash")
+                        .setDescription("tab\tand unicode ж")
+                        .setStatus(Status.IN_PROGRESS)
+                        .build(),
+                new Epic.Builder()
+                        .setId(2)
+                        .setName("epic")
+                        .setDescription("epic description")
+                        .setStatus(Status.DONE)
+                        .setSubtaskIds(List.of(3))
+                        .build(),
+                new Subtask.Builder()
+                        .setId(3)
+                        .setName("subtask")
+                        .setDescription("subtask description")
+                        .setStatus(Status.DONE)
+                        .setEpicId(2)
+                        .build());
+
+        for (TaskCodec codec : TaskCodecs.getCodecs()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            codec.write(out, tasks);
+            byte[] bytes = out.toByteArray();
+
+            assertSame(codec, TaskCodecs.detect(bytes, Math.min(bytes.length, TaskCodecs.HEADER_PROBE_LENGTH)),
+                    codec.getName());
+
+            List<AbstractTask> read = new ArrayList<>();
+            codec.read(new ByteArrayInputStream(bytes), read::add);
+            assertEquals(tasks.size(), read.size(), codec.getName());
+            for (int i = 0; i < tasks.size(); i++) {
+                assertEquals(tasks.get(i).toString(), read.get(i).toString(), codec.getName());
+                assertEquals(tasks.get(i).getName(), read.get(i).getName(), codec.getName());
+            }
+        }
+    }
+
+    @Test
+    void csvShouldBeDetectedOnlyByItsWholeHeader() throws IOException {
+        TaskCodec csv = TaskCodecs.forName(CsvTaskCodec.NAME);
+        String header = CsvTaskCodec.HEADER;
+        for (String accepted : List.of(header, header + "\r\n1,Task", " " + header)) {
+            byte[] bytes = accepted.getBytes(StandardCharsets.UTF_8);
+            assertTrue(csv.canRead(bytes, bytes.length), accepted);
+        }
+        for (String rejected : List.of("", "id,type", "wrong header", header + ",extra")) {
+            byte[] bytes = rejected.getBytes(StandardCharsets.UTF_8);
+            assertFalse(csv.canRead(bytes, bytes.length), rejected);
+        }
+
+        File file = File.createTempFile("wrong_header", ".csv");
+        file.deleteOnExit();
+        Files.writeString(file.toPath(), "wrong header");
+        ManagerSaveException e = assertThrows(ManagerSaveException.class,
+                () -> TaskFileRepository.readTasks(file, LoadStrategy.READER, task -> { }));
+        assertEquals(FILE_SHOULD_START_WITH + header, e.getMessage());
+    }
+
+    @Test
+    void builtInCodecsShouldBeRegisteredOnce() {
+        assertEquals(List.of(BinaryTaskCodec.NAME, JsonLinesTaskCodec.NAME, CsvTaskCodec.NAME),
+                TaskCodecs.getCodecs().stream().map(TaskCodec::getName).toList());
+    }
+
+    @Test
+    void jsonLinesShouldAcceptAnyKeyOrderAndSkipUnknownKeys() throws IOException {
+        String json = "{\"status\":\"NEW\", \"epicId\": 5, \"extra\": [1, \"x\"], \"type\":\"Subtask\","
+                + " \"name\":\"n\", \"description\":\"d\", \"id\":6}\n\n";
+        List<AbstractTask> read = new ArrayList<>();
+
+        new JsonLinesTaskCodec().read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), read::add);
+
+        Subtask subtask = assertInstanceOf(Subtask.class, read.getFirst());
+        assertEquals(6, subtask.getId());
+        assertEquals(5, subtask.getEpicId());
+        assertEquals(1, read.size());
+    }
+}
@@ -0,0 +1,111 @@
+package project.util;
+
+import org.junit.jupiter.api.Test;
+import project.enums.PersistenceMode;
+import project.exception.ManagerSaveException;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncJournalWriterTest {
+
+    @Test
+    void burstShouldBeWrittenWithOneFlushPerFullBatch() throws IOException {
+        RecordingJournal journal = new RecordingJournal();
+        PersistenceSettings settings = settings(100, 60_000);
+
+        try (AsyncJournalWriter writer = new AsyncJournalWriter(journal, settings)) {
+            long start = System.nanoTime();
+            long lastSequence = 0;
+            for (int id = 1; id <= 350; id++) {
+                lastSequence = writer.submit(List.of(JournalEntry.delete(id)));
+            }
+            writer.awaitDurable(lastSequence - 50);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            // full batches do not wait for the delay
+            assertEquals(List.of(100, 100, 100), journal.batchSizes());
+            assertTrue(elapsedMillis < 30_000, "full batches waited for the delay: " + elapsedMillis + " ms");
+
+            writer.flush();
+            assertEquals(List.of(100, 100, 100, 50), journal.batchSizes());
+        }
+    }
+
+    @Test
+    void partialBatchShouldBeWrittenOnceAfterMaxDelay() throws IOException {
+        RecordingJournal journal = new RecordingJournal();
+        long maxDelayMillis = 200;
+
+        try (AsyncJournalWriter writer = new AsyncJournalWriter(journal, settings(1_000, maxDelayMillis))) {
+            long start = System.nanoTime();
+            for (int id = 1; id <= 20; id++) {
+                writer.submit(List.of(JournalEntry.delete(id)));
+            }
+            writer.awaitDurable();
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(List.of(20), journal.batchSizes());
+            assertTrue(elapsedMillis >= maxDelayMillis, "batch was written after " + elapsedMillis + " ms");
+            assertTrue(elapsedMillis < maxDelayMillis + 5_000, "batch was written after " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void submitShouldFailRightAfterWriterFailed() throws IOException {
+        RecordingJournal journal = new RecordingJournal();
+        journal.failing = true;
+        AsyncJournalWriter writer = new AsyncJournalWriter(journal, settings(1, 60_000));
+
+        long sequence = writer.submit(List.of(JournalEntry.delete(1)));
+        assertThrows(ManagerSaveException.class, () -> writer.awaitDurable(sequence));
+        assertThrows(ManagerSaveException.class, () -> writer.submit(List.of(JournalEntry.delete(2))));
+        assertEquals(0, writer.getPendingRequests());
+        assertThrows(ManagerSaveException.class, writer::close);
+    }
+
+    private static PersistenceSettings settings(int maxBatchSize, long maxDelayMillis) {
+        return new PersistenceSettings.Builder()
+                .setMode(PersistenceMode.JOURNAL)
+                .setAsynchronous(true)
+                .setMaxBatchSize(maxBatchSize)
+                .setMaxDelayMillis(maxDelayMillis)
+                .setQueueCapacity(16)
+                .build();
+    }
+
+    /**
+     * Counts flushes instead of writing them.
+     */
+    private static class RecordingJournal extends TaskJournal {
+        private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean failing;
+
+        RecordingJournal() throws IOException {
+            super(File.createTempFile("async_journal", ".csv"), PersistenceSettings.defaults());
+        }
+
+        @Override
+        public void append(List<JournalEntry> entries) {
+            if (entries.isEmpty()) {
+                return;
+            }
+            if (failing) {
+                throw new ManagerSaveException("Disk is full");
+            }
+            batchSizes.add(entries.size());
+        }
+
+        List<Integer> batchSizes() {
+            return List.copyOf(batchSizes);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntBitmapTest {
+
+    @Test
+    void bitmapShouldMatchSortedSetAcrossSparseAndDenseChunks() {
+        Random random = new Random(5);
+        IntBitmap first = new IntBitmap();
+        IntBitmap second = new IntBitmap();
+        TreeSet<Integer> expectedFirst = new TreeSet<>();
+        TreeSet<Integer> expectedSecond = new TreeSet<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int value = random.nextInt(3) == 0 ? random.nextInt(1 << 20) : random.nextInt(20_000);
+            if (random.nextInt(4) > 0) {
+                assertEquals(expectedFirst.add(value), first.add(value));
+                expectedSecond.add(value ^ 1);
+                second.add(value ^ 1);
+            } else {
+                assertEquals(expectedFirst.remove(value), first.remove(value));
+            }
+        }
+
+        assertEquals(expectedFirst.size(), first.cardinality());
+        assertArrayEquals(toArray(expectedFirst), first.toArray());
+
+        TreeSet<Integer> expectedAnd = new TreeSet<>(expectedFirst);
+        expectedAnd.retainAll(expectedSecond);
+        assertArrayEquals(toArray(expectedAnd), IntBitmap.and(first, second).toArray());
+
+        TreeSet<Integer> expectedOr = new TreeSet<>(expectedFirst);
+        expectedOr.addAll(expectedSecond);
+        assertArrayEquals(toArray(expectedOr), IntBitmap.or(first, second).toArray());
+
+        for (int value : expectedFirst) {
+            assertTrue(first.remove(value));
+        }
+        assertTrue(first.isEmpty());
+    }
+
+    private static int[] toArray(TreeSet<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
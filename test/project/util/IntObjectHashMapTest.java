@@ -0,0 +1,178 @@
+package project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntObjectHashMapTest {
+
+    @Test
+    void mapShouldBehaveLikeLinkedHashMapUnderRandomChanges() {
+        Random random = new Random(7);
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        Map<Integer, String> expected = new LinkedHashMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(2_000) - 1_000;
+            switch (random.nextInt(4)) {
+                case 0, 1 -> assertEquals(expected.put(key, "v" + i), map.put(key, "v" + i));
+                case 2 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.get(key), map.get(key));
+            }
+            if (i % 50_000 == 0) {
+                map.clear();
+                expected.clear();
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()));
+        for (int key = -1_000; key < 1_000; key++) {
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+    }
+
+    @Test
+    void replacingValueShouldKeepInsertionPosition() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        map.put(3, "a");
+        map.put(1, "b");
+        map.put(2, "c");
+
+        map.put(3, "d");
+        map.remove(1);
+        map.put(1, "e");
+
+        assertEquals(List.of("d", "c", "e"), new ArrayList<>(map.values()));
+        assertNull(map.get(4));
+    }
+
+    @Test
+    void valuesAfterShouldReturnSmallestGreaterKeysInOrder() {
+        Random random = new Random(5);
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        for (int key = 1; key <= 3_000; key++) {
+            map.put(key, key);
+            expected.put(key, key);
+            if (random.nextInt(3) == 0) {
+                int removed = random.nextInt(key) + 1;
+                map.remove(removed);
+                expected.remove(removed);
+            }
+        }
+        assertPagesMatch(expected, map, random);
+
+        for (int i = 0; i < 500; i++) {
+            int key = random.nextInt(4_000) - 500;
+            map.put(key, key);
+            expected.put(key, key);
+        }
+        assertPagesMatch(expected, map, random);
+    }
+
+    @Test
+    void valuesAfterShouldStaySortedWhileSmallerKeysKeepComing() {
+        Random random = new Random(23);
+        IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Map<Integer, Integer> inserted = new LinkedHashMap<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(10) == 0 ? random.nextInt(i + 1) : i;
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+                inserted.remove(key);
+            } else {
+                map.put(key, key);
+                expected.put(key, key);
+                inserted.put(key, key);
+            }
+            if (i % 100 == 0) {
+                int after = random.nextInt(i + 1);
+                assertEquals(expected.tailMap(after, false).values().stream().limit(20).toList(),
+                        map.valuesAfter(after, 20));
+            }
+        }
+
+        assertPagesMatch(expected, map, random);
+        assertEquals(new ArrayList<>(inserted.values()), new ArrayList<>(map.values()));
+    }
+
+    private static void assertPagesMatch(TreeMap<Integer, Integer> expected, IntObjectHashMap<Integer> map,
+                                         Random random) {
+        for (int i = 0; i < 200; i++) {
+            int after = random.nextInt(4_500) - 1_000;
+            int limit = random.nextInt(50);
+            List<Integer> page = expected.tailMap(after, false).values().stream().limit(limit).toList();
+            assertEquals(page, map.valuesAfter(after, limit));
+        }
+    }
+
+    @Test
+    void intHashSetShouldTrackMembershipIncludingZero() {
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(11);
+
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(500) - 250;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (int value = -250; value < 250; value++) {
+            assertEquals(expected.contains(value), set.contains(value));
+        }
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+    }
+
+    @Test
+    void intIntHashMapShouldBehaveLikeHashMapUnderRandomChanges() {
+        IntIntHashMap map = new IntIntHashMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(13);
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(3_000) - 1_500;
+            switch (random.nextInt(4)) {
+                case 0, 1 -> {
+                    Integer previous = expected.put(key, i);
+                    assertEquals(previous == null ? IntIntHashMap.NONE : previous, map.put(key, i));
+                }
+                case 2 -> {
+                    Integer removed = expected.remove(key);
+                    assertEquals(removed == null ? IntIntHashMap.NONE : removed, map.remove(key));
+                }
+                default -> assertEquals(expected.getOrDefault(key, IntIntHashMap.NONE), map.get(key));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        Map<Integer, Integer> visited = new HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, -1));
+    }
+}
@@ -0,0 +1,140 @@
+package project.util;
+
+import org.junit.jupiter.api.Test;
+import project.enums.LoadStrategy;
+import project.enums.SnapshotFormat;
+import project.enums.Status;
+import project.exception.ManagerSaveException;
+import project.mapper.CsvTaskCodec;
+import project.mapper.TaskCodec;
+import project.mapper.TaskCodecs;
+import project.model.AbstractTask;
+import project.model.Epic;
+import project.model.Subtask;
+import project.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedTaskFileReaderTest {
+    private static final TaskCodec CSV = TaskCodecs.forFormat(SnapshotFormat.CSV);
+
+    @Test
+    void mappedLoadShouldMatchReaderLoad() throws IOException {
+        File tempFile = File.createTempFile("mapped_tasks", ".csv");
+        tempFile.deleteOnExit();
+
+        List<AbstractTask> tasks = new ArrayList<>();
+        for (int i = 1; i <= 300; i += 3) {
+            tasks.add(new Task.Builder()
+                    .setId(i)
+                    .setName("Задача " + i)
+                    .setDescription("Описание " + i)
+                    .setStatus(Status.values()[i % 3])
+                    .build());
+            tasks.add(new Epic.Builder()
+                    .setId(i + 1)
+                    .setName("Epic " + i)
+                    .setDescription("Epic description " + i)
+                    .setSubtaskIds(List.of(i + 2))
+                    .build());
+            tasks.add(new Subtask.Builder()
+                    .setId(i + 2)
+                    .setName("Subtask " + i)
+                    .setDescription("Subtask description " + i)
+                    .setStatus(Status.DONE)
+                    .setEpicId(i + 1)
+                    .build());
+        }
+        TaskFileRepository.writeTasks(tempFile, tasks, CSV);
+
+        TaskLoadResult mapped = MappedTaskFileReader.load(tempFile);
+        List<AbstractTask> expected = readTasks(tempFile, LoadStrategy.READER);
+
+        assertEquals(expected.size(), mapped.getTasks().size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), mapped.getTasks().get(i).toString());
+        }
+        assertEquals(300, mapped.getStatistics().getRecords());
+        assertEquals(tempFile.length(), mapped.getStatistics().getBytes());
+        assertTrue(mapped.getStatistics().getRecordsPerSecond() > 0);
+    }
+
+    @Test
+    void readTasksShouldStreamTheSameRecordsWithEveryStrategy() throws IOException {
+        File tempFile = File.createTempFile("streamed_tasks", ".csv");
+        tempFile.deleteOnExit();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            tasks.add(new Task.Builder()
+                    .setId(i)
+                    .setName("Task, \"quoted\" " + i)
+                    .setDescription("Description " + i)
+                    .build());
+        }
+        TaskFileRepository.writeTasks(tempFile, tasks, CSV);
+
+        for (LoadStrategy strategy : LoadStrategy.values()) {
+            List<AbstractTask> streamed = new ArrayList<>();
+            TaskFileRepository.readTasks(tempFile, strategy, streamed::add);
+
+            assertEquals(tasks.size(), streamed.size(), strategy.name());
+            for (int i = 0; i < tasks.size(); i++) {
+                assertEquals(tasks.get(i).getName(), streamed.get(i).getName(), strategy.name());
+                assertEquals(tasks.get(i).toString(), streamed.get(i).toString(), strategy.name());
+            }
+        }
+    }
+
+    @Test
+    void mappedLoadShouldHandleWindowsLineEndingsAndLowercaseStatus() throws IOException {
+        File tempFile = File.createTempFile("mapped_crlf", ".csv");
+        tempFile.deleteOnExit();
+        Files.writeString(tempFile.toPath(), CsvTaskCodec.HEADER + "\r\n"
+                + "1,Epic,epic,description,in_progress,2,3\r\n"
+                + "2,Subtask,first,description,done,1\r\n"
+                + "3,Subtask,second,description,NEW,1\r\n");
+
+        List<AbstractTask> loaded = readTasks(tempFile, LoadStrategy.MAPPED);
+
+        assertEquals(3, loaded.size());
+        Epic epic = assertInstanceOf(Epic.class, loaded.getFirst());
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(List.of(2, 3), epic.getSubtaskIds());
+        Subtask subtask = assertInstanceOf(Subtask.class, loaded.get(1));
+        assertEquals(Status.DONE, subtask.getStatus());
+        assertEquals(1, subtask.getEpicId());
+    }
+
+    @Test
+    void mappedLoadShouldRejectWrongHeaderAndMalformedRecords() throws IOException {
+        File tempFile = File.createTempFile("mapped_wrong", ".csv");
+        tempFile.deleteOnExit();
+
+        Files.writeString(tempFile.toPath(), "wrong header");
+        assertThrows(ManagerSaveException.class, () -> readTasks(tempFile, LoadStrategy.MAPPED));
+
+        Files.writeString(tempFile.toPath(), "");
+        assertThrows(ManagerSaveException.class, () -> readTasks(tempFile, LoadStrategy.MAPPED));
+
+        Files.writeString(tempFile.toPath(), CsvTaskCodec.HEADER + "\n1,Task,name,description,UNKNOWN");
+        assertThrows(IllegalArgumentException.class, () -> readTasks(tempFile, LoadStrategy.MAPPED));
+
+        Files.writeString(tempFile.toPath(), CsvTaskCodec.HEADER + "\n1x,Task,name,description,NEW");
+        assertThrows(NumberFormatException.class, () -> readTasks(tempFile, LoadStrategy.MAPPED));
+    }
+
+    private static List<AbstractTask> readTasks(File file, LoadStrategy strategy) {
+        List<AbstractTask> tasks = new ArrayList<>();
+        TaskFileRepository.readTasks(file, strategy, tasks::add);
+        return tasks;
+    }
+}
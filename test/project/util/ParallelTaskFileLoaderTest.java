@@ -0,0 +1,137 @@
+package project.util;
+
+import org.junit.jupiter.api.Test;
+import project.enums.LoadStrategy;
+import project.enums.SnapshotFormat;
+import project.enums.Status;
+import project.manager.FileBackedTaskManager;
+import project.mapper.TaskCodecs;
+import project.model.AbstractTask;
+import project.model.Task;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelTaskFileLoaderTest {
+    private static final int TASK_COUNT = 50_000;
+
+    @Test
+    void parallelLoadShouldKeepFileOrderAcrossChunks() throws IOException {
+        File tempFile = createTaskFile(TASK_COUNT);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TaskLoadResult result = ParallelTaskFileLoader.load(tempFile, pool);
+        pool.shutdown();
+
+        List<AbstractTask> expected = readTasks(tempFile);
+        assertEquals(TASK_COUNT, result.getTasks().size());
+        assertEquals(TASK_COUNT, result.getMaxId());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toString(), result.getTasks().get(i).toString());
+        }
+    }
+
+    @Test
+    void parallelLoadShouldDetectDuplicatesInDifferentChunks() throws IOException {
+        File tempFile = createTaskFile(TASK_COUNT);
+        Files.writeString(tempFile.toPath(), "\n1,Task,duplicate,duplicate,NEW", StandardOpenOption.APPEND);
+
+        assertThrows(IllegalStateException.class, () -> ParallelTaskFileLoader.load(tempFile));
+    }
+
+    @Test
+    void parallelLoadShouldStopAtEmptyLine() throws IOException {
+        File tempFile = createTaskFile(TASK_COUNT);
+        Files.writeString(tempFile.toPath(), "\n\n" + (TASK_COUNT + 1) + ",Task,ignored,ignored,NEW",
+                StandardOpenOption.APPEND);
+
+        assertEquals(TASK_COUNT, ParallelTaskFileLoader.load(tempFile).getTasks().size());
+    }
+
+    @Test
+    void parallelLoadShouldIgnoreMalformedAndDuplicateRecordsAfterEmptyLine() throws IOException {
+        File tempFile = createTaskFile(TASK_COUNT);
+        StringBuilder garbage = new StringBuilder("\n\n");
+        for (int i = 0; i < TASK_COUNT; i++) {
+            garbage.append(i % 2 == 0 ? "not a record\n" : "1,Task,duplicate,duplicate,NEW\n");
+        }
+        Files.writeString(tempFile.toPath(), garbage, StandardOpenOption.APPEND);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        TaskLoadResult result = ParallelTaskFileLoader.load(tempFile, pool);
+        pool.shutdown();
+
+        assertEquals(TASK_COUNT, result.getTasks().size());
+        assertEquals(readTasks(tempFile).size(), result.getTasks().size());
+        assertEquals(TASK_COUNT, result.getMaxId());
+    }
+
+    @Test
+    void loadFromFileShouldSupportParallelStrategy() throws IOException {
+        File tempFile = createTaskFile(1_000);
+        PersistenceSettings settings = new PersistenceSettings.Builder()
+                .setLoadStrategy(LoadStrategy.PARALLEL)
+                .build();
+
+        FileBackedTaskManager manager = FileBackedTaskManager.loadFromFile(tempFile, settings);
+
+        assertEquals(1_000, manager.getTasks().size());
+        assertEquals(1_001, manager.addTask(new Task.Builder()
+                .setName("Next")
+                .setDescription("Next task")
+                .build()).getId());
+
+        Files.writeString(tempFile.toPath(), "\n7,Task,duplicate,duplicate,NEW", StandardOpenOption.APPEND);
+        assertThrows(IllegalStateException.class, () -> FileBackedTaskManager.loadFromFile(tempFile, settings));
+    }
+
+    @Test
+    void everyLoadResultShouldBeCheckedForDuplicates() throws IOException {
+        File csvFile = createTaskFile(100);
+        assertTrue(ParallelTaskFileLoader.load(csvFile).hasUniqueIds());
+
+        File binaryFile = File.createTempFile("parallel_tasks", ".bin");
+        binaryFile.deleteOnExit();
+        List<AbstractTask> tasks = readTasks(csvFile);
+        TaskFileRepository.writeTasks(binaryFile, tasks, TaskCodecs.forFormat(SnapshotFormat.BINARY));
+        TaskLoadResult binary = ParallelTaskFileLoader.load(binaryFile);
+        assertTrue(binary.hasUniqueIds());
+        assertEquals(100, binary.getMaxId());
+
+        tasks.add(tasks.getFirst());
+        TaskFileRepository.writeTasks(binaryFile, tasks, TaskCodecs.forFormat(SnapshotFormat.BINARY));
+        assertThrows(IllegalStateException.class, () -> ParallelTaskFileLoader.load(binaryFile));
+    }
+
+    private File createTaskFile(int count) throws IOException {
+        File tempFile = File.createTempFile("parallel_tasks", ".csv");
+        tempFile.deleteOnExit();
+
+        List<AbstractTask> tasks = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            tasks.add(new Task.Builder()
+                    .setId(i)
+                    .setName("Task number " + i)
+                    .setDescription("Description of the task number " + i)
+                    .setStatus(Status.values()[i % 3])
+                    .build());
+        }
+        TaskFileRepository.writeTasks(tempFile, tasks, TaskCodecs.forFormat(SnapshotFormat.CSV));
+        return tempFile;
+    }
+
+    private static List<AbstractTask> readTasks(File file) {
+        List<AbstractTask> tasks = new ArrayList<>();
+        TaskFileRepository.readTasks(file, LoadStrategy.READER, tasks::add);
+        return tasks;
+    }
+}
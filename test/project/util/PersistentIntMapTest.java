@@ -0,0 +1,64 @@
+package project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PersistentIntMapTest {
+
+    @Test
+    void mapShouldBehaveLikeTreeMapAndLeaveEarlierVersionsUnchanged() {
+        Random random = new Random(13);
+        PersistentIntMap<String> map = PersistentIntMap.empty();
+        TreeMap<Integer, String> expected = new TreeMap<>();
+        List<PersistentIntMap<String>> versions = new ArrayList<>();
+        List<List<String>> expectedVersions = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(1_000) - 500;
+            if (random.nextInt(3) > 0) {
+                map = map.with(key, "v" + i);
+                expected.put(key, "v" + i);
+            } else {
+                map = map.without(key);
+                expected.remove(key);
+            }
+            if (i % 1_000 == 0) {
+                versions.add(map);
+                expectedVersions.add(List.copyOf(expected.values()));
+            }
+        }
+
+        assertEquals(List.copyOf(expected.values()), map.values());
+        for (int key = -500; key < 500; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals(List.copyOf(expected.values()).get(i), map.values().get(i));
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expectedVersions.get(i), versions.get(i).values());
+        }
+    }
+
+    @Test
+    void ofShouldSortValuesByKey() {
+        PersistentIntMap<String> map = PersistentIntMap.of(List.of("30", "-5", "200000", "10"), Integer::parseInt);
+
+        assertEquals(List.of("-5", "10", "30", "200000"), map.values());
+        assertEquals("30", map.get(30));
+        assertNull(map.get(11));
+        assertSame(map, map.without(11));
+        assertSame(PersistentIntMap.empty(), PersistentIntMap.of(List.of("1"), Integer::parseInt).without(1));
+        assertThrows(UnsupportedOperationException.class, () -> map.values().add("1"));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.values().get(4));
+    }
+}
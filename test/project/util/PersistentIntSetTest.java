@@ -0,0 +1,64 @@
+package project.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PersistentIntSetTest {
+
+    @Test
+    void setShouldKeepInsertionOrderAndLeaveEarlierVersionsUnchanged() {
+        Random random = new Random(3);
+        PersistentIntSet set = PersistentIntSet.EMPTY;
+        Set<Integer> expected = new LinkedHashSet<>();
+        List<PersistentIntSet> versions = new ArrayList<>();
+        List<List<Integer>> expectedVersions = new ArrayList<>();
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(1_000) - 500;
+            if (random.nextInt(3) > 0) {
+                set = set.with(value);
+                expected.add(value);
+            } else {
+                set = set.without(value);
+                expected.remove(value);
+            }
+            if (i % 1_000 == 0) {
+                versions.add(set);
+                expectedVersions.add(List.copyOf(expected));
+            }
+        }
+
+        assertEquals(List.copyOf(expected), set.asList());
+        for (int i = 0; i < set.size(); i++) {
+            assertEquals(List.copyOf(expected).get(i), set.asList().get(i));
+        }
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(expectedVersions.get(i), versions.get(i).asList());
+        }
+    }
+
+    @Test
+    void ofShouldDropRepeatedValuesAndSupportLookups() {
+        PersistentIntSet set = PersistentIntSet.of(List.of(10, 200_000, 30, 10, -5));
+
+        assertEquals(List.of(10, 200_000, 30, -5), set.asList());
+        assertTrue(set.contains(-5));
+        assertFalse(set.contains(11));
+        assertSame(set, set.with(30));
+        assertSame(set, set.without(31));
+        assertEquals(List.of(10, 30, -5, 7), set.without(200_000).with(7).asList());
+        assertThrows(UnsupportedOperationException.class, () -> set.asList().add(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> set.asList().get(4));
+    }
+}